@@ -0,0 +1,157 @@
+package com.server.base.cache.benchmark;
+
+import com.server.base.cache.container.Cache;
+import com.server.base.cache.key.CacheKeyBuilder;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个缓存容器的基准测试公共部分：按参数构建容器，hit/zipf 负载下预热写入 {@link BenchKeys#KEY_SPACE} 个 key
+ * 默认不包含 redis，需要时通过 {@code -p container=redis} 指定
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class AbstractContainerBenchmark {
+
+    static final String PREFIX = "bench:container:";
+
+    static final long EXPIRE = TimeUnit.MINUTES.toMillis(10);
+
+    @Param({BenchContainers.GUAVA, BenchContainers.GUAVA_REFERENCE, BenchContainers.CAFFEINE, BenchContainers.OFF_HEAP,
+            BenchContainers.NO_CACHE, BenchContainers.STAND_IN, BenchContainers.CATCH_EXCEPTION, BenchContainers.RANDOM_EXPIRE,
+            BenchContainers.CONFIG})
+    String container;
+
+    @Param({BenchKeys.HIT, BenchKeys.MISS, BenchKeys.ZIPF})
+    String workload;
+
+    Cache<Collection<BenchEntity>> cache;
+
+    private BenchContainers.BenchResources resources;
+
+    @Setup(Level.Iteration)
+    public void setUpCache() {
+        resources = new BenchContainers.BenchResources();
+        cache = BenchContainers.build(container, resources);
+        if (BenchKeys.MISS.equals(workload)) {
+            return;
+        }
+        Map<String, Collection<BenchEntity>> values = new HashMap<>(1024);
+        for (long id = 0; id < BenchKeys.KEY_SPACE; id++) {
+            values.put(key(id), value(id));
+            if (values.size() == 1000) {
+                cache.putAll(values, EXPIRE);
+                values.clear();
+            }
+        }
+        cache.putAll(values, EXPIRE);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownCache() {
+        resources.close();
+    }
+
+    abstract int batchSize();
+
+    static String key(Long id) {
+        return CacheKeyBuilder.buildPrefixAndValue(PREFIX, id);
+    }
+
+    static Collection<BenchEntity> value(Long id) {
+        return Collections.singletonList(BenchEntity.of(id));
+    }
+
+    /**
+     * 每个线程预先生成的 key 与 value，压测时循环取用
+     * 每轮迭代开始时清空，第一次取用时按所属基准测试的参数生成
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private Set<String>[] keys;
+
+        private Map<String, Collection<BenchEntity>>[] values;
+
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            keys = null;
+            values = null;
+            index = 0;
+        }
+
+        Set<String> nextKeys(AbstractContainerBenchmark benchmark) {
+            return keys(benchmark)[advance()];
+        }
+
+        Map<String, Collection<BenchEntity>> nextValues(AbstractContainerBenchmark benchmark) {
+            keys(benchmark);
+            return values[advance()];
+        }
+
+        private Set<String>[] keys(AbstractContainerBenchmark benchmark) {
+            if (keys != null) {
+                return keys;
+            }
+            List<List<Long>> batches = BenchKeys.prepare(benchmark.workload, benchmark.batchSize());
+            Set<String>[] preparedKeys = newKeyArray(batches.size());
+            values = newValueArray(batches.size());
+            for (int i = 0; i < batches.size(); i++) {
+                List<Long> batch = batches.get(i);
+                preparedKeys[i] = new LinkedHashSet<>(batch.size() * 2);
+                values[i] = new HashMap<>(batch.size() * 2);
+                for (Long id : batch) {
+                    String key = key(id);
+                    preparedKeys[i].add(key);
+                    values[i].put(key, value(id));
+                }
+            }
+            keys = preparedKeys;
+            return keys;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Set<String>[] newKeyArray(int length) {
+            return (Set<String>[]) new Set<?>[length];
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, Collection<BenchEntity>>[] newValueArray(int length) {
+            return (Map<String, Collection<BenchEntity>>[]) new Map<?, ?>[length];
+        }
+
+        private int advance() {
+            int current = index;
+            index = (current + 1) % keys.length;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.server.base.cache.benchmark;
+
+import com.server.base.cache.container.Cache;
+import com.server.base.cache.container.DataCache;
+import com.server.base.cache.container.LinkCache;
+import com.server.base.cache.key.CacheKeyBuilder;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link LinkCache} 读路径的基准测试公共部分，loader、keyBuilder 与 {@link com.server.base.cache.aspect.CacheAspect} 中的构造方式一致
+ * tiers 用 {@code +} 连接各级容器名，如 {@code guava+standIn} 表示本地 guava 在前、远程替身在后，
+ * 连接真实 Redis 时使用 {@code -p tiers=guava+redis}
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public abstract class AbstractLinkCacheBenchmark {
+
+    static final String PREFIX = "bench:link:";
+
+    static final long EXPIRE = TimeUnit.MINUTES.toMillis(10);
+
+    static final long NULL_EXPIRE = TimeUnit.MINUTES.toMillis(1);
+
+    static final Function<Long, String> KEY_BUILDER = id -> CacheKeyBuilder.buildPrefixAndValue(PREFIX, id);
+
+    static final Function<Collection<Long>, Object> LIST_LOADER = ids -> ids.stream()
+            .map(BenchEntity::of)
+            .collect(Collectors.toList());
+
+    static final Function<Long, BenchEntity> LOADER = BenchEntity::of;
+
+    static final Function<Object, Long> PARAM_FROM_DATA = data -> ((BenchEntity) data).getId();
+
+    @Param({"guava", "caffeine", "guava+standIn", "caffeine+standIn", "offHeap+standIn", "standIn"})
+    String tiers;
+
+    @Param({BenchKeys.HIT, BenchKeys.MISS, BenchKeys.ZIPF})
+    String workload;
+
+    DataCache<BenchEntity> linkCache;
+
+    private BenchContainers.BenchResources resources;
+
+    @Setup(Level.Iteration)
+    public void setUpCache() {
+        resources = new BenchContainers.BenchResources();
+        List<Cache<Collection<BenchEntity>>> caches = new ArrayList<>();
+        for (String tier : tiers.split("\\+")) {
+            caches.add(BenchContainers.build(tier, resources));
+        }
+        LinkCache<BenchEntity> linkCache = new LinkCache<>(caches);
+        configure(linkCache);
+        this.linkCache = linkCache;
+        if (BenchKeys.MISS.equals(workload)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(1000);
+        for (long id = 0; id < BenchKeys.KEY_SPACE; id++) {
+            ids.add(id);
+            if (ids.size() == 1000) {
+                getCacheOrLoadList(ids);
+                ids.clear();
+            }
+        }
+        getCacheOrLoadList(ids);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownCache() {
+        resources.close();
+    }
+
+    abstract int batchSize();
+
+    /**
+     * 子类对 {@link LinkCache} 的额外配置
+     */
+    void configure(LinkCache<BenchEntity> linkCache) {
+    }
+
+    List<BenchEntity> getCacheOrLoadList(List<Long> ids) {
+        return linkCache.getCacheOrLoadList(ids, LIST_LOADER, KEY_BUILDER, PARAM_FROM_DATA, true, EXPIRE, NULL_EXPIRE);
+    }
+
+    Collection<BenchEntity> getCacheOrLoad(Long id) {
+        return linkCache.getCacheOrLoad(id, LOADER, KEY_BUILDER, true, EXPIRE, NULL_EXPIRE);
+    }
+
+    /**
+     * 每个线程预先生成的请求 id，每轮迭代第一次取用时生成；miss 负载下每循环一轮整体偏移一次，保证 id 不会被重复请求而命中
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private static final long MISS_STRIDE = BenchKeys.KEY_SPACE * 100L;
+
+        private List<List<Long>> batches;
+
+        private boolean miss;
+
+        private long offset;
+
+        private int index;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            batches = null;
+            index = 0;
+        }
+
+        List<Long> next(AbstractLinkCacheBenchmark benchmark) {
+            if (batches == null) {
+                batches = BenchKeys.prepare(benchmark.workload, benchmark.batchSize());
+                miss = BenchKeys.MISS.equals(benchmark.workload);
+                // 不同线程使用不同的起点，避免多线程下 miss 负载互相命中
+                offset = miss ? System.identityHashCode(this) * MISS_STRIDE : 0;
+            }
+            List<Long> batch = batches.get(index);
+            if (++index == batches.size()) {
+                index = 0;
+                if (miss) {
+                    offset += MISS_STRIDE;
+                }
+            }
+            if (!miss) {
+                return batch;
+            }
+            List<Long> shifted = new ArrayList<>(batch.size());
+            for (Long id : batch) {
+                shifted.add(id + offset);
+            }
+            return shifted;
+        }
+    }
+}
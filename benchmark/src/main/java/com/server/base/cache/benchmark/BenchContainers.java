@@ -0,0 +1,127 @@
+package com.server.base.cache.benchmark;
+
+import com.server.base.cache.config.CacheConfig;
+import com.server.base.cache.container.Cache;
+import com.server.base.cache.container.CaffeineCache;
+import com.server.base.cache.container.CatchExceptionCache;
+import com.server.base.cache.container.ConfigCache;
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.container.NoCache;
+import com.server.base.cache.container.OffHeapCache;
+import com.server.base.cache.container.RandomExpireCache;
+import com.server.base.cache.container.RedisCache;
+import com.server.base.cache.container.ReferencePolicy;
+import com.server.base.cache.converter.KryoValueConverter;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按名字构建被测的缓存容器，基准测试通过 {@code @Param} 选择
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public final class BenchContainers {
+
+    /** 本地缓存容量，保证 key 空间内的数据都能放下 */
+    public static final int LOCAL_SIZE = 200_000;
+
+    /** 堆外本地缓存的直接内存容量 */
+    public static final long OFF_HEAP_CAPACITY = 256L << 20;
+
+    /** 进程内远程层替身的容量上限 */
+    public static final int REMOTE_SIZE = 1_000_000;
+
+    public static final String GUAVA = "guava";
+    public static final String GUAVA_REFERENCE = "guavaReference";
+    public static final String CAFFEINE = "caffeine";
+    public static final String OFF_HEAP = "offHeap";
+    public static final String NO_CACHE = "noCache";
+    public static final String STAND_IN = "standIn";
+    public static final String REDIS = "redis";
+    public static final String CATCH_EXCEPTION = "catchException";
+    public static final String RANDOM_EXPIRE = "randomExpire";
+    public static final String CONFIG = "config";
+
+    private BenchContainers() {
+    }
+
+    public static Cache<Collection<BenchEntity>> build(String name, BenchResources resources) {
+        switch (name) {
+            case GUAVA:
+                return resources.track(new GuavaCache<>(new KryoValueConverter<>(), LOCAL_SIZE));
+            case GUAVA_REFERENCE:
+                return resources.track(new GuavaCache<>(new KryoValueConverter<>(), LOCAL_SIZE, ReferencePolicy.COPY_ON_READ));
+            case CAFFEINE:
+                return resources.track(new CaffeineCache<>(new KryoValueConverter<>(), LOCAL_SIZE));
+            case OFF_HEAP:
+                return resources.track(new OffHeapCache<>(new KryoValueConverter<>(), OFF_HEAP_CAPACITY));
+            case NO_CACHE:
+                return new NoCache<>();
+            case STAND_IN:
+                return resources.track(new StandInRemoteCache<>(new KryoValueConverter<>(), REMOTE_SIZE));
+            case REDIS:
+                return new RedisCache<>(resources.redisConnectionFactory(), new KryoValueConverter<>());
+            case CATCH_EXCEPTION:
+                return new CatchExceptionCache<>(build(GUAVA, resources));
+            case RANDOM_EXPIRE:
+                return new RandomExpireCache<>(build(GUAVA, resources));
+            case CONFIG:
+                CacheConfig config = new CacheConfig();
+                config.setGlobalExpireTime(60);
+                config.setTimeUnit(TimeUnit.SECONDS);
+                return new ConfigCache<>(config, build(GUAVA, resources));
+            default:
+                throw new IllegalArgumentException("unknown container " + name);
+        }
+    }
+
+    /**
+     * 一轮迭代内创建的需要释放的资源，迭代结束后关闭，保证每轮从空缓存开始
+     */
+    public static class BenchResources implements AutoCloseable {
+
+        private JedisConnectionFactory connectionFactory;
+
+        private final List<Object> tracked = new ArrayList<>();
+
+        <T> T track(T cache) {
+            tracked.add(cache);
+            return cache;
+        }
+
+        synchronized JedisConnectionFactory redisConnectionFactory() {
+            if (connectionFactory == null) {
+                RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                        System.getProperty("bench.redis.host", "127.0.0.1"),
+                        Integer.getInteger("bench.redis.port", 6379));
+                connectionFactory = new JedisConnectionFactory(configuration);
+                connectionFactory.afterPropertiesSet();
+            }
+            return connectionFactory;
+        }
+
+        @Override
+        public void close() {
+            tracked.forEach(cache -> {
+                if (cache instanceof GuavaCache) {
+                    ((GuavaCache<?>) cache).close();
+                } else if (cache instanceof CaffeineCache) {
+                    ((CaffeineCache<?>) cache).close();
+                } else if (cache instanceof OffHeapCache) {
+                    ((OffHeapCache<?>) cache).close();
+                } else if (cache instanceof StandInRemoteCache) {
+                    ((StandInRemoteCache<?>) cache).clear();
+                }
+            });
+            if (connectionFactory != null) {
+                connectionFactory.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.server.base.cache.benchmark;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试中被缓存的实体，字段构成接近线上常见的业务实体
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Data
+public class BenchEntity {
+
+    private Long id;
+
+    private String name;
+
+    private long createTime;
+
+    private List<String> tags;
+
+    public static BenchEntity of(Long id) {
+        BenchEntity entity = new BenchEntity();
+        entity.id = id;
+        entity.name = "entity-" + id;
+        entity.createTime = 1_600_000_000_000L + id;
+        entity.tags = new ArrayList<>(4);
+        for (int i = 0; i < 4; i++) {
+            entity.tags.add("tag" + (id + i) % 16);
+        }
+        return entity;
+    }
+}
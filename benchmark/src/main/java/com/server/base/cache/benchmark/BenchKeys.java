@@ -0,0 +1,58 @@
+package com.server.base.cache.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 各种负载下请求 id 的生成方式
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public final class BenchKeys {
+
+    /** 预热写入的 id 空间大小，hit 负载只会访问这部分 id */
+    public static final int KEY_SPACE = 100_000;
+
+    /** 全部命中 */
+    public static final String HIT = "hit";
+    /** 全部未命中，每次请求的 id 都不重复 */
+    public static final String MISS = "miss";
+    /** Zipf 分布的混合负载，id 空间是预热空间的两倍，尾部的 id 会未命中 */
+    public static final String ZIPF = "zipf";
+
+    /** 每个线程预先生成的批次数，压测时循环使用，避免把随机数与装箱的开销算进结果 */
+    private static final int PREPARED_BATCHES = 1024;
+
+    private static final ZipfGenerator ZIPF_GENERATOR = new ZipfGenerator(KEY_SPACE * 2, 0.99);
+
+    private BenchKeys() {
+    }
+
+    public static List<List<Long>> prepare(String workload, int batchSize) {
+        List<List<Long>> batches = new ArrayList<>(PREPARED_BATCHES);
+        for (int i = 0; i < PREPARED_BATCHES; i++) {
+            List<Long> batch = new ArrayList<>(batchSize);
+            for (int j = 0; j < batchSize; j++) {
+                batch.add(nextId(workload));
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static long nextId(String workload) {
+        switch (workload) {
+            case HIT:
+                return ThreadLocalRandom.current().nextInt(KEY_SPACE);
+            case ZIPF:
+                return ZIPF_GENERATOR.next();
+            case MISS:
+                // 远离预热空间，由调用方在每次使用时再加上递增偏移
+                return KEY_SPACE * 10L + ThreadLocalRandom.current().nextInt(KEY_SPACE);
+            default:
+                throw new IllegalArgumentException("unknown workload " + workload);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.server.base.cache.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口，固定挂上 gc profiler 以输出分配速率（gc.alloc.rate.norm 即每次操作分配的字节数），
+ * 结果同时写入 jmh-result.json 便于前后对比
+ * <p>
+ * 参数：第一个参数为要运行的基准测试正则，默认全部运行
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CacheBenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : CacheBenchmarkRunner.class.getPackage().getName() + ".*Benchmark";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .shouldFailOnError(true)
+                .build();
+        new Runner(options).run();
+    }
+}
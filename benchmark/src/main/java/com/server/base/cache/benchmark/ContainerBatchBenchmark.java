@@ -0,0 +1,35 @@
+package com.server.base.cache.benchmark;
+
+import com.server.base.cache.entity.CacheResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 缓存容器的批量读写，批量大小从 1 到 5000
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class ContainerBatchBenchmark extends AbstractContainerBenchmark {
+
+    @Param({"1", "10", "100", "1000", "5000"})
+    int batchSize;
+
+    @Override
+    int batchSize() {
+        return batchSize;
+    }
+
+    @Benchmark
+    public Map<String, CacheResult<Collection<BenchEntity>>> getAll(Cursor cursor) {
+        return cache.getAll(cursor.nextKeys(this));
+    }
+
+    @Benchmark
+    public void putAll(Cursor cursor) {
+        cache.putAll(cursor.nextValues(this), EXPIRE);
+    }
+}
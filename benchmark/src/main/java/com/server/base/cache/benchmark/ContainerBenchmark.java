@@ -0,0 +1,32 @@
+package com.server.base.cache.benchmark;
+
+import com.server.base.cache.entity.CacheResult;
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 缓存容器的单 key 读写
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class ContainerBenchmark extends AbstractContainerBenchmark {
+
+    @Override
+    int batchSize() {
+        return 1;
+    }
+
+    @Benchmark
+    public CacheResult<Collection<BenchEntity>> get(Cursor cursor) {
+        return cache.get(cursor.nextKeys(this).iterator().next());
+    }
+
+    @Benchmark
+    public void put(Cursor cursor) {
+        Map.Entry<String, Collection<BenchEntity>> entry = cursor.nextValues(this).entrySet().iterator().next();
+        cache.put(entry.getKey(), entry.getValue(), EXPIRE);
+    }
+}
@@ -0,0 +1,46 @@
+package com.server.base.cache.benchmark;
+
+import com.server.base.cache.container.LinkCache;
+import com.server.base.cache.util.BatchLoadExecutors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * {@link com.server.base.cache.container.LinkCache#getCacheOrLoadList} 的批量读路径，批量大小从 1 到 5000
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class LinkCacheBatchBenchmark extends AbstractLinkCacheBenchmark {
+
+    private static final ExecutorService EXECUTOR = BatchLoadExecutors.newBatchLoadExecutor(8);
+
+    @Param({"1", "10", "100", "1000", "5000"})
+    int batchSize;
+
+    /**
+     * 分片并发加载的分片大小，0 表示不开启
+     */
+    @Param({"0", "500"})
+    int loadChunk;
+
+    @Override
+    int batchSize() {
+        return batchSize;
+    }
+
+    @Override
+    void configure(LinkCache<BenchEntity> linkCache) {
+        if (loadChunk > 0) {
+            linkCache.setBatchLoad(EXECUTOR, loadChunk);
+        }
+    }
+
+    @Benchmark
+    public List<BenchEntity> getCacheOrLoadList(Cursor cursor) {
+        return getCacheOrLoadList(cursor.next(this));
+    }
+}
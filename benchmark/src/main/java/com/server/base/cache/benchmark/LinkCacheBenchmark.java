@@ -0,0 +1,24 @@
+package com.server.base.cache.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+import java.util.Collection;
+
+/**
+ * {@link com.server.base.cache.container.LinkCache#getCacheOrLoad} 的单参数读路径
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class LinkCacheBenchmark extends AbstractLinkCacheBenchmark {
+
+    @Override
+    int batchSize() {
+        return 1;
+    }
+
+    @Benchmark
+    public Collection<BenchEntity> getCacheOrLoad(Cursor cursor) {
+        return getCacheOrLoad(cursor.next(this).get(0));
+    }
+}
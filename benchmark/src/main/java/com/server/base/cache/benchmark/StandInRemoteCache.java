@@ -0,0 +1,98 @@
+package com.server.base.cache.benchmark;
+
+import com.server.base.cache.container.Cache;
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.util.CacheHolders;
+import com.server.base.cache.util.CacheResults;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内的 Redis 替身：与 {@link com.server.base.cache.container.RedisCache} 一样每次读写都经过 {@link ValueConverter}，
+ * 但没有网络往返，用于在没有 redis-server 的环境里衡量远程层的编解码与 {@link com.server.base.cache.container.LinkCache} 的开销
+ * 不处理过期：条目数超过 maxSize 时整体清空，避免 miss-and-load 场景下无限增长
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class StandInRemoteCache<V> implements Cache<V> {
+
+    private static final byte[] LOCK_VALUE = "lock".getBytes();
+
+    private final ConcurrentHashMap<String, byte[]> store = new ConcurrentHashMap<>();
+
+    private final ValueConverter<V> converter;
+
+    private final int maxSize;
+
+    public StandInRemoteCache(ValueConverter<V> converter, int maxSize) {
+        this.converter = converter;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public CacheResult<V> get(String key) {
+        return decode(store.get(key));
+    }
+
+    @Override
+    public Map<String, CacheResult<V>> getAll(Set<String> keys) {
+        HashMap<String, CacheResult<V>> result = new HashMap<>(keys.size());
+        keys.forEach(k -> result.put(k, decode(store.get(k))));
+        return result;
+    }
+
+    @Override
+    public void put(String key, V value, Long expire) {
+        if (store.size() > maxSize) {
+            store.clear();
+        }
+        store.put(key, converter.encode(CacheHolders.expireAfter(value, expire)));
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends V> values, Long expire) {
+        values.forEach((k, v) -> put(k, v, expire));
+    }
+
+    @Override
+    public boolean putIfNotExist(String key, Long expire) {
+        return store.putIfAbsent(key, LOCK_VALUE) == null;
+    }
+
+    @Override
+    public Set<String> putMultiIfNotExist(Set<String> keys, Long expire) {
+        return keys.stream().filter(key -> putIfNotExist(key, expire)).collect(Collectors.toSet());
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return store.remove(key) != null;
+    }
+
+    @Override
+    public void removeAll(Set<String> keys) {
+        keys.forEach(store::remove);
+    }
+
+    public void clear() {
+        store.clear();
+    }
+
+    private CacheResult<V> decode(byte[] value) {
+        if (value == null || value == LOCK_VALUE) {
+            return CacheResults.fail();
+        }
+        try {
+            return warp(converter.decode(value));
+        } catch (ConvertException e) {
+            return CacheResults.fail();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.server.base.cache.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf 分布的 id 生成器，用于模拟少量热点 key 占据大部分流量的场景
+ * 预先计算累积分布，采样时二分查找
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class ZipfGenerator {
+
+    private final double[] cdf;
+
+    /**
+     * @param size     key 空间大小，生成的 id 范围为 [0, size)
+     * @param exponent 偏斜系数，越大热点越集中，常用 0.99
+     */
+    public ZipfGenerator(int size, double exponent) {
+        cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    public long next() {
+        double p = ThreadLocalRandom.current().nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < p) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
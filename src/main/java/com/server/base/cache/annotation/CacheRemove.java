@@ -18,6 +18,12 @@ public @interface CacheRemove {
      */
     String keyWord() default CacheConst.UNDEFINED_STRING;
 
+    /**
+     * 缓存@Cached设置的hashTag
+     * @return
+     */
+    boolean hashTag() default false;
+
     /**
      * 缓存@Cached设置的keyValueMethod,在生成前缀的时使用
      * @return
@@ -22,6 +22,13 @@ public @interface Cached {
      */
     String keyWord() default CacheConst.UNDEFINED_STRING;
 
+    /**
+     * 是否把 keyWord 作为 Redis Cluster 的 hash tag：为 true 时缓存key的前缀为 {keyWord}，
+     * 同一 keyWord 的缓存与加载锁都在同一个 slot，批量读取与加锁可以在一次请求中完成；
+     * 但这些key会集中在一个节点上，只适合数据量不大的缓存。删除缓存的 {@link CacheRemove#hashTag()} 需要保持一致
+     */
+    boolean hashTag() default false;
+
     /**
      * 从相应值中获取请求参数值的方法名，如：{@code getId}
      */
@@ -32,6 +39,19 @@ public @interface Cached {
      */
     long expireTime() default CacheConst.UNDEFINED_LONG;
 
+    /**
+     * 本地缓存的过期时长，与unit()配合使用，未设置时与 expireTime() 相同；
+     * 本地缓存从远程缓存读取时，过期时间不会超过远程缓存剩余的时间，null值在本地缓存中的过期时间也不超过它
+     */
+    long localExpireTime() default CacheConst.UNDEFINED_LONG;
+
+    /**
+     * 软过期时长，与unit()配合使用，需要小于 expireTime() 才生效：
+     * 写入超过该时长的缓存仍然直接返回，同时在后台线程中刷新一次（按 key 加锁，同一时间只有一个刷新），
+     * 避免热点key在过期时所有请求同步等待加载；后台刷新时原方法运行在其他线程中，不能依赖调用方线程的上下文
+     */
+    long softExpireTime() default CacheConst.UNDEFINED_LONG;
+
     /**
      * 缓存过期的时间单位
      */
@@ -52,4 +72,12 @@ public @interface Cached {
      */
     long nullValueExpireTime() default CacheConst.UNDEFINED_LONG;
 
+    /**
+     * 是否用 Bloom 过滤器记录原方法没有返回数据的参数，再次读取时直接返回空结果，需要为
+     * {@link com.server.base.cache.container.LinkCache#setNegativeCache} 设置 {@link com.server.base.cache.bloom.NegativeCache}；
+     * 与 cacheNull 相互独立，开启后通常不再需要缓存null值。有很小的概率误判有数据的参数，
+     * 数据新增时需要通过 {@link CacheRemove} 删除缓存
+     */
+    boolean negativeCache() default false;
+
 }
@@ -3,9 +3,12 @@ package com.server.base.cache.aspect;
 import com.server.base.cache.annotation.CacheConst;
 import com.server.base.cache.annotation.CacheRemove;
 import com.server.base.cache.annotation.Cached;
+import com.server.base.cache.config.CachePolicy;
 import com.server.base.cache.container.DataCache;
+import com.server.base.cache.converter.KeyEncoder;
+import com.server.base.cache.converter.KeyEncoders;
 import com.server.base.cache.key.CacheKeyBuilder;
-import com.server.generic.util.JsonUtils;
+import com.server.base.cache.util.MethodAccessors;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -14,12 +17,13 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -32,6 +36,13 @@ public class CacheAspect {
 
     private final DataCache<Object> cache;
 
+    /**
+     * 每个方法的缓存信息只解析一次
+     */
+    private final ConcurrentHashMap<Method, CacheInfo> cacheInfos = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Method, RemoveInfo> removeInfos = new ConcurrentHashMap<>();
+
     public CacheAspect(DataCache<Object> cache) {
         this.cache = cache;
     }
@@ -59,24 +70,22 @@ public class CacheAspect {
     }
 
     private void removeCache(ProceedingJoinPoint point) {
-        //1. 获取注解
+        //1. 获取注解解析后的信息
         MethodSignature signature = (MethodSignature) point.getSignature();
-        Method method = signature.getMethod();
-        CacheRemove cacheRemove = method.getAnnotation(CacheRemove.class);
+        RemoveInfo removeInfo = removeInfos.computeIfAbsent(signature.getMethod(), RemoveInfo::build);
 
         //2. 构建key
         //2.1 构建缓存keyBuilder
-        CacheKeyBuilder cacheKeyBuilder = new CacheKeyBuilder(cacheRemove.keyWord(),
-                cacheRemove.cachedKeyValueMethod(), cacheRemove.cachedClass());
+        CacheKeyBuilder cacheKeyBuilder = removeInfo.getCacheKeyBuilder();
         //2.2 从更新类中提取出key值部分
         Object[] args = point.getArgs();
         Object extractKeyValueParam = cacheKeyBuilder
-                .extractKeyValue(args, cacheRemove.removeKeyValueMethod());
+                .extractKeyValue(args, removeInfo.getRemoveKeyValueGetter());
         //2.3 生成redis的缓存key
         List<String> redisKeys = cacheKeyBuilder.buildKeys(extractKeyValueParam);
 
         //3. 缓存的删除
-        cache.removeCache(new HashSet<>(redisKeys));
+        cache.removeCache(cacheKeyBuilder.getPrefix(), new HashSet<>(redisKeys));
     }
 
     @Around("cachePointCut()")
@@ -84,7 +93,7 @@ public class CacheAspect {
         long start = System.currentTimeMillis();
         // 找到使用了注解的方法签名，并构建要缓存数据的描述信息
         MethodSignature signature = (MethodSignature) point.getSignature();
-        CacheInfo cacheInfo = CacheInfo.build(signature.getMethod());
+        CacheInfo cacheInfo = cacheInfos.computeIfAbsent(signature.getMethod(), CacheInfo::build);
 
         Object[] args = point.getArgs();
         Object result = null;
@@ -99,23 +108,16 @@ public class CacheAspect {
                 }
             };
             // 定义缓存key的构建函数，该函数将会拼接 cacheInfo.keyPrefix + param 作为返回的key
-            Function<Object, String> keyBuilder = param -> CacheKeyBuilder.buildPrefixAndValue(cacheInfo.getKeyPrefix(), param);
+            KeyEncoder<Object> paramEncoder = cacheInfo.getParamEncoder();
+            Function<Object, String> keyBuilder = param -> cacheInfo.getKeyPrefix() + paramEncoder.encode(param);
             // 定义从缓存的结果值中获取对应请求参数值的函数（methodThatGetParamFromData）
-            Function<Object, Object> methodThatGetMethodParamFromMethodResult = obj -> {
-                try {
-                    return cacheInfo.getMethodThatGetMethodParamFromMethodResult().invoke(obj);
-                } catch (IllegalAccessException | InvocationTargetException e) {
-                    throw new RuntimeException(e);
-                }
-            };
+            Function<Object, Object> methodThatGetMethodParamFromMethodResult = cacheInfo.getMethodThatGetMethodParamFromMethodResult();
             result = cache.getCacheOrLoadList(
                     (Collection<Object>) args[0],
                     loader,
                     keyBuilder,
                     methodThatGetMethodParamFromMethodResult,
-                    cacheInfo.isCacheNull(),
-                    cacheInfo.getExpireTime(),
-                    cacheInfo.getNullValueExpireTime()
+                    cacheInfo.getPolicy()
             );
         // 如果连接点的方法入参为其他情况
         } else {
@@ -127,12 +129,12 @@ public class CacheAspect {
                     throw new RuntimeException(throwable);
                 }
             };
-            Function<Object[], String> keyBuilder = params -> cacheInfo.getKeyPrefix() + JsonUtils.getStringJsonUtils().toJson(params);
+            KeyEncoder<Object[]> argsEncoder = cacheInfo.getArgsEncoder();
+            Function<Object[], String> keyBuilder = params -> cacheInfo.getKeyPrefix() + argsEncoder.encode(params);
 
             // 从缓存中读取或调用切入点方法，得到返回值
             Collection<Object> tmpResult = cache
-                    .getCacheOrLoad(args, loader, keyBuilder, cacheInfo.isCacheNull(), cacheInfo.getExpireTime(),
-                            cacheInfo.getNullValueExpireTime());
+                    .getCacheOrLoad(args, loader, keyBuilder, cacheInfo.getPolicy());
             Class returnType = cacheInfo.getReturnType();
             // 如果在@Cached注解中声明的返回值不是一个集合，并且返回的缓存是一个非空集合，则取集合中的第一个元素
             if (!Collection.class.isAssignableFrom(returnType)) {
@@ -156,7 +158,7 @@ public class CacheAspect {
     @Data
     private static class CacheInfo {
 
-        private Method methodThatGetMethodParamFromMethodResult;
+        private Function<Object, Object> methodThatGetMethodParamFromMethodResult;
 
         private String keyPrefix;
 
@@ -170,6 +172,18 @@ public class CacheAspect {
 
         private boolean cacheNull;
 
+        /**
+         * 只有一个集合类型参数时，集合中每个元素的编码器
+         */
+        private KeyEncoder<Object> paramEncoder;
+
+        /**
+         * 其他情况下全部参数的编码器
+         */
+        private KeyEncoder<Object[]> argsEncoder;
+
+        private CachePolicy policy;
+
         static CacheInfo build(Method targetMethod) {
 
             CacheInfo cacheInfo = new CacheInfo();
@@ -177,22 +191,20 @@ public class CacheAspect {
 
             String keyValueMethodName = annotation.keyValueMethod();
             Class cacheClass = annotation.entityClass();
-            try {
-                // 根据要缓存的java类和key-value映射方法，得到 从方法结果值中获取方法参数的Method
-                cacheInfo.methodThatGetMethodParamFromMethodResult = cacheClass.getMethod(keyValueMethodName);
-            } catch (NoSuchMethodException e) {
-                throw new RuntimeException(e);
-            }
+            // 根据要缓存的java类和key-value映射方法，得到 从方法结果值中获取方法参数的函数
+            cacheInfo.methodThatGetMethodParamFromMethodResult = MethodAccessors.getter(cacheClass, keyValueMethodName);
 
             String keyWord = annotation.keyWord();
             if (Objects.equals(CacheConst.UNDEFINED_STRING, keyWord)) {
                 // 如果@Cached注解没有指定keyWord参数值，则构建一个由 Class.genericString和keyValueMethodName 组成的缓存key描述符
                 keyWord = CacheKeyBuilder.buildPrefix(cacheClass, keyValueMethodName);
             }
-            cacheInfo.keyPrefix = keyWord;
+            cacheInfo.keyPrefix = annotation.hashTag() ? CacheKeyBuilder.hashTag(keyWord) : keyWord;
 
             // 提取@Cached缓存中配置的过期时间
             cacheInfo.expireTime = annotation.unit().toMillis(annotation.expireTime());
+            cacheInfo.localExpireTime = annotation.localExpireTime() > 0
+                    ? annotation.unit().toMillis(annotation.localExpireTime()) : CacheConst.UNDEFINED_LONG;
 
             cacheInfo.cacheNull = annotation.cacheNull();
 
@@ -201,7 +213,48 @@ public class CacheAspect {
             // 被处理方法的返回值类型
             cacheInfo.returnType = targetMethod.getReturnType();
 
+            // 软过期时间，未设置时不启用后台刷新
+            long softExpireTime = annotation.softExpireTime();
+            CachePolicy policy = CachePolicy.of(cacheInfo.cacheNull, cacheInfo.expireTime, cacheInfo.nullValueExpireTime);
+            policy.setKeyWord(cacheInfo.keyPrefix);
+            policy.setNegativeCache(annotation.negativeCache());
+            if (cacheInfo.localExpireTime > 0) {
+                policy.setLocalExpire(cacheInfo.localExpireTime);
+            }
+            if (softExpireTime > 0) {
+                policy.setSoftExpire(annotation.unit().toMillis(softExpireTime));
+            }
+            cacheInfo.policy = policy;
+
+            // 按参数的声明类型选择key的编码器
+            Type[] parameterTypes = targetMethod.getGenericParameterTypes();
+            cacheInfo.paramEncoder = parameterTypes.length == 1
+                    ? KeyEncoders.forElementOf(parameterTypes[0]) : KeyEncoders.dynamic();
+            cacheInfo.argsEncoder = KeyEncoders.forArgs(parameterTypes);
+
             return cacheInfo;
         }
     }
+
+    /**
+     * 删除缓存相关信息
+     */
+    @Data
+    private static class RemoveInfo {
+
+        private CacheKeyBuilder cacheKeyBuilder;
+
+        private Function<Object, Object> removeKeyValueGetter;
+
+        static RemoveInfo build(Method targetMethod) {
+            RemoveInfo removeInfo = new RemoveInfo();
+            CacheRemove cacheRemove = targetMethod.getAnnotation(CacheRemove.class);
+
+            removeInfo.cacheKeyBuilder = new CacheKeyBuilder(cacheRemove.keyWord(),
+                    cacheRemove.cachedKeyValueMethod(), cacheRemove.cachedClass(), cacheRemove.hashTag());
+            removeInfo.removeKeyValueGetter = MethodAccessors.getter(cacheRemove.cachedClass(),
+                    cacheRemove.removeKeyValueMethod());
+            return removeInfo;
+        }
+    }
 }
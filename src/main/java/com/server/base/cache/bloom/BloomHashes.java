@@ -0,0 +1,44 @@
+package com.server.base.cache.bloom;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 本地与 Redis 中的过滤器共用的哈希：murmur3 的两个32位哈希组合出 k 个位置
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+final class BloomHashes {
+
+    private BloomHashes() {
+    }
+
+    /**
+     * @return 容纳 expectedInsertions 个key且误判率为 fpp 时需要的计数器个数
+     */
+    static int counters(long expectedInsertions, double fpp) {
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        return (int) Math.max(64, Math.min(Integer.MAX_VALUE, m));
+    }
+
+    static int hashes(long expectedInsertions, int counters) {
+        return Math.max(1, (int) Math.round((double) counters / expectedInsertions * Math.log(2)));
+    }
+
+    static int[] indexes(String key, int hashes, int counters) {
+        long hash64 = Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+        int hash1 = (int) hash64;
+        int hash2 = (int) (hash64 >>> 32);
+        int[] indexes = new int[hashes];
+        for (int i = 0; i < hashes; i++) {
+            int combined = hash1 + (i + 1) * hash2;
+            if (combined < 0) {
+                combined = ~combined;
+            }
+            indexes[i] = combined % counters;
+        }
+        return indexes;
+    }
+}
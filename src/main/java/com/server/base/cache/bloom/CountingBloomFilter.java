@@ -0,0 +1,219 @@
+package com.server.base.cache.bloom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 本JVM内的计数 Bloom 过滤器，计数器为4位，达到15后不再增减
+ * <p>
+ * 由多个分片组成：key写入最新的分片，最新的分片写满 expectedInsertions 个key或者创建超过 maxAge/2 后新建分片，
+ * 停止写入超过 maxAge/2 的分片被丢弃，所以key最多保留 maxAge；分片最多 {@link #MAX_SLICES} 个，
+ * 每个分片的误判率为 fpp/MAX_SLICES，整体误判率不超过 fpp
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CountingBloomFilter implements KeyFilter {
+
+    public static final int MAX_SLICES = 4;
+
+    private static final long MAX_COUNT = 15;
+
+    private final long expectedInsertions;
+
+    private final int counters;
+
+    private final int hashes;
+
+    private final long rotateAge;
+
+    /**
+     * 从旧到新，写时复制
+     */
+    private volatile List<Slice> slices;
+
+    /**
+     * @param expectedInsertions 每个分片的key个数
+     * @param fpp                误判率
+     * @param maxAge             key的最长保留时间（毫秒）
+     */
+    public CountingBloomFilter(long expectedInsertions, double fpp, long maxAge) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1 || maxAge <= 0) {
+            throw new IllegalArgumentException("illegal bloom filter arguments");
+        }
+        this.expectedInsertions = expectedInsertions;
+        this.counters = BloomHashes.counters(expectedInsertions, fpp / MAX_SLICES);
+        this.hashes = BloomHashes.hashes(expectedInsertions, counters);
+        this.rotateAge = Math.max(1, maxAge / 2);
+        this.slices = Collections.singletonList(new Slice(System.currentTimeMillis()));
+    }
+
+    public boolean mightContain(String key) {
+        int[] indexes = BloomHashes.indexes(key, hashes, counters);
+        for (Slice slice : liveSlices()) {
+            if (slice.contains(indexes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<String> mightContainAll(Collection<String> keys) {
+        Set<String> result = new HashSet<>();
+        for (String key : keys) {
+            if (mightContain(key)) {
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    public void add(String key) {
+        int[] indexes = BloomHashes.indexes(key, hashes, counters);
+        List<Slice> current = liveSlices();
+        for (Slice slice : current) {
+            if (slice.contains(indexes)) {
+                return;
+            }
+        }
+        Slice newest = current.get(current.size() - 1);
+        if (newest.count.get() >= expectedInsertions) {
+            newest = rotate(newest);
+        }
+        newest.add(indexes);
+    }
+
+    @Override
+    public void addAll(Collection<String> keys) {
+        keys.forEach(this::add);
+    }
+
+    /**
+     * 从包含该key的分片中删除，误判时会删除其他key的计数，只会使它们不再被过滤
+     */
+    public void remove(String key) {
+        int[] indexes = BloomHashes.indexes(key, hashes, counters);
+        for (Slice slice : liveSlices()) {
+            if (slice.contains(indexes)) {
+                slice.remove(indexes);
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        keys.forEach(this::remove);
+    }
+
+    /**
+     * @return 当前保留的key的大致个数
+     */
+    public long approximateSize() {
+        return liveSlices().stream().mapToLong(slice -> slice.count.get()).sum();
+    }
+
+    private List<Slice> liveSlices() {
+        List<Slice> current = slices;
+        long now = System.currentTimeMillis();
+        if (now - current.get(current.size() - 1).createdAt >= rotateAge
+                || now - current.get(0).closedAt >= rotateAge && current.size() > 1) {
+            return expire(now);
+        }
+        return current;
+    }
+
+    private synchronized List<Slice> expire(long now) {
+        List<Slice> result = new ArrayList<>(slices);
+        if (now - result.get(result.size() - 1).createdAt >= rotateAge) {
+            result.get(result.size() - 1).closedAt = now;
+            result.add(new Slice(now));
+        }
+        result.removeIf(slice -> slice.closedAt > 0 && now - slice.closedAt >= rotateAge);
+        slices = result;
+        return result;
+    }
+
+    private synchronized Slice rotate(Slice full) {
+        List<Slice> result = new ArrayList<>(slices);
+        Slice newest = result.get(result.size() - 1);
+        if (newest != full) {
+            return newest;
+        }
+        long now = System.currentTimeMillis();
+        full.closedAt = now;
+        newest = new Slice(now);
+        result.add(newest);
+        while (result.size() > MAX_SLICES) {
+            result.remove(0);
+        }
+        slices = result;
+        return newest;
+    }
+
+    private class Slice {
+
+        /**
+         * 每个long保存16个计数器
+         */
+        private final AtomicLongArray table = new AtomicLongArray((counters + 15) >>> 4);
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final long createdAt;
+
+        /**
+         * 停止写入的时间，0表示仍在写入
+         */
+        private volatile long closedAt;
+
+        private Slice(long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        private boolean contains(int[] indexes) {
+            for (int index : indexes) {
+                if ((table.get(index >>> 4) >>> ((index & 15) << 2) & MAX_COUNT) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(int[] indexes) {
+            for (int index : indexes) {
+                update(index, 1);
+            }
+            count.incrementAndGet();
+        }
+
+        private void remove(int[] indexes) {
+            for (int index : indexes) {
+                update(index, -1);
+            }
+            count.decrementAndGet();
+        }
+
+        private void update(int index, int delta) {
+            int word = index >>> 4;
+            int shift = (index & 15) << 2;
+            while (true) {
+                long value = table.get(word);
+                long counter = value >>> shift & MAX_COUNT;
+                // 达到上限的计数器无法确定真实次数，不再增减
+                if (counter == MAX_COUNT || counter == 0 && delta < 0) {
+                    return;
+                }
+                if (table.compareAndSet(word, value, value + ((long) delta << shift))) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.server.base.cache.bloom;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 可删除元素的 Bloom 过滤器，记录已知没有数据的缓存key；可能误判为存在，但不会漏掉未被删除的key
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public interface KeyFilter {
+
+    /**
+     * @return 可能在过滤器中的key
+     */
+    Set<String> mightContainAll(Collection<String> keys);
+
+    void addAll(Collection<String> keys);
+
+    void removeAll(Collection<String> keys);
+}
@@ -0,0 +1,182 @@
+package com.server.base.cache.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 按 {@link com.server.base.cache.config.CachePolicy#getKeyWord()} 记录原方法没有返回数据的缓存key，
+ * 用于 {@link com.server.base.cache.annotation.Cached#negativeCache()}：
+ * <ul>
+ *     <li>读取缓存前先查本地过滤器，已记录的key直接返回空结果，不再读取任何一级缓存</li>
+ *     <li>调用原方法前再查共享过滤器（如果有），其他节点已记录的key同样直接返回空结果，并记录到本地</li>
+ *     <li>原方法没有返回数据的key写入本地与共享过滤器，{@link com.server.base.cache.annotation.CacheRemove} 删除缓存时一并删除</li>
+ * </ul>
+ * Bloom 过滤器会误判，有很小的概率对有数据的key返回空结果；数据不经过 {@link com.server.base.cache.annotation.CacheRemove}
+ * 新增时，最多要等 maxAge 才能读到；多节点时需要通过 {@link com.server.base.cache.invalidate.InvalidationBroadcaster#register(NegativeCache)}
+ * 删除其他节点本地过滤器中的key。共享过滤器读写失败时只记录日志，视为没有记录
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class NegativeCache {
+
+    public static final long DEFAULT_EXPECTED_INSERTIONS = 100_000L;
+
+    public static final double DEFAULT_FPP = 0.001;
+
+    public static final long DEFAULT_MAX_AGE = 10 * 60 * 1000L;
+
+    private final long expectedInsertions;
+
+    private final double fpp;
+
+    private final long maxAge;
+
+    private final Function<String, KeyFilter> sharedFactory;
+
+    private final ConcurrentHashMap<String, CountingBloomFilter> locals = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, KeyFilter> shared = new ConcurrentHashMap<>();
+
+    public NegativeCache() {
+        this(DEFAULT_EXPECTED_INSERTIONS, DEFAULT_FPP, DEFAULT_MAX_AGE, null);
+    }
+
+    /**
+     * @param expectedInsertions 每个keyWord的本地过滤器每个分片的key个数
+     * @param fpp                误判率
+     * @param maxAge             key在本地过滤器中的最长保留时间（毫秒）
+     * @param sharedFactory      按keyWord创建共享过滤器，如 {@link RedisCountingBloomFilter#factory}，为null时只使用本地过滤器
+     */
+    public NegativeCache(long expectedInsertions, double fpp, long maxAge, Function<String, KeyFilter> sharedFactory) {
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.maxAge = maxAge;
+        this.sharedFactory = sharedFactory;
+    }
+
+    /**
+     * 只查本地过滤器
+     *
+     * @return 已记录没有数据的key
+     */
+    public Set<String> absentKeys(String keyWord, Collection<String> keys) {
+        CountingBloomFilter local = locals.get(normalize(keyWord));
+        return local == null ? Collections.emptySet() : local.mightContainAll(keys);
+    }
+
+    public boolean isAbsent(String keyWord, String key) {
+        CountingBloomFilter local = locals.get(normalize(keyWord));
+        return local != null && local.mightContain(key);
+    }
+
+    /**
+     * 查共享过滤器，其中记录的key同时记录到本地
+     *
+     * @return 其他节点已记录没有数据的key
+     */
+    public Set<String> sharedAbsentKeys(String keyWord, Collection<String> keys) {
+        if (sharedFactory == null || keys.isEmpty()) {
+            return Collections.emptySet();
+        }
+        try {
+            Set<String> absent = sharedOf(keyWord).mightContainAll(keys);
+            if (!absent.isEmpty()) {
+                localOf(keyWord).addAll(absent);
+            }
+            return absent;
+        } catch (RuntimeException e) {
+            log.warn("read shared negative cache of {} fail: {}", keyWord, e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 记录原方法没有返回数据的key
+     */
+    public void markAbsent(String keyWord, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        localOf(keyWord).addAll(keys);
+        if (sharedFactory != null) {
+            try {
+                sharedOf(keyWord).addAll(keys);
+            } catch (RuntimeException e) {
+                log.warn("write shared negative cache of {} fail: {}", keyWord, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 删除缓存时调用，从keyWord的本地与共享过滤器中删除
+     */
+    public void remove(String keyWord, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        CountingBloomFilter local = locals.get(normalize(keyWord));
+        if (local != null) {
+            local.removeAll(keys);
+        }
+        if (sharedFactory != null) {
+            try {
+                sharedOf(keyWord).removeAll(keys);
+            } catch (RuntimeException e) {
+                log.warn("remove shared negative cache of {} fail: {}", keyWord, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 不知道keyWord时，缓存key以本节点使用过的keyWord开头时从该keyWord的过滤器中删除
+     */
+    public void remove(Collection<String> keys) {
+        groupByKeyWord(keys).forEach(this::remove);
+    }
+
+    /**
+     * 只从本地过滤器中删除，用于收到其他节点的失效广播时，共享过滤器已经由删除缓存的节点处理
+     */
+    public void removeLocal(Collection<String> keys) {
+        groupByKeyWord(keys).forEach((keyWord, matched) -> {
+            CountingBloomFilter local = locals.get(keyWord);
+            if (local != null) {
+                local.removeAll(matched);
+            }
+        });
+    }
+
+    private Map<String, Set<String>> groupByKeyWord(Collection<String> keys) {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String keyWord : locals.keySet()) {
+            for (String key : keys) {
+                if (key.startsWith(keyWord)) {
+                    result.computeIfAbsent(keyWord, k -> new HashSet<>()).add(key);
+                }
+            }
+        }
+        return result;
+    }
+
+    private CountingBloomFilter localOf(String keyWord) {
+        return locals.computeIfAbsent(normalize(keyWord), k -> new CountingBloomFilter(expectedInsertions, fpp, maxAge));
+    }
+
+    private KeyFilter sharedOf(String keyWord) {
+        return shared.computeIfAbsent(normalize(keyWord), sharedFactory);
+    }
+
+    private static String normalize(String keyWord) {
+        return keyWord == null ? "" : keyWord;
+    }
+}
@@ -0,0 +1,186 @@
+package com.server.base.cache.bloom;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 保存在 Redis 中、多个节点共享的计数 Bloom 过滤器，用 BITFIELD 的4位计数器实现，不依赖 RedisBloom 模块
+ * <p>
+ * 一个过滤器是一个 Redis key，第一次写入时设置过期时间 maxAge，过期后整体重建
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class RedisCountingBloomFilter implements KeyFilter {
+
+    public static final String DEFAULT_PREFIX = "base-cache:bloom:";
+
+    /**
+     * 每次脚本调用处理的key个数
+     */
+    private static final int BATCH_SIZE = 200;
+
+    private static final String COUNTERS_OF = "local function counters(from, to) " +
+            "local args = {} " +
+            "for j = from, to do " +
+            "table.insert(args, 'GET') table.insert(args, 'u4') table.insert(args, '#' .. ARGV[j]) " +
+            "end " +
+            "return redis.call('BITFIELD', KEYS[1], unpack(args)) " +
+            "end " +
+            "local function present(values) " +
+            "for _, c in ipairs(values) do if c == 0 then return false end end " +
+            "return true " +
+            "end " +
+            "local k = tonumber(ARGV[1]) ";
+
+    /**
+     * ARGV: k、过期时间、每个key的k个位置，不存在的key全部计数器加1
+     */
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(COUNTERS_OF +
+            "local added = 0 " +
+            "for i = 3, #ARGV, k do " +
+            "if not present(counters(i, i + k - 1)) then " +
+            "local args = {'OVERFLOW', 'SAT'} " +
+            "for j = i, i + k - 1 do " +
+            "table.insert(args, 'INCRBY') table.insert(args, 'u4') table.insert(args, '#' .. ARGV[j]) table.insert(args, 1) " +
+            "end " +
+            "redis.call('BITFIELD', KEYS[1], unpack(args)) " +
+            "added = added + 1 " +
+            "end " +
+            "end " +
+            "if added > 0 and redis.call('PTTL', KEYS[1]) < 0 then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+            "return added", Long.class);
+
+    /**
+     * 存在的key未达到上限的计数器减1
+     */
+    private static final RedisScript<Long> REMOVE_SCRIPT = new DefaultRedisScript<>(COUNTERS_OF +
+            "local removed = 0 " +
+            "for i = 3, #ARGV, k do " +
+            "local values = counters(i, i + k - 1) " +
+            "if present(values) then " +
+            "local args = {} " +
+            "for j = i, i + k - 1 do " +
+            "if values[j - i + 1] < 15 then " +
+            "table.insert(args, 'INCRBY') table.insert(args, 'u4') table.insert(args, '#' .. ARGV[j]) table.insert(args, -1) " +
+            "end " +
+            "end " +
+            "if #args > 0 then redis.call('BITFIELD', KEYS[1], unpack(args)) end " +
+            "removed = removed + 1 " +
+            "end " +
+            "end " +
+            "return removed", Long.class);
+
+    /**
+     * 按顺序返回每个key是否存在，1为存在
+     */
+    @SuppressWarnings({"rawtypes"})
+    private static final RedisScript<List> CONTAINS_SCRIPT = new DefaultRedisScript<>(COUNTERS_OF +
+            "local result = {} " +
+            "for i = 3, #ARGV, k do " +
+            "table.insert(result, present(counters(i, i + k - 1)) and 1 or 0) " +
+            "end " +
+            "return result", List.class);
+
+    private final StringRedisTemplate template;
+
+    private final String redisKey;
+
+    private final int counters;
+
+    private final int hashes;
+
+    private final long maxAge;
+
+    /**
+     * @param redisKey           过滤器的 Redis key
+     * @param expectedInsertions maxAge 内的key个数
+     * @param fpp                误判率
+     * @param maxAge             过期时间（毫秒）
+     */
+    public RedisCountingBloomFilter(StringRedisTemplate template, String redisKey, long expectedInsertions, double fpp, long maxAge) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1 || maxAge <= 0) {
+            throw new IllegalArgumentException("illegal bloom filter arguments");
+        }
+        this.template = template;
+        this.redisKey = redisKey;
+        this.counters = BloomHashes.counters(expectedInsertions, fpp);
+        this.hashes = BloomHashes.hashes(expectedInsertions, counters);
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * 按 keyWord 创建共享过滤器，用于 {@link NegativeCache}
+     */
+    public static Function<String, KeyFilter> factory(RedisConnectionFactory connectionFactory, long expectedInsertions, double fpp, long maxAge) {
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        return keyWord -> new RedisCountingBloomFilter(template, DEFAULT_PREFIX + keyWord, expectedInsertions, fpp, maxAge);
+    }
+
+    @Override
+    public Set<String> mightContainAll(Collection<String> keys) {
+        Set<String> result = new HashSet<>();
+        for (List<String> batch : batches(keys)) {
+            List<?> present = template.execute(CONTAINS_SCRIPT, Collections.singletonList(redisKey), args(batch));
+            for (int i = 0; present != null && i < batch.size(); i++) {
+                if (((Number) present.get(i)).longValue() == 1) {
+                    result.add(batch.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void addAll(Collection<String> keys) {
+        for (List<String> batch : batches(keys)) {
+            template.execute(ADD_SCRIPT, Collections.singletonList(redisKey), args(batch));
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<String> keys) {
+        for (List<String> batch : batches(keys)) {
+            template.execute(REMOVE_SCRIPT, Collections.singletonList(redisKey), args(batch));
+        }
+    }
+
+    private Object[] args(List<String> keys) {
+        Object[] args = new Object[2 + keys.size() * hashes];
+        args[0] = String.valueOf(hashes);
+        args[1] = String.valueOf(maxAge);
+        int i = 2;
+        for (String key : keys) {
+            for (int index : BloomHashes.indexes(key, hashes, counters)) {
+                args[i++] = String.valueOf(index);
+            }
+        }
+        return args;
+    }
+
+    private static List<List<String>> batches(Collection<String> keys) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>(Math.min(BATCH_SIZE, keys.size()));
+        for (String key : keys) {
+            batch.add(key);
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,185 @@
+package com.server.base.cache.breaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 熔断器：在固定的时间窗口内统计调用的失败率与慢调用比例，超过阈值后打开，打开期间的调用直接失败；
+ * 打开 openMillis 后进入半开状态，放行 halfOpenCalls 个探测调用，全部成功时关闭，任意一个失败或慢调用时重新打开
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    private final int minimumCalls;
+
+    private final double failureRate;
+
+    private final long slowCallNanos;
+
+    private final double slowCallRate;
+
+    private final long windowMillis;
+
+    private final long openMillis;
+
+    private final int halfOpenCalls;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    private volatile Window window = new Window(System.currentTimeMillis());
+
+    private volatile long openUntil;
+
+    /**
+     * 半开状态已经放行的探测调用
+     */
+    private final AtomicInteger probes = new AtomicInteger();
+
+    /**
+     * 半开状态已经成功的探测调用
+     */
+    private final AtomicInteger probeSuccesses = new AtomicInteger();
+
+    public CircuitBreaker(String name) {
+        this(name, 20, 0.5, 500L, 0.8, 10_000L, 5_000L, 3);
+    }
+
+    /**
+     * @param minimumCalls   窗口内至少有这么多次调用才计算比例
+     * @param failureRate    打开熔断的失败率
+     * @param slowCallMillis 超过该耗时（毫秒）的调用视为慢调用
+     * @param slowCallRate   打开熔断的慢调用比例
+     * @param windowMillis   统计窗口（毫秒）
+     * @param openMillis     打开后进入半开状态前的时长（毫秒）
+     * @param halfOpenCalls  半开状态的探测调用个数
+     */
+    public CircuitBreaker(String name, int minimumCalls, double failureRate, long slowCallMillis, double slowCallRate,
+                          long windowMillis, long openMillis, int halfOpenCalls) {
+        this.name = name;
+        this.minimumCalls = minimumCalls;
+        this.failureRate = failureRate;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.slowCallRate = slowCallRate;
+        this.windowMillis = windowMillis;
+        this.openMillis = openMillis;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    /**
+     * @return 是否处于打开或半开状态，即下游不可用，此时可以延长本地缓存的过期时间
+     */
+    public boolean isOpen() {
+        return state.get() != State.CLOSED;
+    }
+
+    /**
+     * @return 是否允许本次调用，允许时调用结束后需要调用 {@link #onSuccess} 或 {@link #onError}
+     */
+    public boolean tryAcquire() {
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() < openUntil || !state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                    return tryProbe();
+                }
+                probes.set(0);
+                probeSuccesses.set(0);
+                log.info("circuit breaker {} is half open", name);
+                return tryProbe();
+            default:
+                return tryProbe();
+        }
+    }
+
+    public void onSuccess(long nanos) {
+        boolean slow = nanos >= slowCallNanos;
+        if (state.get() == State.HALF_OPEN) {
+            if (slow) {
+                open("slow probe call " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms");
+            } else if (probeSuccesses.incrementAndGet() >= halfOpenCalls && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+                window = new Window(System.currentTimeMillis());
+                log.info("circuit breaker {} is closed", name);
+            }
+            return;
+        }
+        record(false, slow);
+    }
+
+    public void onError(long nanos, Throwable e) {
+        if (state.get() == State.HALF_OPEN) {
+            open("probe call fail: " + e);
+            return;
+        }
+        record(true, nanos >= slowCallNanos);
+    }
+
+    private boolean tryProbe() {
+        return state.get() == State.HALF_OPEN && probes.incrementAndGet() <= halfOpenCalls;
+    }
+
+    private void record(boolean failure, boolean slow) {
+        long now = System.currentTimeMillis();
+        Window current = window;
+        if (now - current.start >= windowMillis) {
+            current = new Window(now);
+            window = current;
+        }
+        int total = current.total.incrementAndGet();
+        int failures = failure ? current.failures.incrementAndGet() : current.failures.get();
+        int slows = slow ? current.slows.incrementAndGet() : current.slows.get();
+        if (total < minimumCalls || state.get() != State.CLOSED) {
+            return;
+        }
+        if (failures >= total * failureRate) {
+            open("failure rate " + failures + "/" + total);
+        } else if (slows >= total * slowCallRate) {
+            open("slow call rate " + slows + "/" + total);
+        }
+    }
+
+    private void open(String reason) {
+        State previous = state.get();
+        if (previous == State.OPEN) {
+            return;
+        }
+        // 先写入打开的截止时间再切换状态，其他线程看到 OPEN 时一定能看到本次的截止时间，
+        // 不会按上一次打开的截止时间立即进入半开状态；截止时间只在 OPEN 状态下读取，切换失败时写入也没有影响
+        openUntil = System.currentTimeMillis() + openMillis;
+        if (!state.compareAndSet(previous, State.OPEN)) {
+            return;
+        }
+        log.warn("circuit breaker {} is open for {}ms, {}", name, openMillis, reason);
+    }
+
+    private static class Window {
+
+        private final long start;
+
+        private final AtomicInteger total = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private final AtomicInteger slows = new AtomicInteger();
+
+        private Window(long start) {
+            this.start = start;
+        }
+    }
+}
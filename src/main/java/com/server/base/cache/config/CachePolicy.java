@@ -0,0 +1,77 @@
+package com.server.base.cache.config;
+
+import lombok.Data;
+
+/**
+ * 一次缓存读取的策略，由 {@link com.server.base.cache.annotation.Cached} 解析得到，时间单位均为毫秒
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Data
+public class CachePolicy {
+
+    /**
+     * 缓存key的前缀
+     */
+    private String keyWord;
+
+    /**
+     * 是否缓存null值
+     */
+    private boolean cacheNull;
+
+    /**
+     * 缓存的过期时间（硬过期），过期后必须同步加载
+     */
+    private Long expire;
+
+    /**
+     * null值的过期时间
+     */
+    private Long nullExpire;
+
+    /**
+     * 本地缓存（LinkCache 中除最后一级以外的缓存）的过期时间，为null时与 expire 相同；
+     * 本地缓存从下一级缓存读取时，过期时间不超过下一级缓存剩余的时间
+     */
+    private Long localExpire;
+
+    /**
+     * 软过期时间，大于0且小于 expire 时生效：写入超过该时长的缓存仍然直接返回，同时在后台刷新一次；
+     * 只对非空的缓存生效，null值缓存仍然按 nullExpire 过期
+     */
+    private long softExpire;
+
+    /**
+     * 是否用 {@link com.server.base.cache.bloom.NegativeCache} 记录没有数据的key
+     */
+    private boolean negativeCache;
+
+    public static CachePolicy of(boolean cacheNull, Long expire, Long nullExpire) {
+        CachePolicy policy = new CachePolicy();
+        policy.cacheNull = cacheNull;
+        policy.expire = expire;
+        policy.nullExpire = nullExpire;
+        return policy;
+    }
+
+    /**
+     * @param expireAt 缓存中记录的硬过期时间点
+     * @return 是否已经超过软过期时间，需要在后台刷新
+     */
+    public boolean isStale(long expireAt) {
+        return isStale(expireAt, expire);
+    }
+
+    /**
+     * @param expire 写入缓存时使用的过期时间
+     */
+    public boolean isStale(long expireAt, Long expire) {
+        if (softExpire <= 0 || expire == null || softExpire >= expire) {
+            return false;
+        }
+        // 剩余时间少于 expire - softExpire，即写入已超过 softExpire
+        return expireAt - System.currentTimeMillis() < expire - softExpire;
+    }
+}
@@ -0,0 +1,60 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.lock.PollingUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
+import com.server.base.cache.util.CacheResults;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link Cache} 的异步版本，所有操作都不阻塞调用线程
+ * <p>
+ * 返回的 CompletableFuture 可能在 IO 线程中完成，后续的回调不应该执行阻塞操作
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public interface AsyncCache<V> {
+
+    CompletableFuture<CacheResult<V>> get(String key);
+
+    CompletableFuture<Map<String, CacheResult<V>>> getAll(Set<String> keys);
+
+    /**
+     * @param expire 过期时间 单位毫秒
+     */
+    CompletableFuture<Void> put(String key, V value, Long expire);
+
+    CompletableFuture<Void> putAll(Map<String, ? extends V> values, Long expire);
+
+    /**
+     * 不存在时写入，用作加载锁
+     */
+    CompletableFuture<Boolean> putIfNotExist(String key, Long expire);
+
+    /**
+     * @return 写入成功的key
+     */
+    CompletableFuture<Set<String>> putMultiIfNotExist(Set<String> keys, Long expire);
+
+    CompletableFuture<Boolean> remove(String key);
+
+    CompletableFuture<Void> removeAll(Set<String> keys);
+
+    /**
+     * 本容器中加载锁释放的通知方式，{@link AsyncLinkCache} 通过 {@link UnlockNotifier.UnlockWaiter#unlocked()} 等待，默认为轮询
+     *
+     * @return 通知方式
+     */
+    default UnlockNotifier unlockNotifier() {
+        return PollingUnlockNotifier.INSTANCE;
+    }
+
+    default CacheResult<V> warp(CacheHolder<V> holder) {
+        return CacheResults.success(holder.getData(), holder.getExpireAt());
+    }
+}
@@ -0,0 +1,110 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.lock.UnlockNotifier;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 将同步的 {@link Cache} 适配为 {@link AsyncCache}，用于在 {@link AsyncLinkCache} 中使用本地缓存
+ * <p>
+ * 没有指定线程池时在调用线程中直接执行，只适用于 Guava、Caffeine 这类不阻塞的本地缓存
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class AsyncCacheAdapter<V> implements AsyncCache<V> {
+
+    private final Cache<V> cache;
+
+    private final Executor executor;
+
+    public AsyncCacheAdapter(Cache<V> cache) {
+        this(cache, null);
+    }
+
+    /**
+     * @param executor 执行同步操作的线程池，被适配的缓存会阻塞时（比如 {@link RedisCache}）使用
+     */
+    public AsyncCacheAdapter(Cache<V> cache, Executor executor) {
+        this.cache = cache;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<CacheResult<V>> get(String key) {
+        return call(() -> cache.get(key));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, CacheResult<V>>> getAll(Set<String> keys) {
+        return call(() -> cache.getAll(keys));
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, V value, Long expire) {
+        return call(() -> {
+            cache.put(key, value, expire);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<String, ? extends V> values, Long expire) {
+        return call(() -> {
+            cache.putAll(values, expire);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> putIfNotExist(String key, Long expire) {
+        return call(() -> cache.putIfNotExist(key, expire));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> putMultiIfNotExist(Set<String> keys, Long expire) {
+        return call(() -> cache.putMultiIfNotExist(keys, expire));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(String key) {
+        return call(() -> cache.remove(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<String> keys) {
+        return call(() -> {
+            cache.removeAll(keys);
+            return null;
+        });
+    }
+
+    @Override
+    public CacheResult<V> warp(CacheHolder<V> holder) {
+        return cache.warp(holder);
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return cache.unlockNotifier();
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<T> supplier) {
+        if (executor != null) {
+            return CompletableFuture.supplyAsync(supplier, executor);
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            future.complete(supplier.get());
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
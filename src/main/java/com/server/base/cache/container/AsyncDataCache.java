@@ -0,0 +1,41 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.config.CachePolicy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link DataCache} 的异步版本，原方法也以 CompletableFuture 的形式提供
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public interface AsyncDataCache<CACHE_TYPE> {
+
+    /**
+     * @param param      集合类型的方法调用请求参数
+     * @param loader     异步的原方法，返回请求参数对应的全部结果
+     * @param keyBuilder 根据请求参数构建缓存中key值的函数
+     * @param methodThatGetParamFromData 从原方法的返回值中获取对应请求参数值的函数方法
+     * @param policy     过期时间、是否缓存null值等策略
+     */
+    <P> CompletableFuture<List<CACHE_TYPE>> getCacheOrLoadList(Collection<P> param,
+                                                               Function<Collection<P>, CompletableFuture<? extends Collection<CACHE_TYPE>>> loader,
+                                                               Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData,
+                                                               CachePolicy policy);
+
+    /**
+     * @param param      调用方法的原始请求参数
+     * @param loader     异步的原方法
+     * @param keyBuilder 根据请求参数构建缓存中key值的函数
+     * @param policy     过期时间、是否缓存null值等策略
+     */
+    <P> CompletableFuture<Collection<CACHE_TYPE>> getCacheOrLoad(P param, Function<P, CompletableFuture<CACHE_TYPE>> loader,
+                                                                 Function<P, String> keyBuilder, CachePolicy policy);
+
+    CompletableFuture<Void> removeCache(Set<String> keys);
+}
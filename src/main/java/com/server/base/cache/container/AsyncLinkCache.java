@@ -0,0 +1,416 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.config.CachePolicy;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.lock.UnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier.UnlockWaiter;
+import com.server.base.cache.util.CacheResults;
+import com.server.base.cache.util.CompletableFutures;
+import com.server.base.cache.util.KryoUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link LinkCache} 的异步版本，逐级读取、加锁与加载的流程相同；等待锁时不占用线程，
+ * 通过 {@link AsyncCache#unlockNotifier()} 在锁释放（或等待超时）后重新读取
+ * <p>
+ * 暂不支持软过期的后台刷新，{@link CachePolicy#getSoftExpire()} 被忽略
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class AsyncLinkCache<V> implements AsyncDataCache<V> {
+
+    private static final long LOCK_TIME = 10000L;
+
+    private final CacheNode<V> first;
+
+    public AsyncLinkCache(List<? extends AsyncCache<Collection<V>>> caches) {
+        CacheNode<V> head = null;
+        CacheNode<V> tail = null;
+        for (AsyncCache<Collection<V>> cache : caches) {
+            CacheNode<V> node = new CacheNode<>(cache);
+            if (head == null) {
+                head = tail = node;
+            } else {
+                tail.next = node;
+                tail = node;
+            }
+        }
+        first = head == null ? new CacheNode<>(new AsyncCacheAdapter<>(new NoCache<>())) : head;
+    }
+
+    @Override
+    public <P> CompletableFuture<List<V>> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, CompletableFuture<? extends Collection<V>>> loader,
+                                                             Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData,
+                                                             CachePolicy policy) {
+        List<ParamPack<P>> paramPacks = param.stream()
+                .map(p -> ParamPack.buildParamPack(p, keyBuilder)).collect(Collectors.toList());
+        return first.getCacheOrLoadList(new ParamCombination<>(paramPacks, param.getClass()), loader, methodThatGetParamFromData, policy);
+    }
+
+    @Override
+    public <P> CompletableFuture<Collection<V>> getCacheOrLoad(P param, Function<P, CompletableFuture<V>> loader,
+                                                               Function<P, String> keyBuilder, CachePolicy policy) {
+        return first.getCacheOrLoad(ParamPack.buildParamPack(param, keyBuilder), loader, policy);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeCache(Set<String> keys) {
+        return first.removeCache(keys);
+    }
+
+    private static class CacheNode<V> {
+
+        private CacheNode<V> next;
+
+        private final AsyncCache<Collection<V>> cache;
+
+        private final UnlockNotifier unlockNotifier;
+
+        /**
+         * 本JVM内正在加载的cacheKey，同一个key并发未命中时只有一个请求去竞争分布式锁并加载，其他请求复用它的结果
+         */
+        private final ConcurrentHashMap<String, CompletableFuture<Collection<V>>> loading = new ConcurrentHashMap<>();
+
+        private CacheNode(AsyncCache<Collection<V>> cache) {
+            this.cache = cache;
+            this.unlockNotifier = cache.unlockNotifier();
+        }
+
+        private boolean hasNext() {
+            return next != null;
+        }
+
+        private <P> CompletableFuture<List<V>> getCacheOrLoadList(ParamCombination<P> paramCombination, Function<Collection<P>, CompletableFuture<? extends Collection<V>>> loader,
+                                                                  Function<Object, P> methodThatGetParamFromData, CachePolicy policy) {
+            // 各阶段依次执行，result 与 paramCombination 不会被并发修改
+            List<V> result = new ArrayList<>();
+            Map<String, CompletableFuture<Collection<V>>> leading = new HashMap<>();
+            return readCache(paramCombination, leading, result).thenCompose(read -> {
+                if (paramCombination.isClear()) {
+                    return CompletableFuture.completedFuture(result);
+                }
+                // 没有命中的key，如果本JVM内已有请求在加载，则复用它的结果，否则由当前请求负责加载
+                List<CompletableFuture<Collection<V>>> following = new ArrayList<>();
+                for (String cacheKey : new ArrayList<>(paramCombination.getCacheKeys())) {
+                    CompletableFuture<Collection<V>> future = new CompletableFuture<>();
+                    CompletableFuture<Collection<V>> inFlight = loading.putIfAbsent(cacheKey, future);
+                    if (inFlight == null) {
+                        leading.put(cacheKey, future);
+                    } else {
+                        following.add(inFlight);
+                        paramCombination.removeByCacheKeys(cacheKey);
+                    }
+                }
+                CompletableFuture<Void> load = paramCombination.isClear() ? CompletableFuture.completedFuture(null)
+                        : call(() -> lockAndLoadList(paramCombination, loader, methodThatGetParamFromData, policy, leading, result, 0));
+                return load.whenComplete((v, e) -> {
+                    if (e != null) {
+                        leading.values().forEach(future -> future.completeExceptionally(e));
+                    }
+                    leading.forEach(loading::remove);
+                }).thenCompose(v -> CompletableFutures.allOf(following)).thenApply(followed -> {
+                    followed.forEach(data -> result.addAll(copyOf(data)));
+                    return result;
+                });
+            });
+        }
+
+        private <P> CompletableFuture<Void> lockAndLoadList(ParamCombination<P> paramCombination, Function<Collection<P>, CompletableFuture<? extends Collection<V>>> loader,
+                                                            Function<Object, P> methodThatGetParamFromData, CachePolicy policy,
+                                                            Map<String, CompletableFuture<Collection<V>>> leading, List<V> result, int count) {
+            // 在加锁前开始监听，避免错过加锁失败后其他节点发出的释放通知
+            UnlockWaiter waiter = unlockNotifier.listen(new ArrayList<>(paramCombination.getLockKeys()));
+            return cache.putMultiIfNotExist(new HashSet<>(paramCombination.getLockKeys()), LOCK_TIME).thenCompose(locked -> {
+                if (locked.isEmpty()) {
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                // 加锁成功后再次读取，加锁成功且仍没有找到缓存值的key才需要加载
+                CompletableFuture<Void> action = readCache(paramCombination, leading, result).thenCompose(read -> {
+                    Set<String> successLock = new HashSet<>(locked);
+                    successLock.retainAll(paramCombination.getLockKeys());
+                    if (successLock.isEmpty()) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    return loadListData(paramCombination, loader, methodThatGetParamFromData, policy, successLock).thenCompose(loadResult -> {
+                        result.addAll(loadResult);
+                        return saveListData(paramCombination, methodThatGetParamFromData, policy, successLock, loadResult);
+                    }).thenAccept(dataGroupByCacheKey -> successLock.forEach(lockKey -> {
+                        String cacheKey = paramCombination.getCacheKeyByLockKey(lockKey);
+                        complete(leading, cacheKey, dataGroupByCacheKey.getOrDefault(cacheKey, Collections.emptyList()));
+                        paramCombination.removeByLockKeys(lockKey);
+                    }));
+                });
+                return unlockAfter(action, locked);
+            }).thenCompose(v -> {
+                if (paramCombination.isClear()) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                if (count > 5) {
+                    log.warn("count of load data from cache has bean more than 5 times , total times is :{}", count);
+                }
+                // 剩余的key被其他节点锁定，等待锁释放后重新读取
+                return waiter.unlocked()
+                        .thenCompose(released -> readCache(paramCombination, leading, result))
+                        .thenCompose(read -> paramCombination.isClear() ? CompletableFuture.completedFuture(null)
+                                : lockAndLoadList(paramCombination, loader, methodThatGetParamFromData, policy, leading, result, count + 1));
+            }).whenComplete((v, e) -> waiter.close());
+        }
+
+        /**
+         * 读取paramCombination中剩余的key，命中的结果放入result，并从paramCombination中移除
+         */
+        private <P> CompletableFuture<Void> readCache(ParamCombination<P> paramCombination, Map<String, CompletableFuture<Collection<V>>> leading, List<V> result) {
+            return cache.getAll(new HashSet<>(paramCombination.getCacheKeys())).thenAccept(cacheData -> cacheData.forEach((key, cacheResult) -> {
+                if (CacheResults.isHit(cacheResult)) {
+                    Collection<V> data = Optional.of(cacheResult).map(CacheResult::getData).orElse(Collections.emptyList());
+                    paramCombination.getByCacheKey(key).setExpireAt(cacheResult.getExpireAt());
+                    paramCombination.removeByCacheKeys(key);
+                    result.addAll(data);
+                    complete(leading, key, data);
+                }
+            }));
+        }
+
+        private <P> CompletableFuture<List<V>> loadListData(ParamCombination<P> paramCombination, Function<Collection<P>, CompletableFuture<? extends Collection<V>>> loader,
+                                                            Function<Object, P> methodThatGetParamFromData, CachePolicy policy, Set<String> successLock) {
+            List<ParamPack<P>> paramPacks = paramCombination.getByLockKey(successLock);
+            // 存在下一个缓存节点，则从下一个缓存节点中继续读取参数对应的缓存值
+            if (hasNext()) {
+                return next.getCacheOrLoadList(new ParamCombination<>(paramPacks, paramCombination.getParamClass()), loader, methodThatGetParamFromData, policy);
+            }
+            List<P> params = paramPacks.stream()
+                    .map(ParamPack::getParam)
+                    .collect(Collectors.toList());
+            return call(() -> loader.apply(params).thenApply(data -> data == null ? new ArrayList<V>() : new ArrayList<V>(data)));
+        }
+
+        private <P> CompletableFuture<Map<String, List<V>>> saveListData(ParamCombination<P> paramCombination, Function<Object, P> methodThatGetParamFromData,
+                                                                         CachePolicy policy, Set<String> successLock, List<V> loadResult) {
+            Map<String, List<V>> dataGroupByCacheKey = loadResult.stream().collect(Collectors.groupingBy(data -> paramCombination.getCacheKeyByParam(methodThatGetParamFromData.apply(data))));
+            Map<String, Long> nextExpireAt = nextExpireAt(paramCombination.getByLockKey(successLock));
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            if (policy.isCacheNull()) {
+                Map<String, List<V>> nullKeyList = successLock.stream()
+                        .map(paramCombination::getCacheKeyByLockKey)
+                        .filter(keys -> !dataGroupByCacheKey.containsKey(keys))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toMap(Function.identity(), k -> Collections.emptyList(), (l, r) -> l));
+                futures.add(putAll(nullKeyList, tierExpire(policy.getNullExpire(), policy), nextExpireAt));
+            }
+            futures.add(putAll(dataGroupByCacheKey, tierExpire(policy.getExpire(), policy), nextExpireAt));
+            return CompletableFutures.allOf(futures).thenApply(v -> dataGroupByCacheKey);
+        }
+
+        private <P> CompletableFuture<Collection<V>> getCacheOrLoad(ParamPack<P> paramPack, Function<P, CompletableFuture<V>> loader, CachePolicy policy) {
+            String cacheKey = paramPack.getCacheKey();
+            return cache.get(cacheKey).thenCompose(cacheData -> {
+                if (CacheResults.isHit(cacheData)) {
+                    paramPack.setExpireAt(cacheData.getExpireAt());
+                    return CompletableFuture.completedFuture(cacheData.getData());
+                }
+                // 本JVM内已有请求在加载该key，则复用它的结果，不再去竞争锁
+                CompletableFuture<Collection<V>> future = new CompletableFuture<>();
+                CompletableFuture<Collection<V>> inFlight = loading.putIfAbsent(cacheKey, future);
+                if (inFlight != null) {
+                    return inFlight.thenApply(CacheNode::copyOf);
+                }
+                call(() -> lockAndLoad(paramPack, loader, policy, 0)).whenComplete((result, e) -> {
+                    loading.remove(cacheKey, future);
+                    if (e == null) {
+                        future.complete(result);
+                    } else {
+                        future.completeExceptionally(e);
+                    }
+                });
+                return future;
+            });
+        }
+
+        private <P> CompletableFuture<Collection<V>> lockAndLoad(ParamPack<P> paramPack, Function<P, CompletableFuture<V>> loader, CachePolicy policy, int count) {
+            String cacheKey = paramPack.getCacheKey();
+            String lockKey = paramPack.getLockKey();
+            UnlockWaiter waiter = unlockNotifier.listen(Collections.singletonList(lockKey));
+            return cache.putIfNotExist(lockKey, LOCK_TIME).thenCompose(locked -> {
+                if (locked) {
+                    waiter.close();
+                    CompletableFuture<Collection<V>> action = cache.get(cacheKey).thenCompose(cacheData -> {
+                        if (CacheResults.isHit(cacheData)) {
+                            paramPack.setExpireAt(cacheData.getExpireAt());
+                            return CompletableFuture.completedFuture(cacheData.getData());
+                        }
+                        CompletableFuture<Collection<V>> load = hasNext() ? next.getCacheOrLoad(paramPack, loader, policy) : loadData(paramPack, loader);
+                        return load.thenCompose(result -> saveData(policy, result, paramPack).thenApply(v -> result));
+                    });
+                    return unlockAfter(action, Collections.singleton(lockKey));
+                }
+                if (count > 5) {
+                    log.warn("count of load data from cache has bean more than 5 times , total times is :{}", count);
+                }
+                // 锁被其他节点持有，等待锁释放后重新读取
+                return waiter.unlocked()
+                        .whenComplete((v, e) -> waiter.close())
+                        .thenCompose(released -> cache.get(cacheKey))
+                        .thenCompose(cacheData -> {
+                            if (CacheResults.isHit(cacheData)) {
+                                paramPack.setExpireAt(cacheData.getExpireAt());
+                                return CompletableFuture.completedFuture(cacheData.getData());
+                            }
+                            return lockAndLoad(paramPack, loader, policy, count + 1);
+                        });
+            }).whenComplete((v, e) -> {
+                if (e != null) {
+                    waiter.close();
+                }
+            });
+        }
+
+        private <P> CompletableFuture<Void> saveData(CachePolicy policy, Collection<V> result, ParamPack<P> paramPack) {
+            Map<String, Collection<V>> value = Collections.singletonMap(paramPack.getCacheKey(), result);
+            Map<String, Long> nextExpireAt = nextExpireAt(Collections.singletonList(paramPack));
+            if (result.isEmpty()) {
+                if (policy.isCacheNull()) {
+                    return putAll(value, tierExpire(policy.getNullExpire(), policy), nextExpireAt);
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+            return putAll(value, tierExpire(policy.getExpire(), policy), nextExpireAt);
+        }
+
+        /**
+         * 本级缓存的过期时间，除最后一级以外使用 {@link CachePolicy#getLocalExpire()}，与 {@link LinkCache} 相同
+         */
+        private Long tierExpire(Long expire, CachePolicy policy) {
+            Long localExpire = policy.getLocalExpire();
+            if (!hasNext() || localExpire == null) {
+                return expire;
+            }
+            return expire == null ? localExpire : Math.min(expire, localExpire);
+        }
+
+        /**
+         * @return 从下一级缓存读取到的参数的硬过期时间点
+         */
+        private <P> Map<String, Long> nextExpireAt(List<ParamPack<P>> paramPacks) {
+            if (!hasNext()) {
+                return Collections.emptyMap();
+            }
+            Map<String, Long> result = new HashMap<>();
+            for (ParamPack<P> paramPack : paramPacks) {
+                if (paramPack.getExpireAt() > 0) {
+                    result.put(paramPack.getCacheKey(), paramPack.getExpireAt());
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 写入本级缓存，过期时间不超过下一级缓存剩余的时间
+         *
+         * @param nextExpireAt 从下一级缓存读取到的key的硬过期时间点
+         */
+        private CompletableFuture<Void> putAll(Map<String, ? extends Collection<V>> values, Long expire, Map<String, Long> nextExpireAt) {
+            if (expire == null || nextExpireAt.isEmpty()) {
+                return cache.putAll(values, expire);
+            }
+            // 写入前才取当前时间，并预留1毫秒，避免本级缓存晚于下一级过期
+            long now = System.currentTimeMillis() + 1;
+            Map<Long, Map<String, Collection<V>>> byExpire = new HashMap<>();
+            for (Map.Entry<String, ? extends Collection<V>> entry : values.entrySet()) {
+                long keyExpire = expire;
+                Long expireAt = nextExpireAt.get(entry.getKey());
+                if (expireAt != null && expireAt > 0) {
+                    keyExpire = Math.min(keyExpire, expireAt - now);
+                }
+                if (keyExpire > 0) {
+                    byExpire.computeIfAbsent(keyExpire, e -> new HashMap<>()).put(entry.getKey(), entry.getValue());
+                }
+            }
+            List<CompletableFuture<Void>> futures = new ArrayList<>(byExpire.size());
+            byExpire.forEach((keyExpire, keyValues) -> futures.add(cache.putAll(keyValues, keyExpire)));
+            return CompletableFutures.allOf(futures).thenApply(v -> null);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <P> CompletableFuture<Collection<V>> loadData(ParamPack<P> paramPack, Function<P, CompletableFuture<V>> loader) {
+            return call(() -> loader.apply(paramPack.getParam())).thenApply(data -> {
+                if (data == null) {
+                    return Collections.emptyList();
+                }
+                if (data instanceof Collection) {
+                    return (Collection<V>) data;
+                }
+                return Collections.singletonList(data);
+            });
+        }
+
+        private CompletableFuture<Void> removeCache(Set<String> keys) {
+            CompletableFuture<Void> remove = cache.removeAll(keys);
+            return hasNext() ? remove.thenCompose(v -> next.removeCache(keys)) : remove;
+        }
+
+        /**
+         * action 完成后（无论成功与否）释放锁并通知等待方，释放完成后返回 action 的结果
+         */
+        private <T> CompletableFuture<T> unlockAfter(CompletableFuture<T> action, Set<String> lockKeys) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            action.whenComplete((value, e) -> cache.removeAll(lockKeys).whenComplete((v, unlockError) -> {
+                if (unlockError != null) {
+                    log.warn("unlock fail, keys {}", lockKeys, unlockError);
+                } else {
+                    unlockNotifier.notifyUnlock(lockKeys);
+                }
+                if (e == null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(e);
+                }
+            }));
+            return future;
+        }
+
+        private void complete(Map<String, CompletableFuture<Collection<V>>> leading, String cacheKey, Collection<V> data) {
+            CompletableFuture<Collection<V>> future = leading.get(cacheKey);
+            if (future != null) {
+                future.complete(data);
+            }
+        }
+
+        /**
+         * 原方法或下一步操作同步抛出的异常转为失败的 future
+         */
+        private static <T> CompletableFuture<T> call(Supplier<? extends CompletableFuture<T>> supplier) {
+            try {
+                return supplier.get();
+            } catch (RuntimeException | Error e) {
+                CompletableFuture<T> future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+                return future;
+            }
+        }
+
+        /**
+         * 其他请求加载的结果会同时返回给多个调用方，复制一份避免调用方之间互相修改
+         */
+        private static <T> T copyOf(T data) {
+            return KryoUtil.copy(data);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.lock.PollingUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
+
+import java.util.Map;
+import java.util.Set;
+
+import static com.server.base.cache.util.CompletableFutures.join;
+
+/**
+ * 将 {@link AsyncCache} 适配为同步的 {@link Cache}，比如在 {@link LinkCache} 中使用 {@link LettuceRedisCache}
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class BlockingCache<V> implements Cache<V> {
+
+    private final AsyncCache<V> cache;
+
+    private UnlockNotifier unlockNotifier = PollingUnlockNotifier.INSTANCE;
+
+    public BlockingCache(AsyncCache<V> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public CacheResult<V> get(String key) {
+        return join(cache.get(key));
+    }
+
+    @Override
+    public Map<String, CacheResult<V>> getAll(Set<String> keys) {
+        return join(cache.getAll(keys));
+    }
+
+    @Override
+    public void put(String key, V value, Long expire) {
+        join(cache.put(key, value, expire));
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends V> values, Long expire) {
+        join(cache.putAll(values, expire));
+    }
+
+    @Override
+    public boolean putIfNotExist(String key, Long expire) {
+        return join(cache.putIfNotExist(key, expire));
+    }
+
+    @Override
+    public Set<String> putMultiIfNotExist(Set<String> keys, Long expire) {
+        return join(cache.putMultiIfNotExist(keys, expire));
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return join(cache.remove(key));
+    }
+
+    @Override
+    public void removeAll(Set<String> keys) {
+        join(cache.removeAll(keys));
+    }
+
+    @Override
+    public CacheResult<V> warp(CacheHolder<V> holder) {
+        return cache.warp(holder);
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return unlockNotifier;
+    }
+
+    /**
+     * 设置加载锁释放的通知方式，默认为轮询
+     */
+    public void setUnlockNotifier(UnlockNotifier unlockNotifier) {
+        this.unlockNotifier = unlockNotifier;
+    }
+}
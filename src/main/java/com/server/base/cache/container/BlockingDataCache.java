@@ -0,0 +1,51 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.config.CachePolicy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static com.server.base.cache.util.CompletableFutures.join;
+
+/**
+ * 将 {@link AsyncDataCache} 适配为同步的 {@link DataCache}，供切面等同步调用方使用
+ * <p>
+ * 原方法在 loaderExecutor 中执行，避免阻塞的原方法占用 Redis 客户端的 IO 线程
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class BlockingDataCache<V> implements DataCache<V> {
+
+    private final AsyncDataCache<V> dataCache;
+
+    private final Executor loaderExecutor;
+
+    public BlockingDataCache(AsyncDataCache<V> dataCache, Executor loaderExecutor) {
+        this.dataCache = dataCache;
+        this.loaderExecutor = loaderExecutor;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <P> List<V> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, Object> loader, Function<P, String> keyBuilder,
+                                          Function<Object, P> methodThatGetParamFromData, CachePolicy policy) {
+        return join(dataCache.getCacheOrLoadList(param,
+                params -> CompletableFuture.supplyAsync(() -> (Collection<V>) loader.apply(params), loaderExecutor),
+                keyBuilder, methodThatGetParamFromData, policy));
+    }
+
+    @Override
+    public <P> Collection<V> getCacheOrLoad(P param, Function<P, V> loader, Function<P, String> keyBuilder, CachePolicy policy) {
+        return join(dataCache.getCacheOrLoad(param, p -> CompletableFuture.supplyAsync(() -> loader.apply(p), loaderExecutor), keyBuilder, policy));
+    }
+
+    @Override
+    public void removeCache(Set<String> keys) {
+        join(dataCache.removeCache(keys));
+    }
+}
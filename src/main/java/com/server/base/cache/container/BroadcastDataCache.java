@@ -0,0 +1,57 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.config.CachePolicy;
+import com.server.base.cache.invalidate.InvalidationBroadcaster;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 删除缓存后向其他节点广播失效的key，使其他节点的本地缓存同步删除，用于包装传给
+ * {@link com.server.base.cache.aspect.CacheAspect} 的 {@link LinkCache}
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class BroadcastDataCache<V> implements DataCache<V> {
+
+    private final DataCache<V> dataCache;
+
+    private final InvalidationBroadcaster broadcaster;
+
+    public BroadcastDataCache(DataCache<V> dataCache, InvalidationBroadcaster broadcaster) {
+        this.dataCache = dataCache;
+        this.broadcaster = broadcaster;
+    }
+
+    @Override
+    public <P> List<V> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, Object> loader, Function<P, String> keyBuilder,
+                                          Function<Object, P> methodThatGetParamFromData, CachePolicy policy) {
+        return dataCache.getCacheOrLoadList(param, loader, keyBuilder, methodThatGetParamFromData, policy);
+    }
+
+    @Override
+    public <P> Collection<V> getCacheOrLoad(P param, Function<P, V> loader, Function<P, String> keyBuilder, CachePolicy policy) {
+        return dataCache.getCacheOrLoad(param, loader, keyBuilder, policy);
+    }
+
+    @Override
+    public void removeCache(Set<String> keys) {
+        try {
+            dataCache.removeCache(keys);
+        } finally {
+            broadcaster.publish(keys);
+        }
+    }
+
+    @Override
+    public void removeCache(String keyWord, Set<String> keys) {
+        try {
+            dataCache.removeCache(keyWord, keys);
+        } finally {
+            broadcaster.publish(keys);
+        }
+    }
+}
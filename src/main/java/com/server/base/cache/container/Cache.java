@@ -2,8 +2,14 @@ package com.server.base.cache.container;
 
 import com.server.base.cache.entity.CacheHolder;
 import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.lock.PollingUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
 import com.server.base.cache.util.CacheResults;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -65,6 +71,42 @@ public interface Cache<V> {
     Set<String> putMultiIfNotExist(Set<String> keys, Long expire);
 
 
+    /**
+     * 批量读取，并为未命中的key加锁
+     * <p>
+     * 默认实现依次调用 getAll、putMultiIfNotExist，加锁成功后再次读取这些key，
+     * 能在一次请求中原子地完成读取与加锁的容器（如 {@link RedisCache}）应该重写
+     *
+     * @param lockKeys cacheKey 与对应的锁key
+     * @param lockExpire 锁的过期时间
+     * @return 读取结果与加锁成功的锁key，加锁成功但已经命中的key也需要调用方释放
+     */
+    default GetOrLockResult<V> getAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        Map<String, CacheResult<V>> values = new HashMap<>(getAll(lockKeys.keySet()));
+        Set<String> missLockKeys = new HashSet<>();
+        lockKeys.forEach((cacheKey, lockKey) -> {
+            CacheResult<V> value = values.get(cacheKey);
+            if (value == null || !CacheResults.isHit(value)) {
+                missLockKeys.add(lockKey);
+            }
+        });
+        Set<String> locked = missLockKeys.isEmpty() ? Collections.emptySet() : putMultiIfNotExist(missLockKeys, lockExpire);
+        if (!locked.isEmpty()) {
+            // 读取与加锁之间可能有其他节点写入了缓存
+            Set<String> lockedCacheKeys = new HashSet<>();
+            lockKeys.forEach((cacheKey, lockKey) -> {
+                if (locked.contains(lockKey)) {
+                    lockedCacheKeys.add(cacheKey);
+                }
+            });
+            values.putAll(getAll(lockedCacheKeys));
+        }
+        GetOrLockResult<V> result = new GetOrLockResult<>();
+        result.setValues(values);
+        result.setLocked(locked);
+        return result;
+    }
+
     /**
      * 删除值
      *
@@ -80,6 +122,30 @@ public interface Cache<V> {
      */
     void removeAll(Set<String> keys);
 
+    /**
+     * 清空缓存，用于无法得知哪些key失效的情况（比如与远程缓存的失效通知连接断开），
+     * 只有 {@link #supportClear()} 为 true 时才能调用
+     */
+    default void clear() {
+        throw new UnsupportedOperationException(getClass().getName() + " not support clear");
+    }
+
+    /**
+     * @return 是否支持 {@link #clear()}，本地缓存支持，远程缓存不支持；需要清空缓存的功能在注册缓存时检查
+     */
+    default boolean supportClear() {
+        return false;
+    }
+
+    /**
+     * 本容器中加载锁释放的通知方式，默认为轮询
+     *
+     * @return 通知方式
+     */
+    default UnlockNotifier unlockNotifier() {
+        return PollingUnlockNotifier.INSTANCE;
+    }
+
     default CacheResult<V> warp(CacheHolder<V> holder) {
         return CacheResults.success(holder.getData(), holder.getExpireAt());
     }
@@ -0,0 +1,216 @@
+package com.server.base.cache.container;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.lock.LocalUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
+import com.server.base.cache.util.CacheHolders;
+import com.server.base.cache.util.CacheResults;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 基于 Caffeine 的本地缓存，淘汰策略为 W-TinyLFU，过期时间通过 {@link Expiry} 精确到每个条目，不需要额外的过期线程
+ * <p>
+ * 淘汰与过期清理在共用的有界线程池中执行，队列满时由调用线程执行
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CaffeineCache<V> implements Cache<V> {
+
+    private static final Executor MAINTENANCE_EXECUTOR = maintenanceExecutor();
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> cache;
+
+    private final ValueConverter<V> converter;
+
+    private final ReferencePolicy referencePolicy;
+
+    private final UnlockNotifier unlockNotifier = new LocalUnlockNotifier();
+
+    public CaffeineCache(ValueConverter<V> converter, long maximumSize) {
+        this(converter, maximumSize, null);
+    }
+
+    /**
+     * @param referencePolicy 不为空时直接存储对象引用，读取时不再反序列化，由该策略决定如何防止调用方修改缓存中的对象
+     */
+    public CaffeineCache(ValueConverter<V> converter, long maximumSize, ReferencePolicy referencePolicy) {
+        this(converter, maximumSize, referencePolicy, MAINTENANCE_EXECUTOR);
+    }
+
+    /**
+     * @param executor 执行淘汰、过期清理等维护任务的线程池
+     */
+    public CaffeineCache(ValueConverter<V> converter, long maximumSize, ReferencePolicy referencePolicy, Executor executor) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry())
+                .executor(executor)
+                .recordStats()
+                .build();
+        this.converter = converter;
+        this.referencePolicy = referencePolicy;
+    }
+
+    @Override
+    public CacheResult<V> get(String key) {
+        LocalEntry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return CacheResults.fail();
+        }
+        return read(entry.value);
+    }
+
+    @Override
+    public Map<String, CacheResult<V>> getAll(Set<String> keys) {
+        Map<String, LocalEntry> allPresent = cache.getAllPresent(keys);
+        HashMap<String, CacheResult<V>> result = new HashMap<>(keys.size());
+        keys.forEach(k -> {
+            LocalEntry entry = allPresent.get(k);
+            result.put(k, entry == null ? CacheResults.fail() : read(entry.value));
+        });
+        return result;
+    }
+
+    @Override
+    public void put(String key, V value, Long expire) {
+        cache.put(key, new LocalEntry(store(value, expire), expire));
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends V> values, Long expire) {
+        HashMap<String, LocalEntry> temp = new HashMap<>(values.size());
+        values.forEach((k, v) -> temp.put(k, new LocalEntry(store(v, expire), expire)));
+        cache.putAll(temp);
+    }
+
+    @Override
+    public boolean putIfNotExist(String key, Long expire) {
+        byte[] randomKey = (Thread.currentThread().getName() + System.currentTimeMillis()).getBytes();
+        // 已过期但还没有被清理的条目对 putIfAbsent 不可见，视为不存在
+        return cache.asMap().putIfAbsent(key, new LocalEntry(randomKey, expire)) == null;
+    }
+
+    @Override
+    public Set<String> putMultiIfNotExist(Set<String> keys, Long expire) {
+        return keys.stream().filter(key -> putIfNotExist(key, expire)).collect(Collectors.toSet());
+    }
+
+    @Override
+    public boolean remove(String key) {
+        cache.invalidate(key);
+        return true;
+    }
+
+    @Override
+    public void removeAll(Set<String> keys) {
+        cache.invalidateAll(keys);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public boolean supportClear() {
+        return true;
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return unlockNotifier;
+    }
+
+    /**
+     * 命中率、淘汰数等统计信息
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void close() {
+        cache.invalidateAll();
+        cache.cleanUp();
+    }
+
+    private Object store(V value, Long expire) {
+        CacheHolder<V> holder = CacheHolders.expireAfter(value, expire);
+        if (referencePolicy == null) {
+            return converter.encode(holder);
+        }
+        return referencePolicy.onPut(holder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheResult<V> read(Object value) {
+        if (value instanceof CacheHolder) {
+            return warp(referencePolicy.onRead((CacheHolder<V>) value));
+        }
+        try {
+            return warp(converter.decode((byte[]) value));
+        } catch (ConvertException convertException) {
+            return CacheResults.fail();
+        }
+    }
+
+    private static Executor maintenanceExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1024), r -> {
+            Thread thread = new Thread(r, "base-cache-caffeine-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 缓存中的条目：默认存储 {@link ValueConverter} 编码后的 byte[]，设置了 {@link ReferencePolicy} 时存储 {@link CacheHolder}
+     */
+    private static class LocalEntry {
+
+        private final Object value;
+
+        private final long expireNanos;
+
+        private LocalEntry(Object value, long expire) {
+            this.value = value;
+            this.expireNanos = TimeUnit.MILLISECONDS.toNanos(expire);
+        }
+    }
+
+    /**
+     * 写入与覆盖时使用条目自身的过期时间，读取不影响过期时间
+     */
+    private static class EntryExpiry implements Expiry<String, LocalEntry> {
+
+        @Override
+        public long expireAfterCreate(String key, LocalEntry value, long currentTime) {
+            return value.expireNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LocalEntry value, long currentTime, long currentDuration) {
+            return value.expireNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, LocalEntry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.server.base.cache.container;
 
 import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.lock.UnlockNotifier;
 import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
@@ -88,6 +90,16 @@ public class CatchExceptionCache<V> implements Cache<V> {
         }
     }
 
+    @Override
+    public GetOrLockResult<V> getAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        try {
+            return cache.getAllOrLock(lockKeys, lockExpire);
+        } catch (Exception e) {
+            logError(e);
+            return defaultCache.getAllOrLock(lockKeys, lockExpire);
+        }
+    }
+
     @Override
     public boolean remove(String key) {
         try {
@@ -108,6 +120,26 @@ public class CatchExceptionCache<V> implements Cache<V> {
         }
     }
 
+    @Override
+    public void clear() {
+        try {
+            cache.clear();
+        } catch (Exception e) {
+            logError(e);
+            defaultCache.clear();
+        }
+    }
+
+    @Override
+    public boolean supportClear() {
+        return cache.supportClear();
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return cache.unlockNotifier();
+    }
+
     private void logError(Exception e) {
         log.error("Cache Container has error use " + defaultCacheClass + " as default cache  \n", e);
     }
@@ -0,0 +1,134 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.breaker.CircuitBreaker;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.lock.UnlockNotifier;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 带熔断的 {@link CatchExceptionCache}：失败率或慢调用比例超过阈值后不再调用原缓存，直接使用默认缓存，
+ * 避免原缓存不可用时每次操作都等待超时；一般用于远程缓存，配合 {@link LinkCache#setDegradedLocalExpire} 延长本地缓存的过期时间
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class CircuitBreakerCache<V> implements Cache<V> {
+
+    private final Cache<V> cache;
+
+    private final Cache<V> defaultCache;
+
+    private final CircuitBreaker breaker;
+
+    public CircuitBreakerCache(Cache<V> cache, CircuitBreaker breaker) {
+        this(cache, new NoCache<>(), breaker);
+    }
+
+    public CircuitBreakerCache(Cache<V> cache, Cache<V> defaultCache, CircuitBreaker breaker) {
+        this.cache = cache;
+        this.defaultCache = defaultCache;
+        this.breaker = breaker;
+    }
+
+    public CircuitBreaker breaker() {
+        return breaker;
+    }
+
+    @Override
+    public CacheResult<V> get(String key) {
+        return call(() -> cache.get(key), () -> defaultCache.get(key));
+    }
+
+    @Override
+    public Map<String, CacheResult<V>> getAll(Set<String> keys) {
+        return call(() -> cache.getAll(keys), () -> defaultCache.getAll(keys));
+    }
+
+    @Override
+    public void put(String key, V value, Long expire) {
+        run(() -> cache.put(key, value, expire), () -> defaultCache.put(key, value, expire));
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends V> values, Long expire) {
+        run(() -> cache.putAll(values, expire), () -> defaultCache.putAll(values, expire));
+    }
+
+    @Override
+    public boolean putIfNotExist(String key, Long expire) {
+        return call(() -> cache.putIfNotExist(key, expire), () -> defaultCache.putIfNotExist(key, expire));
+    }
+
+    @Override
+    public Set<String> putMultiIfNotExist(Set<String> keys, Long expire) {
+        return call(() -> cache.putMultiIfNotExist(keys, expire), () -> defaultCache.putMultiIfNotExist(keys, expire));
+    }
+
+    @Override
+    public GetOrLockResult<V> getAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        return call(() -> cache.getAllOrLock(lockKeys, lockExpire), () -> defaultCache.getAllOrLock(lockKeys, lockExpire));
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return call(() -> cache.remove(key), () -> defaultCache.remove(key));
+    }
+
+    @Override
+    public void removeAll(Set<String> keys) {
+        run(() -> cache.removeAll(keys), () -> defaultCache.removeAll(keys));
+    }
+
+    @Override
+    public void clear() {
+        run(cache::clear, defaultCache::clear);
+    }
+
+    @Override
+    public boolean supportClear() {
+        return cache.supportClear() && defaultCache.supportClear();
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return cache.unlockNotifier();
+    }
+
+    private void run(Runnable action, Runnable fallback) {
+        call(() -> {
+            action.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    private <R> R call(Supplier<R> action, Supplier<R> fallback) {
+        if (!breaker.tryAcquire()) {
+            return fallback.get();
+        }
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = action.get();
+        } catch (Exception e) {
+            breaker.onError(System.nanoTime() - start, e);
+            // 只记录异常信息，避免下游不可用时大量重复的堆栈
+            if (log.isDebugEnabled()) {
+                log.debug("Cache Container has error use default cache", e);
+            } else {
+                log.warn("Cache Container has error use default cache: {}", e.toString());
+            }
+            return fallback.get();
+        }
+        breaker.onSuccess(System.nanoTime() - start);
+        return result;
+    }
+}
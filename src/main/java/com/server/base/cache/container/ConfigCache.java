@@ -2,6 +2,8 @@ package com.server.base.cache.container;
 
 import com.server.base.cache.config.CacheConfig;
 import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.lock.UnlockNotifier;
 import java.util.Map;
 import java.util.Set;
 
@@ -56,6 +58,11 @@ public class ConfigCache<V> implements Cache<V> {
         return cache.putMultiIfNotExist(keys, expire);
     }
 
+    @Override
+    public GetOrLockResult<V> getAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        return cache.getAllOrLock(lockKeys, lockExpire);
+    }
+
     @Override
     public boolean remove(String key) {
         return cache.remove(key);
@@ -66,6 +73,21 @@ public class ConfigCache<V> implements Cache<V> {
         cache.removeAll(keys);
     }
 
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public boolean supportClear() {
+        return cache.supportClear();
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return cache.unlockNotifier();
+    }
+
     private long getGlobalExpireTime() {
         return cacheConfig.getTimeUnit().toMillis(cacheConfig.getGlobalExpireTime());
     }
@@ -1,5 +1,7 @@
 package com.server.base.cache.container;
 
+import com.server.base.cache.config.CachePolicy;
+
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -17,23 +19,55 @@ public interface DataCache<CACHE_TYPE> {
      * @param loader     切入点的原有函数方法
      * @param keyBuilder 根据请求参数构建缓存中key值的函数
      * @param methodThatGetParamFromData 从切面方法的返回值中获取对应请求参数值的函数方法
-     * @param cacheNull  是否缓存请求参数对应结果值为null的请求参数
+     * @param policy     过期时间、是否缓存null值等策略
      */
     <P> List<CACHE_TYPE> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, Object> loader,
-                                            Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData, boolean cacheNull,
-                                            Long expire, Long nullExpire);
+                                            Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData,
+                                            CachePolicy policy);
 
     /**
-     * @param param      调用方法的原始请求参数
+     * @param param      集合类型的方法调用请求参数
      * @param loader     切入点的原有函数方法
      * @param keyBuilder 根据请求参数构建缓存中key值的函数
+     * @param methodThatGetParamFromData 从切面方法的返回值中获取对应请求参数值的函数方法
      * @param cacheNull  是否缓存请求参数对应结果值为null的请求参数
      */
+    default <P> List<CACHE_TYPE> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, Object> loader,
+                                                    Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData, boolean cacheNull,
+                                                    Long expire, Long nullExpire) {
+        return getCacheOrLoadList(param, loader, keyBuilder, methodThatGetParamFromData, CachePolicy.of(cacheNull, expire, nullExpire));
+    }
+
+    /**
+     * @param param      调用方法的原始请求参数
+     * @param loader     切入点的原有函数方法
+     * @param keyBuilder 根据请求参数构建缓存中key值的函数
+     * @param policy     过期时间、是否缓存null值等策略
+     */
     <P> Collection<CACHE_TYPE> getCacheOrLoad(P param, Function<P, CACHE_TYPE> loader,
                                               Function<P, String> keyBuilder,
-                                              boolean cacheNull,
-                                              Long expire, Long nullExpire);
+                                              CachePolicy policy);
+
+    /**
+     * @param param      调用方法的原始请求参数
+     * @param loader     切入点的原有函数方法
+     * @param keyBuilder 根据请求参数构建缓存中key值的函数
+     * @param cacheNull  是否缓存请求参数对应结果值为null的请求参数
+     */
+    default <P> Collection<CACHE_TYPE> getCacheOrLoad(P param, Function<P, CACHE_TYPE> loader,
+                                                      Function<P, String> keyBuilder,
+                                                      boolean cacheNull,
+                                                      Long expire, Long nullExpire) {
+        return getCacheOrLoad(param, loader, keyBuilder, CachePolicy.of(cacheNull, expire, nullExpire));
+    }
 
     void removeCache(Set<String> keys);
 
+    /**
+     * @param keyWord 缓存key的前缀，与 {@link CachePolicy#getKeyWord()} 一致
+     */
+    default void removeCache(String keyWord, Set<String> keys) {
+        removeCache(keys);
+    }
+
 }
@@ -3,108 +3,124 @@ package com.server.base.cache.container;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheHolder;
 import com.server.base.cache.entity.CacheResult;
 import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.lock.LocalUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
 import com.server.base.cache.util.CacheHolders;
 import com.server.base.cache.util.CacheResults;
+import com.server.base.cache.util.TimingWheel;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
+ * 过期时间精确到每个条目：读取时拒绝已过期的条目，过期删除交给共用的 {@link TimingWheel}，
+ * 条目被覆盖、删除或淘汰时取消对应的过期任务
+ *
  * @author hanlipeng
  * @date 2019-07-16
  */
 @Slf4j
 public class GuavaCache<V> implements Cache<V> {
 
-    private final com.google.common.cache.Cache<String, byte[]> cache;
+    private final com.google.common.cache.Cache<String, LocalEntry> cache;
 
     private final ValueConverter<V> converter;
-    private boolean isClose = false;
 
-    private final ExpireListener listener;
+    private final ReferencePolicy referencePolicy;
+
+    private final TimingWheel timingWheel = TimingWheel.shared();
+
+    private final UnlockNotifier unlockNotifier = new LocalUnlockNotifier();
 
     public GuavaCache(ValueConverter<V> converter, int maximumSize) {
-        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this(converter, maximumSize, null);
+    }
+
+    /**
+     * @param referencePolicy 不为空时直接存储对象引用，读取时不再反序列化，由该策略决定如何防止调用方修改缓存中的对象
+     */
+    public GuavaCache(ValueConverter<V> converter, int maximumSize, ReferencePolicy referencePolicy) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .<String, LocalEntry>removalListener(notification -> {
+                    LocalEntry entry = notification.getValue();
+                    if (entry != null) {
+                        entry.cancelExpire();
+                    }
+                })
+                .build();
 
         this.converter = converter;
-        listener = new ExpireListener();
-        Thread thread = new Thread(listener);
-        thread.setDaemon(true);
-        thread.start();
+        this.referencePolicy = referencePolicy;
     }
 
     @Override
     public CacheResult<V> get(String key) {
-        byte[] value = cache.getIfPresent(key);
-        if (value == null) {
-            return CacheResults.fail();
-        }
-        try {
-            return warp(converter.decode(value));
-        } catch (ConvertException convertException) {
+        LocalEntry entry = cache.getIfPresent(key);
+        if (entry == null || isExpired(key, entry)) {
             return CacheResults.fail();
         }
+        return read(entry.value);
     }
 
     @Override
     public Map<String, CacheResult<V>> getAll(Set<String> keys) {
-        ImmutableMap<String, byte[]> allPresent = cache.getAllPresent(keys);
+        ImmutableMap<String, LocalEntry> allPresent = cache.getAllPresent(keys);
         HashMap<String, CacheResult<V>> result = new HashMap<>(allPresent.size());
         keys.forEach((k -> {
-            byte[] o = allPresent.get(k);
-            if (o == null) {
+            LocalEntry entry = allPresent.get(k);
+            if (entry == null || isExpired(k, entry)) {
                 result.put(k, CacheResults.fail());
                 return;
             }
-            CacheResult<V> success;
-            try {
-                success = warp(converter.decode(o));
-            } catch (ConvertException convertException) {
-                success = CacheResults.fail();
-            }
-            result.put(k, success);
+            result.put(k, read(entry.value));
         }));
         return result;
     }
 
     @Override
     public void put(String key, V value, Long expire) {
-        byte[] encode = converter.encode(CacheHolders.init(value, expire));
-        cache.put(key, encode);
-        addListener(key, expire);
+        LocalEntry entry = new LocalEntry(store(value, expire), expire);
+        cache.put(key, entry);
+        scheduleExpire(key, entry, expire);
     }
 
     @Override
     public void putAll(Map<String, ? extends V> values, Long expire) {
-        HashMap<String, byte[]> temp = new HashMap<>(values.size());
-        values.forEach((k, v) -> temp.put(k, converter.encode(CacheHolders.init(v, expire))));
+        HashMap<String, LocalEntry> temp = new HashMap<>(values.size());
+        values.forEach((k, v) -> temp.put(k, new LocalEntry(store(v, expire), expire)));
         cache.putAll(temp);
-        addListener(values.keySet(), expire);
+        temp.forEach((k, entry) -> scheduleExpire(k, entry, expire));
     }
 
     @Override
     public boolean putIfNotExist(String key, Long expire) {
         byte[] randomKey = (Thread.currentThread().getName() + System.currentTimeMillis()).getBytes();
-        try {
-            Object bytes = cache.get(key, () -> randomKey);
-            if (bytes == randomKey) {
-                addListener(key, expire);
+        LocalEntry entry = new LocalEntry(randomKey, expire);
+        ConcurrentMap<String, LocalEntry> map = cache.asMap();
+        while (true) {
+            LocalEntry exist = map.putIfAbsent(key, entry);
+            if (exist == null) {
+                scheduleExpire(key, entry, expire);
+                return true;
+            }
+            // 已过期但还没有被删除的条目视为不存在
+            if (!exist.isExpired()) {
+                return false;
+            }
+            if (map.replace(key, exist, entry)) {
+                scheduleExpire(key, entry, expire);
                 return true;
             }
-        } catch (ExecutionException e) {
-            throw new RuntimeException(e);
         }
-        return false;
     }
 
     @Override
@@ -123,71 +139,100 @@ public class GuavaCache<V> implements Cache<V> {
         cache.invalidateAll(keys);
     }
 
-    public void close() {
+    private Object store(V value, Long expire) {
+        CacheHolder<V> holder = CacheHolders.expireAfter(value, expire);
+        if (referencePolicy == null) {
+            return converter.encode(holder);
+        }
+        return referencePolicy.onPut(holder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheResult<V> read(Object value) {
+        if (value instanceof CacheHolder) {
+            return warp(referencePolicy.onRead((CacheHolder<V>) value));
+        }
+        try {
+            return warp(converter.decode((byte[]) value));
+        } catch (ConvertException convertException) {
+            return CacheResults.fail();
+        }
+    }
+
+    private boolean isExpired(String key, LocalEntry entry) {
+        if (!entry.isExpired()) {
+            return false;
+        }
+        cache.asMap().remove(key, entry);
+        return true;
+    }
+
+    private void scheduleExpire(String key, LocalEntry entry, long expire) {
+        entry.setTimeout(timingWheel.schedule(expire, TimeUnit.MILLISECONDS, () -> {
+            if (log.isDebugEnabled()) {
+                log.debug("delete key {} expireTime {}", key, expire);
+            }
+            cache.asMap().remove(key, entry);
+        }));
+    }
+
+    @Override
+    public void clear() {
         cache.invalidateAll();
-        isClose = true;
     }
 
-    private void addListener(String key, long expire) {
-        listener.addListener(System.currentTimeMillis() + expire, key);
+    @Override
+    public boolean supportClear() {
+        return true;
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return unlockNotifier;
     }
 
-    private void addListener(Set<String> key, long expire) {
-        listener.addAllListener(System.currentTimeMillis() + expire, key);
+    public void close() {
+        cache.invalidateAll();
     }
 
-    private class ExpireListener implements Runnable {
+    /**
+     * 缓存中的条目：默认存储 {@link ValueConverter} 编码后的 byte[]，设置了 {@link ReferencePolicy} 时存储 {@link CacheHolder}
+     */
+    private static class LocalEntry {
 
-        private TreeMap<Long, Set<String>> outOfTimeMap = new TreeMap<>(Long::compare);
+        private final Object value;
 
-        @Override
-        public void run() {
-            while (!isClose) {
-                try {
-                    TimeUnit.MILLISECONDS.sleep(1000);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-                if (outOfTimeMap.isEmpty()) {
-                    continue;
-                }
-                long now = System.currentTimeMillis();
-                while (true) {
-                    Entry<Long, Set<String>> entry = outOfTimeMap.floorEntry(now);
-                    if (entry == null) {
-                        break;
-                    }
-                    log.debug("delete key {} now {} expireTime {}", entry.getValue(), now, entry.getKey());
-                    removeAll(entry.getValue());
-                    outOfTimeMap.remove(entry.getKey());
-                }
-            }
+        private final long deadline;
+
+        private volatile TimingWheel.Timeout timeout;
+
+        private volatile boolean removed;
+
+        private LocalEntry(Object value, long expire) {
+            this.value = value;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(expire);
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - deadline >= 0;
         }
 
-        public synchronized void addListener(Long outTime, String key) {
-            if (outTime < System.currentTimeMillis()) {
-                remove(key);
+        /**
+         * 条目可能在过期任务设置之前就被覆盖或删除，两边都检查一次，保证过期任务一定会被取消
+         */
+        private void setTimeout(TimingWheel.Timeout timeout) {
+            this.timeout = timeout;
+            if (removed) {
+                timeout.cancel();
             }
-            outOfTimeMap.compute(outTime, (k, v) -> {
-                if (v == null) {
-                    v = new HashSet<>();
-                }
-                v.add(key);
-                return v;
-            });
         }
 
-        public synchronized void addAllListener(Long outTime, Set<String> key) {
-            if (outTime < System.currentTimeMillis()) {
-                removeAll(key);
+        private void cancelExpire() {
+            removed = true;
+            TimingWheel.Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
             }
-            outOfTimeMap.compute(outTime, (k, v) -> {
-                if (v == null) {
-                    v = new HashSet<>();
-                }
-                v.addAll(key);
-                return v;
-            });
         }
     }
 }
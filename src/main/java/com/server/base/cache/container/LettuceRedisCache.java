@@ -0,0 +1,180 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.lock.PollingUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
+import com.server.base.cache.util.BatchInvokeUtils;
+import com.server.base.cache.util.CacheHolders;
+import com.server.base.cache.util.CacheResults;
+import com.server.base.cache.util.CompletableFutures;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 基于 Lettuce 异步连接的 Redis 缓存，命令在同一个连接上自动流水线发送，不占用调用线程
+ * <p>
+ * 读取到的值在 decodeExecutor 中解码，不占用 Lettuce 的 IO 线程，避免解码较大的值时阻塞同一连接上的其他命令；
+ * 单机与集群连接都可以使用，连接需要使用 {@link #CODEC} 创建：
+ * <pre>{@code
+ * new LettuceRedisCache<>(redisClient.connect(LettuceRedisCache.CODEC).async(), converter)
+ * }</pre>
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class LettuceRedisCache<V> implements AsyncCache<V> {
+
+    /**
+     * key 为 UTF-8 字符串，value 为 {@link ValueConverter} 编码后的 byte[]
+     */
+    public static final RedisCodec<String, byte[]> CODEC = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+
+    private static final int mGetMaxSize = 1000;
+
+    private final RedisClusterAsyncCommands<String, byte[]> commands;
+
+    private final ValueConverter<V> converter;
+
+    private final Executor decodeExecutor;
+
+    private UnlockNotifier unlockNotifier = PollingUnlockNotifier.INSTANCE;
+
+    /**
+     * 在 {@link ForkJoinPool#commonPool()} 中解码
+     */
+    public LettuceRedisCache(RedisClusterAsyncCommands<String, byte[]> commands, ValueConverter<V> converter) {
+        this(commands, converter, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param decodeExecutor 解码读取到的值的线程池，不能是 Lettuce 的 IO 线程
+     */
+    public LettuceRedisCache(RedisClusterAsyncCommands<String, byte[]> commands, ValueConverter<V> converter, Executor decodeExecutor) {
+        this.commands = commands;
+        this.converter = converter;
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    @Override
+    public CompletableFuture<CacheResult<V>> get(String key) {
+        return commands.get(key).thenApplyAsync(this::read, decodeExecutor).toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Map<String, CacheResult<V>>> getAll(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(new HashMap<>());
+        }
+        // key过多时分批发送mget，避免单个命令阻塞Redis过久
+        List<CompletableFuture<List<KeyValue<String, byte[]>>>> batches = new ArrayList<>();
+        BatchInvokeUtils.batchInvokeBiConsumer((subKeys, futures) -> futures.add(commands.mget(subKeys.toArray(new String[0])).toCompletableFuture()),
+                new ArrayList<>(keys), batches, mGetMaxSize, mGetMaxSize + (mGetMaxSize >> 1));
+        return CompletableFutures.allOf(batches).thenApplyAsync(results -> {
+            HashMap<String, CacheResult<V>> resultMap = new HashMap<>(keys.size());
+            results.forEach(keyValues -> keyValues.forEach(keyValue ->
+                    resultMap.put(keyValue.getKey(), read(keyValue.getValueOrElse(null)))));
+            return resultMap;
+        }, decodeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, V value, Long expire) {
+        byte[] bytes = converter.encode(CacheHolders.expireAfter(value, expire));
+        return commands.set(key, bytes, SetArgs.Builder.px(expire)).thenAccept(ok -> {
+        }).toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> putAll(Map<String, ? extends V> values, Long expire) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(values.size());
+        values.forEach((k, v) -> futures.add(commands.psetex(k, expire, converter.encode(CacheHolders.expireAfter(v, expire))).toCompletableFuture()));
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> putIfNotExist(String key, Long expire) {
+        return commands.set(key, lockValue(), SetArgs.Builder.nx().px(expire))
+                .thenApply("OK"::equals)
+                .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> putMultiIfNotExist(Set<String> keys, Long expire) {
+        byte[] value = lockValue();
+        SetArgs args = SetArgs.Builder.nx().px(expire);
+        List<String> keyList = new ArrayList<>(keys);
+        List<CompletableFuture<String>> futures = new ArrayList<>(keyList.size());
+        keyList.forEach(key -> futures.add(commands.set(key, value, args).toCompletableFuture()));
+        return CompletableFutures.allOf(futures).thenApply(results -> {
+            Set<String> success = new HashSet<>();
+            for (int i = 0; i < keyList.size(); i++) {
+                if ("OK".equals(results.get(i))) {
+                    success.add(keyList.get(i));
+                }
+            }
+            return success;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> remove(String key) {
+        return commands.del(key).thenApply(count -> count != null && count > 0).toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> removeAll(Set<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return commands.del(keys.toArray(new String[0])).thenAccept(count -> {
+        }).toCompletableFuture();
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return unlockNotifier;
+    }
+
+    /**
+     * 设置加载锁释放的通知方式，如 {@link com.server.base.cache.lock.RedisUnlockNotifier}，默认为轮询；
+     * 通知在释放锁的回调中发送，可能在 Lettuce 的 IO 线程中执行
+     */
+    public void setUnlockNotifier(UnlockNotifier unlockNotifier) {
+        this.unlockNotifier = unlockNotifier;
+    }
+
+    private CacheResult<V> read(byte[] value) {
+        if (value == null) {
+            return CacheResults.fail();
+        }
+        try {
+            return warp(converter.decode(value));
+        } catch (ConvertException e) {
+            log.error("Redis value decode fail", e);
+            return CacheResults.fail();
+        }
+    }
+
+    private static byte[] lockValue() {
+        return (Thread.currentThread().getName() + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+    }
+}
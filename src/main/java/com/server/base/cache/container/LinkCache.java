@@ -1,22 +1,40 @@
 package com.server.base.cache.container;
 
+import com.server.base.cache.bloom.NegativeCache;
+import com.server.base.cache.config.CachePolicy;
 import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
 import com.server.base.cache.exception.CacheException;
-import lombok.Data;
+import com.server.base.cache.hotkey.HotKeyDetector;
+import com.server.base.cache.lock.UnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier.UnlockWaiter;
+import com.server.base.cache.metrics.CacheMetrics;
+import com.server.base.cache.util.BatchInvokeUtils;
+import com.server.base.cache.util.CacheResults;
+import com.server.base.cache.util.KryoUtil;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
-import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 /**
@@ -26,6 +44,11 @@ import java.util.stream.Collectors;
 @Slf4j
 public class LinkCache<V> implements DataCache<V> {
 
+    /**
+     * 软过期后在后台刷新缓存的线程池，队列满时放弃本次刷新，下次读取时会再次触发
+     */
+    private static final ThreadPoolExecutor REFRESH_EXECUTOR = refreshExecutor();
+
     private CacheNode<V> first;
 
     private CacheNode<V> last;
@@ -47,19 +70,103 @@ public class LinkCache<V> implements DataCache<V> {
 
     }
 
+    /**
+     * 开启批量加载的分片并发：未命中的参数超过 batchSize 的 1.5 倍时，按 batchSize 切分，
+     * 各分片并发地从下一级缓存读取或调用原方法，并写入本级缓存，结果按参数的顺序合并
+     * <p>
+     * 原方法会在 executor 的线程中执行，依赖 ThreadLocal（如事务、请求上下文）的原方法不应开启
+     *
+     * @param executor  执行分片的线程池，如 {@link com.server.base.cache.util.BatchLoadExecutors#newBatchLoadExecutor}
+     * @param batchSize 每个分片的参数个数
+     */
+    public void setBatchLoad(Executor executor, int batchSize) {
+        if (batchSize < 2) {
+            throw new IllegalArgumentException("batchSize must be greater than 1");
+        }
+        for (CacheNode<V> node = first; node != null; node = node.next) {
+            node.batchExecutor = executor;
+            node.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * 开启热点key统计：在第一级缓存读取时按 keyWord 记录访问，有下一级缓存时第一级只写入访问次数足够的key，
+     * 热点key在第一级缓存中保留更久，当前的热点key通过 {@link HotKeyDetector#topKeys(String)} 获取
+     */
+    public void setHotKeyDetector(HotKeyDetector hotKeyDetector) {
+        first.hotKeys = hotKeyDetector;
+    }
+
+    /**
+     * 开启 {@link com.server.base.cache.annotation.Cached#negativeCache()}：读取前先查本地过滤器，
+     * 调用原方法前查共享过滤器，原方法没有返回数据的key写入过滤器，删除缓存时从过滤器中删除
+     */
+    public void setNegativeCache(NegativeCache negativeCache) {
+        for (CacheNode<V> node = first; node != null; node = node.next) {
+            node.negativeCache = negativeCache;
+        }
+    }
+
+    /**
+     * 下游不可用时延长第一级缓存的过期时间，由第一级缓存承接请求，如
+     * {@code setDegradedLocalExpire(breaker::isOpen, 600_000L)}，其中 breaker 为远程缓存的 {@link CircuitBreakerCache#breaker()}
+     *
+     * @param degraded 是否处于降级状态
+     * @param expire   降级期间第一级缓存的最小过期时间（毫秒），降级期间同时不再按热点key过滤写入
+     */
+    public void setDegradedLocalExpire(BooleanSupplier degraded, long expire) {
+        first.degraded = degraded;
+        first.degradedExpire = expire;
+    }
+
+    /**
+     * 开启指标统计：每一级缓存按 keyWord 的命中、未命中、加锁失败与重试次数，以及原方法的耗时，
+     * 第一级缓存的 tier 为 l1，依次类推
+     */
+    public void setMetrics(CacheMetrics metrics) {
+        int index = 1;
+        for (CacheNode<V> node = first; node != null; node = node.next) {
+            node.metrics = metrics;
+            node.tier = "l" + index++;
+        }
+    }
+
     @Override
-    public <P> List<V> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, Object> loader, Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData, boolean cacheNull, Long expire, Long nullExpire) {
-        return first.getCacheOrLoadList(param, loader, keyBuilder, methodThatGetParamFromData, cacheNull, expire, nullExpire);
+    public <P> List<V> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, Object> loader, Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData, CachePolicy policy) {
+        return first.getCacheOrLoadList(param, loader, keyBuilder, methodThatGetParamFromData, policy);
     }
 
     @Override
-    public <P> Collection<V> getCacheOrLoad(P param, Function<P, V> loader, Function<P, String> keyBuilder, boolean cacheNull, Long expire, Long nullExpire) {
-        return first.getCacheOrLoad(param, loader, keyBuilder, cacheNull, expire, nullExpire);
+    public <P> Collection<V> getCacheOrLoad(P param, Function<P, V> loader, Function<P, String> keyBuilder, CachePolicy policy) {
+        return first.getCacheOrLoad(param, loader, keyBuilder, policy);
     }
 
     @Override
     public void removeCache(Set<String> keys) {
         first.removeCache(keys);
+        if (first.negativeCache != null) {
+            first.negativeCache.remove(keys);
+        }
+    }
+
+    @Override
+    public void removeCache(String keyWord, Set<String> keys) {
+        first.removeCache(keys);
+        if (first.negativeCache != null) {
+            first.negativeCache.remove(keyWord, keys);
+        }
+    }
+
+
+    private static ThreadPoolExecutor refreshExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1024), r -> {
+            Thread thread = new Thread(r, "base-cache-refresh-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
 
@@ -71,137 +178,335 @@ public class LinkCache<V> implements DataCache<V> {
 
         private final Cache<Collection<V>> cache;
 
+        /**
+         * 本JVM内正在加载的cacheKey，同一个key并发未命中时只有一个线程去竞争分布式锁并加载，其他线程等待它的结果
+         */
+        private final ConcurrentHashMap<String, CompletableFuture<Collection<V>>> loading = new ConcurrentHashMap<>();
+
+        private final UnlockNotifier unlockNotifier;
+
+        /**
+         * 本JVM内正在后台刷新的cacheKey，避免同一个key重复提交刷新任务
+         */
+        private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+        private Executor batchExecutor;
+
+        private int batchSize;
+
+        /**
+         * 只在第一级缓存设置
+         */
+        private HotKeyDetector hotKeys;
+
+        private NegativeCache negativeCache;
+
+        private CacheMetrics metrics;
+
+        /**
+         * 只在第一级缓存设置
+         */
+        private BooleanSupplier degraded;
+
+        private long degradedExpire;
+
+        private String tier;
+
         private CacheNode(Cache<Collection<V>> cache) {
             this.cache = cache;
+            this.unlockNotifier = cache.unlockNotifier();
         }
 
         private boolean hasNext() {
             return next != null;
         }
 
+        /**
+         * 统计原方法的耗时，在第一级缓存包装一次，后台刷新时同样生效
+         */
+        private <T, R> Function<T, R> timed(Function<T, R> loader, CachePolicy policy) {
+            if (metrics == null) {
+                return loader;
+            }
+            return param -> {
+                long start = System.nanoTime();
+                try {
+                    return loader.apply(param);
+                } finally {
+                    metrics.load(policy.getKeyWord(), System.nanoTime() - start);
+                }
+            };
+        }
+
+        private boolean isNegativeCache(CachePolicy policy) {
+            return negativeCache != null && policy.isNegativeCache();
+        }
+
         @Override
         public <P> List<V> getCacheOrLoadList(Collection<P> param, Function<Collection<P>, Object> loader,
-                                              Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData, boolean cacheNull,
-                                              Long expire, Long nullExpire) {
+                                              Function<P, String> keyBuilder, Function<Object, P> methodThatGetParamFromData,
+                                              CachePolicy policy) {
 
 
             List<ParamPack<P>> paramPacks = param.stream()
                     .map(p -> ParamPack.buildParamPack(p, keyBuilder)).collect(Collectors.toList());
+            if (hotKeys != null) {
+                paramPacks.forEach(paramPack -> hotKeys.record(policy.getKeyWord(), paramPack.getCacheKey()));
+            }
+            if (isNegativeCache(policy)) {
+                // 已知没有数据的key不再读取缓存
+                Set<String> absent = negativeCache.absentKeys(policy.getKeyWord(),
+                        paramPacks.stream().map(ParamPack::getCacheKey).collect(Collectors.toList()));
+                if (!absent.isEmpty()) {
+                    paramPacks.removeIf(paramPack -> absent.contains(paramPack.getCacheKey()));
+                    if (paramPacks.isEmpty()) {
+                        return new ArrayList<>();
+                    }
+                }
+            }
 
 
-            return getCacheOrLoadList(new ParamCombination<>(paramPacks, param.getClass()), loader, methodThatGetParamFromData, cacheNull, expire, nullExpire);
+            return getCacheOrLoadList(new ParamCombination<>(paramPacks, param.getClass()), timed(loader, policy), methodThatGetParamFromData, policy);
         }
 
 
         // 从缓存中读取
-        private <P> List<V> getCacheOrLoadList(ParamCombination<P> paramCombination, Function<Collection<P>, Object> loader, Function<Object, P> methodThatGetParamFromData, boolean cacheNull, Long expire, Long nullExpire) {
+        private <P> List<V> getCacheOrLoadList(ParamCombination<P> paramCombination, Function<Collection<P>, Object> loader, Function<Object, P> methodThatGetParamFromData, CachePolicy policy) {
             List<V> result = new ArrayList<>();
+            Map<String, CompletableFuture<Collection<V>>> leading = new HashMap<>();
+
+            // 根据keys从缓存中读取对应的value，并将读取到的缓存结果放到返回值result中
+            List<ParamPack<P>> stale = new ArrayList<>();
+            readCache(paramCombination, leading, result, policy, stale);
+            // 已经软过期的缓存照常返回，同时在后台刷新
+            refreshListIfStale(stale, paramCombination.getParamClass(), loader, methodThatGetParamFromData, policy);
+            // 每个入参都成功找到了缓存的结果值，可以直接返回结果
+            if (paramCombination.isClear()) {
+                return result;
+            }
 
-            // 切入点的请求参数尚有没找到对应返回值的参数
-            int count = 0;
-            while (!paramCombination.isClear()) {
-                Set<String> cacheKeys = paramCombination.getCacheKeys();
-                // 根据keys从缓存中读取对应的value，并将读取到的缓存结果放到返回值result中
-                Map<String, CacheResult<Collection<V>>> cacheData = cache.getAll(cacheKeys);
-                cacheData
-                        .forEach((key, cacheResult) -> {
-                            if (cacheResult.isSuccess()) {
-                                paramCombination.removeByCacheKeys(key);
-                                result.addAll(Optional.of(cacheResult).map(CacheResult::getData).orElse(Collections.emptyList()));
-                            }
-                        });
-
-                // 每个入参都成功找到了缓存的结果值，可以直接返回结果
-                if (paramCombination.isClear()) {
-                    return result;
+            // 没有命中的key，如果本JVM内已有线程在加载，则等待它的结果，否则由当前线程负责加载
+            Map<String, CompletableFuture<Collection<V>>> following = new HashMap<>();
+            for (String cacheKey : new ArrayList<>(paramCombination.getCacheKeys())) {
+                CompletableFuture<Collection<V>> future = new CompletableFuture<>();
+                CompletableFuture<Collection<V>> inFlight = loading.putIfAbsent(cacheKey, future);
+                if (inFlight == null) {
+                    leading.put(cacheKey, future);
+                } else {
+                    following.put(cacheKey, inFlight);
+                    paramCombination.removeByCacheKeys(cacheKey);
+                }
+            }
+            try {
+                if (!paramCombination.isClear()) {
+                    lockAndLoadList(paramCombination, loader, methodThatGetParamFromData, policy, leading, result);
                 }
+            } catch (RuntimeException | Error e) {
+                leading.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                leading.forEach(loading::remove);
+            }
+            following.values().forEach(future -> result.addAll(copyOf(await(future))));
+            return result;
+
+        }
 
+        private <P> void lockAndLoadList(ParamCombination<P> paramCombination, Function<Collection<P>, Object> loader, Function<Object, P> methodThatGetParamFromData, CachePolicy policy,
+                                         Map<String, CompletableFuture<Collection<V>>> leading, List<V> result) {
+            // 切入点的请求参数尚有没找到对应返回值的参数
+            int count = 0;
+            while (true) {
                 Set<String> needUnlockKey = new HashSet<>();
-                try {
-                    // 针对没有找到缓存值的key，将使用请求参数构建的lockKey放入缓存（如果缓存中不存在的话）
-                    Set<String> successLock = cache.putMultiIfNotExist(paramCombination.getLockKeys(), LOCK_TIME);
-                    needUnlockKey.addAll(successLock);
-                    if (!successLock.isEmpty()) {
-                        // 如果有key被锁定成功，则再次尝试从缓存中读取key对应的数据值， 并处理读取到的缓存值
-                        Map<String, CacheResult<Collection<V>>> hasLoadedData = cache.getAll(paramCombination.getCacheKeys());
-                        hasLoadedData.forEach((k, v) -> {
-                            if (v.isSuccess()) {
-                                result.addAll(Optional.of(v).map(CacheResult::getData).orElse(Collections.emptyList()));
-                                paramCombination.removeByCacheKeys(k);
-                            }
-                        });
+                // 在加锁前开始监听，避免错过加锁失败后其他节点发出的释放通知
+                try (UnlockWaiter waiter = unlockNotifier.listen(new ArrayList<>(paramCombination.getLockKeys()))) {
+                    try {
+                        // 再次读取没有找到缓存值的key，同时为仍未命中的key加锁（lockKey不存在时放入缓存）
+                        GetOrLockResult<Collection<V>> cacheData = cache.getAllOrLock(paramCombination.getLockKeyByCacheKey(), LOCK_TIME);
+                        Set<String> successLock = new HashSet<>(cacheData.getLocked());
+                        needUnlockKey.addAll(successLock);
+                        acceptCache(paramCombination, leading, result, policy, null, cacheData.getValues());
                         // 加锁成功的key 与 仍没有找到缓存值的key 取交集，得到 "锁定成功且仍没有找到缓存值的keys"
                         successLock.retainAll(paramCombination.getLockKeys());
-                        // 如果successLock为空，则说明所有加锁成功的参数都查到了对应的缓存值，continue去处理可能存在的"剩余没有加锁成功的请求参数"
-                        if (successLock.isEmpty()) {
-                            continue;
+                        if (metrics != null) {
+                            metrics.lockFailure(tier, policy.getKeyWord(), paramCombination.getLockKeys().size() - successLock.size());
+                        }
+                        // 如果successLock为空，则说明所有加锁成功的参数都查到了对应的缓存值
+                        if (!successLock.isEmpty()) {
+                            // 走到这里，说明部分请求参数加锁成功了，并且没有找到对应的缓存结果，则：
+                            // 触发递归，从各级缓存节点中读取缓存值，如果存在找不到缓存值的请求参数，则使用剩余的请求参数值调用业务方法，得到对应结果值
+                            // 并保存解析到的结果值到缓存
+                            Map<String, List<V>> dataGroupByCacheKey = loadAndSaveListData(paramCombination, loader, methodThatGetParamFromData, policy, successLock, result);
+
+                            // 唤醒等待这些key的线程，并从param集中移除加载完成的param
+                            successLock.forEach(lockKey -> {
+                                String cacheKey = paramCombination.getCacheKeyByLockKey(lockKey);
+                                complete(leading, cacheKey, dataGroupByCacheKey.getOrDefault(cacheKey, Collections.emptyList()));
+                                paramCombination.removeByLockKeys(lockKey);
+                            });
+                        }
+                    } finally {
+                        if (!needUnlockKey.isEmpty()) {
+                            cache.removeAll(needUnlockKey);
+                            unlockNotifier.notifyUnlock(needUnlockKey);
                         }
-
-                        // 走到这里，说明部分请求参数加锁成功了，并且没有找到对应的缓存结果，则：
-                        // 触发递归，从各级缓存节点中读取缓存值，如果存在找不到缓存值的请求参数，则使用剩余的请求参数值调用业务方法，得到对应结果值
-                        List<V> loadResult = loadListData(paramCombination, loader, methodThatGetParamFromData, cacheNull, expire, nullExpire, successLock);
-                        result.addAll(loadResult);
-
-                        // 保存解析到的结果值到缓存
-                        saveListData(paramCombination, methodThatGetParamFromData, cacheNull, expire, nullExpire, successLock, loadResult);
-
-                        // 从param集中移除加载完成的param
-                        successLock.forEach(paramCombination::removeByLockKeys);
                     }
-                } finally {
-                    if (!needUnlockKey.isEmpty()) {
-                        cache.removeAll(needUnlockKey);
+                    if (paramCombination.isClear()) {
+                        return;
                     }
-                }
-                try {
-                    TimeUnit.MILLISECONDS.sleep(10);
+                    // 剩余的key被其他节点锁定，等待锁释放后重新读取并加锁
+                    waiter.await();
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
+                if (metrics != null) {
+                    metrics.lockRetry(tier, policy.getKeyWord());
+                }
                 if (count++ > 5) {
                     log.warn("count of load data from cache has bean more than 5 times , total times is :{}", count);
                 }
             }
+        }
 
-            return result;
+        /**
+         * 读取paramCombination中剩余的key，命中的结果放入result，并从paramCombination中移除
+         *
+         * @param stale 不为空时收集命中但已经软过期的参数
+         */
+        private <P> void readCache(ParamCombination<P> paramCombination, Map<String, CompletableFuture<Collection<V>>> leading, List<V> result,
+                                   CachePolicy policy, List<ParamPack<P>> stale) {
+            Set<String> cacheKeys = paramCombination.getCacheKeys();
+            int requested = cacheKeys.size();
+            Map<String, CacheResult<Collection<V>>> cacheData = cache.getAll(cacheKeys);
+            acceptCache(paramCombination, leading, result, policy, stale, cacheData);
+            if (metrics != null) {
+                // 在acceptCache之后统计，解码失败的结果计为未命中
+                int hits = requested - paramCombination.getCacheKeys().size();
+                metrics.hit(tier, policy.getKeyWord(), hits);
+                metrics.miss(tier, policy.getKeyWord(), requested - hits);
+            }
+        }
 
+        private <P> void acceptCache(ParamCombination<P> paramCombination, Map<String, CompletableFuture<Collection<V>>> leading, List<V> result,
+                                     CachePolicy policy, List<ParamPack<P>> stale, Map<String, CacheResult<Collection<V>>> cacheData) {
+            cacheData.forEach((key, cacheResult) -> {
+                if (CacheResults.isHit(cacheResult)) {
+                    Collection<V> data = Optional.of(cacheResult).map(CacheResult::getData).orElse(Collections.emptyList());
+                    ParamPack<P> paramPack = paramCombination.getByCacheKey(key);
+                    paramPack.setExpireAt(cacheResult.getExpireAt());
+                    if (stale != null && isStale(cacheResult, policy)) {
+                        stale.add(paramPack);
+                    }
+                    paramCombination.removeByCacheKeys(key);
+                    result.addAll(data);
+                    complete(leading, key, data);
+                }
+            });
         }
 
-        private <P> List<V> loadListData(ParamCombination<P> paramCombination, Function<Collection<P>, Object> loader, Function<Object, P> methodThatGetParamFromData, boolean cacheNull, Long expire, Long nullExpire, Set<String> successLock) {
+        private <P> Map<String, List<V>> loadAndSaveListData(ParamCombination<P> paramCombination, Function<Collection<P>, Object> loader, Function<Object, P> methodThatGetParamFromData,
+                                                             CachePolicy policy, Set<String> successLock, List<V> result) {
             List<ParamPack<P>> paramPacks = paramCombination.getByLockKey(successLock);
+            if (batchExecutor == null || paramPacks.size() <= batchSize + (batchSize >> 1)) {
+                List<V> loadResult = loadListData(paramCombination, loader, methodThatGetParamFromData, policy, paramPacks);
+                result.addAll(loadResult);
+                return saveListData(paramCombination, methodThatGetParamFromData, policy, paramPacks, loadResult);
+            }
+            // 切分后各分片独立完成读取下一级、加载与写入，分片不会再次切分
+            List<List<ParamPack<P>>> chunks = new ArrayList<>();
+            BatchInvokeUtils.batchInvokeBiConsumer((chunk, all) -> all.add(chunk), paramPacks, chunks, batchSize, batchSize + (batchSize >> 1));
+            List<CompletableFuture<Map<String, List<V>>>> futures = new ArrayList<>(chunks.size());
+            List<List<V>> chunkResults = new ArrayList<>(chunks.size());
+            for (List<ParamPack<P>> chunk : chunks) {
+                List<V> chunkResult = new ArrayList<>();
+                chunkResults.add(chunkResult);
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    chunkResult.addAll(loadListData(paramCombination, loader, methodThatGetParamFromData, policy, chunk));
+                    return saveListData(paramCombination, methodThatGetParamFromData, policy, chunk, chunkResult);
+                }, batchExecutor));
+            }
+            // 等待全部分片结束后再释放锁，有分片失败时抛出第一个失败分片的异常
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException ignored) {
+            }
+            Map<String, List<V>> dataGroupByCacheKey = new HashMap<>();
+            for (int i = 0; i < futures.size(); i++) {
+                dataGroupByCacheKey.putAll(await(futures.get(i)));
+                result.addAll(chunkResults.get(i));
+            }
+            return dataGroupByCacheKey;
+        }
+
+        private <P> List<V> loadListData(ParamCombination<P> paramCombination, Function<Collection<P>, Object> loader, Function<Object, P> methodThatGetParamFromData, CachePolicy policy,
+                                         List<ParamPack<P>> paramPacks) {
             List<V> loadResult;
             // 存在下一个缓存节点，则从下一个缓存节点中继续读取参数对应的缓存值
             if (hasNext()) {
-                loadResult = next.getCacheOrLoadList(new ParamCombination<>(paramPacks, paramCombination.getParamClass()), loader, methodThatGetParamFromData, cacheNull, expire, nullExpire);
+                loadResult = next.getCacheOrLoadList(new ParamCombination<>(paramPacks, paramCombination.getParamClass()), loader, methodThatGetParamFromData, policy);
                 // 没有其他缓存节点了，又有参数没有找到缓存值，则使用剩余参数值执行切面的方法，得到剩余参数的结果值
+            } else if (isNegativeCache(policy)) {
+                loadResult = loadListDataOrSkipAbsent(paramCombination, loader, methodThatGetParamFromData, policy, paramPacks);
             } else {
                 List<P> params = paramPacks.stream()
                         .map(ParamPack::getParam)
                         .collect(Collectors.toList());
-                loadResult = new ArrayList<>((Collection<V>) loader.apply(params));
+                loadResult = new ArrayList<>(asCollection(loader.apply(params)));
+            }
+            return loadResult;
+        }
+
+        /**
+         * 共享过滤器中已记录的key不调用原方法，原方法没有返回数据的key写入过滤器
+         */
+        private <P> List<V> loadListDataOrSkipAbsent(ParamCombination<P> paramCombination, Function<Collection<P>, Object> loader, Function<Object, P> methodThatGetParamFromData,
+                                                     CachePolicy policy, List<ParamPack<P>> paramPacks) {
+            String keyWord = policy.getKeyWord();
+            Set<String> absent = negativeCache.sharedAbsentKeys(keyWord, paramPacks.stream().map(ParamPack::getCacheKey).collect(Collectors.toList()));
+            List<P> params = paramPacks.stream()
+                    .filter(paramPack -> !absent.contains(paramPack.getCacheKey()))
+                    .map(ParamPack::getParam)
+                    .collect(Collectors.toList());
+            if (params.isEmpty()) {
+                return new ArrayList<>();
             }
+            List<V> loadResult = new ArrayList<>(asCollection(loader.apply(params)));
+            Set<String> found = loadResult.stream()
+                    .map(data -> paramCombination.getCacheKeyByParam(methodThatGetParamFromData.apply(data)))
+                    .collect(Collectors.toSet());
+            negativeCache.markAbsent(keyWord, paramPacks.stream()
+                    .map(ParamPack::getCacheKey)
+                    .filter(cacheKey -> !absent.contains(cacheKey) && !found.contains(cacheKey))
+                    .collect(Collectors.toList()));
             return loadResult;
         }
 
-        private <P> void saveListData(ParamCombination<P> paramCombination, Function<Object, P> methodThatGetParamFromData, boolean cacheNull, Long expire, Long nullExpire, Set<String> successLock, List<V> loadResult) {
+        private <P> Map<String, List<V>> saveListData(ParamCombination<P> paramCombination, Function<Object, P> methodThatGetParamFromData, CachePolicy policy, List<ParamPack<P>> paramPacks, List<V> loadResult) {
             Map<String, List<V>> dataGroupByCacheKey = loadResult.stream().collect(Collectors.groupingBy(data -> paramCombination.getCacheKeyByParam(methodThatGetParamFromData.apply(data))));
-            if (cacheNull) {
-                Map<String, List<V>> nullKeyList = successLock.stream()
-                        .map(paramCombination::getCacheKeyByLockKey)
+            if (policy.isCacheNull()) {
+                Map<String, List<V>> nullKeyList = paramPacks.stream()
+                        .map(ParamPack::getCacheKey)
                         .filter(keys -> !dataGroupByCacheKey.containsKey(keys))
                         .filter(Objects::nonNull)
                         .collect(Collectors.toMap(Function.identity(), k -> Collections.emptyList(), (l, r) -> l));
-                cache.putAll(nullKeyList, nullExpire);
+                putAll(nullKeyList, nullExpireOf(policy), policy, true, nextExpireAt(paramPacks));
             }
-            cache.putAll(dataGroupByCacheKey, expire);
+            putAll(dataGroupByCacheKey, expireOf(policy), policy, true, nextExpireAt(paramPacks));
+            return dataGroupByCacheKey;
         }
 
 
         @Override
-        public <P> Collection<V> getCacheOrLoad(P param, Function<P, V> loader, Function<P, String> keyBuilder, boolean cacheNull, Long expire, Long nullExpire) {
+        public <P> Collection<V> getCacheOrLoad(P param, Function<P, V> loader, Function<P, String> keyBuilder, CachePolicy policy) {
             ParamPack<P> paramPack = ParamPack.buildParamPack(param, keyBuilder);
+            if (hotKeys != null) {
+                hotKeys.record(policy.getKeyWord(), paramPack.getCacheKey());
+            }
+            if (isNegativeCache(policy) && negativeCache.isAbsent(policy.getKeyWord(), paramPack.getCacheKey())) {
+                return Collections.emptyList();
+            }
 
-            return getCacheOrLoad(paramPack, loader, cacheNull, expire, nullExpire);
+            return getCacheOrLoad(paramPack, timed(loader, policy), policy);
         }
 
         @Override
@@ -212,53 +517,215 @@ public class LinkCache<V> implements DataCache<V> {
             }
         }
 
-        private <P> Collection<V> getCacheOrLoad(ParamPack<P> paramPack, Function<P, V> loader, boolean cacheNull, Long expire, Long nullExpire) {
-            Collection<V> result = null;
+        private <P> Collection<V> getCacheOrLoad(ParamPack<P> paramPack, Function<P, V> loader, CachePolicy policy) {
+            String cacheKey = paramPack.getCacheKey();
+            CacheResult<Collection<V>> cacheData = cache.get(cacheKey);
+            if (metrics != null) {
+                if (CacheResults.isHit(cacheData)) {
+                    metrics.hit(tier, policy.getKeyWord(), 1);
+                } else {
+                    metrics.miss(tier, policy.getKeyWord(), 1);
+                }
+            }
+            if (CacheResults.isHit(cacheData)) {
+                paramPack.setExpireAt(cacheData.getExpireAt());
+                // 已经软过期的缓存照常返回，同时在后台刷新
+                refreshIfStale(paramPack, loader, policy, cacheData);
+                return cacheData.getData();
+            }
+
+            // 本JVM内已有线程在加载该key，则等待它的结果，不再去竞争锁
+            CompletableFuture<Collection<V>> future = new CompletableFuture<>();
+            CompletableFuture<Collection<V>> inFlight = loading.putIfAbsent(cacheKey, future);
+            if (inFlight != null) {
+                return copyOf(await(inFlight));
+            }
+            try {
+                Collection<V> result = lockAndLoad(paramPack, loader, policy);
+                future.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(cacheKey, future);
+            }
+        }
 
+        private <P> Collection<V> lockAndLoad(ParamPack<P> paramPack, Function<P, V> loader, CachePolicy policy) {
             String cacheKey = paramPack.getCacheKey();
             String lockKey = paramPack.getLockKey();
-            while (result == null) {
-                CacheResult<Collection<V>> cacheData = cache.get(cacheKey);
-                if (cacheData.isSuccess()) {
-                    result = cacheData.getData();
-                    break;
-                }
-                boolean locked = cache.putIfNotExist(lockKey, LOCK_TIME);
-                if (locked) {
-                    try {
-                        cacheData = cache.get(cacheKey);
-                        if (cacheData.isSuccess()) {
-                            return cacheData.getData();
-                        }
-                        if (hasNext()) {
-                            result = next.getCacheOrLoad(paramPack, loader, cacheNull, expire, nullExpire);
-                        } else {
-                            result = loadData(paramPack, loader);
+            int count = 0;
+            while (true) {
+                // 在加锁前开始监听，避免错过加锁失败后其他节点发出的释放通知
+                try (UnlockWaiter waiter = unlockNotifier.listen(Collections.singletonList(lockKey))) {
+                    boolean locked = cache.putIfNotExist(lockKey, LOCK_TIME);
+                    if (!locked && metrics != null) {
+                        metrics.lockFailure(tier, policy.getKeyWord(), 1);
+                    }
+                    if (locked) {
+                        try {
+                            CacheResult<Collection<V>> cacheData = cache.get(cacheKey);
+                            if (CacheResults.isHit(cacheData)) {
+                                paramPack.setExpireAt(cacheData.getExpireAt());
+                                return cacheData.getData();
+                            }
+                            Collection<V> result;
+                            if (hasNext()) {
+                                result = next.getCacheOrLoad(paramPack, loader, policy);
+                            } else if (isNegativeCache(policy)) {
+                                result = loadDataOrSkipAbsent(paramPack, loader, policy);
+                            } else {
+                                result = loadData(paramPack, loader);
+                            }
+                            savaData(policy, result, paramPack);
+                            return result;
+                        } finally {
+                            cache.remove(lockKey);
+                            unlockNotifier.notifyUnlock(Collections.singletonList(lockKey));
                         }
-                        savaData(cacheNull, expire, nullExpire, result, cacheKey);
-                    } finally {
-                        cache.remove(lockKey);
                     }
-                }
-                try {
-                    TimeUnit.MILLISECONDS.sleep(10);
+                    // 锁被其他节点持有，等待锁释放后重新读取
+                    waiter.await();
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
+                if (metrics != null) {
+                    metrics.lockRetry(tier, policy.getKeyWord());
+                }
+                if (count++ > 5) {
+                    log.warn("count of load data from cache has bean more than 5 times , total times is :{}", count);
+                }
+                CacheResult<Collection<V>> cacheData = cache.get(cacheKey);
+                if (CacheResults.isHit(cacheData)) {
+                    paramPack.setExpireAt(cacheData.getExpireAt());
+                    return cacheData.getData();
+                }
             }
-            return result;
         }
 
-        private void savaData(boolean cacheNull, Long expire, Long nullExpire, Collection<V> result, String cacheKey) {
+        private <P> void savaData(CachePolicy policy, Collection<V> result, ParamPack<P> paramPack) {
+            Map<String, Collection<V>> value = Collections.singletonMap(paramPack.getCacheKey(), result);
             if (result.isEmpty()) {
-                if (cacheNull) {
-                    cache.put(cacheKey, result, nullExpire);
+                if (policy.isCacheNull()) {
+                    putAll(value, nullExpireOf(policy), policy, true, nextExpireAt(Collections.singletonList(paramPack)));
                 }
             } else {
-                cache.put(cacheKey, result, expire);
+                putAll(value, expireOf(policy), policy, true, nextExpireAt(Collections.singletonList(paramPack)));
+            }
+        }
+
+        /**
+         * 本级缓存的过期时间，除最后一级以外使用 {@link CachePolicy#getLocalExpire()}
+         */
+        private Long expireOf(CachePolicy policy) {
+            return tierExpire(policy.getExpire(), policy);
+        }
+
+        private Long nullExpireOf(CachePolicy policy) {
+            return tierExpire(policy.getNullExpire(), policy);
+        }
+
+        private Long tierExpire(Long expire, CachePolicy policy) {
+            Long localExpire = policy.getLocalExpire();
+            if (!hasNext() || localExpire == null) {
+                return expire;
+            }
+            return expire == null ? localExpire : Math.min(expire, localExpire);
+        }
+
+        /**
+         * @return 从下一级缓存读取到的参数的硬过期时间点
+         */
+        private <P> Map<String, Long> nextExpireAt(List<ParamPack<P>> paramPacks) {
+            if (!hasNext()) {
+                return Collections.emptyMap();
+            }
+            Map<String, Long> result = new HashMap<>();
+            for (ParamPack<P> paramPack : paramPacks) {
+                if (paramPack.getExpireAt() > 0) {
+                    result.put(paramPack.getCacheKey(), paramPack.getExpireAt());
+                }
+            }
+            return result;
+        }
+
+        /**
+         * 写入本级缓存，过期时间不超过下一级缓存剩余的时间；开启热点key统计且有下一级缓存时，只写入访问次数足够的key，
+         * 热点key使用更长的过期时间；降级期间全部写入并延长过期时间
+         *
+         * @param admission    是否过滤访问次数不足的key，刷新已有的缓存时不过滤，避免旧值留在本级缓存
+         * @param nextExpireAt 从下一级缓存读取到的key的硬过期时间点
+         */
+        private void putAll(Map<String, ? extends Collection<V>> values, Long expire, CachePolicy policy, boolean admission,
+                            Map<String, Long> nextExpireAt) {
+            if (degraded != null && expire != null && degraded.getAsBoolean()) {
+                cache.putAll(values, Math.max(expire, degradedExpire));
+                return;
+            }
+            boolean hot = hotKeys != null && hasNext();
+            if (expire == null || !hot && nextExpireAt.isEmpty()) {
+                cache.putAll(values, expire);
+                return;
+            }
+            String keyWord = policy.getKeyWord();
+            Map<String, Long> keyExpires = new HashMap<>(values.size());
+            values.forEach((cacheKey, value) -> {
+                long keyExpire = expire;
+                if (hot) {
+                    if (admission && !hotKeys.admit(keyWord, cacheKey)) {
+                        return;
+                    }
+                    keyExpire = hotKeys.expireOf(keyWord, cacheKey, keyExpire);
+                }
+                keyExpires.put(cacheKey, keyExpire);
+            });
+            // 热点key延长后的过期时间同样不超过下一级缓存剩余的时间；写入前才取当前时间，
+            // 并预留1毫秒，避免写入时时间已经跨过一毫秒而使本级缓存晚于下一级过期
+            long now = System.currentTimeMillis() + 1;
+            Map<Long, Map<String, Collection<V>>> byExpire = new HashMap<>();
+            for (Map.Entry<String, Long> entry : keyExpires.entrySet()) {
+                long keyExpire = entry.getValue();
+                Long expireAt = nextExpireAt.get(entry.getKey());
+                if (expireAt != null && expireAt > 0) {
+                    keyExpire = Math.min(keyExpire, expireAt - now);
+                }
+                if (keyExpire <= 0) {
+                    continue;
+                }
+                Map<String, Collection<V>> keyValues = byExpire.get(keyExpire);
+                if (keyValues == null) {
+                    keyValues = new HashMap<>();
+                    byExpire.put(keyExpire, keyValues);
+                }
+                keyValues.put(entry.getKey(), values.get(entry.getKey()));
+            }
+            for (Map.Entry<Long, Map<String, Collection<V>>> entry : byExpire.entrySet()) {
+                Map<String, Collection<V>> keyValues = entry.getValue();
+                if (keyValues.size() == 1) {
+                    Map.Entry<String, Collection<V>> keyValue = keyValues.entrySet().iterator().next();
+                    cache.put(keyValue.getKey(), keyValue.getValue(), entry.getKey());
+                } else {
+                    cache.putAll(keyValues, entry.getKey());
+                }
             }
         }
 
+        /**
+         * 共享过滤器中已记录时不调用原方法，原方法没有返回数据时写入过滤器
+         */
+        private <P> Collection<V> loadDataOrSkipAbsent(ParamPack<P> paramPack, Function<P, V> loader, CachePolicy policy) {
+            List<String> cacheKey = Collections.singletonList(paramPack.getCacheKey());
+            if (!negativeCache.sharedAbsentKeys(policy.getKeyWord(), cacheKey).isEmpty()) {
+                return Collections.emptyList();
+            }
+            Collection<V> result = loadData(paramPack, loader);
+            if (result.isEmpty()) {
+                negativeCache.markAbsent(policy.getKeyWord(), cacheKey);
+            }
+            return result;
+        }
+
         private <P> Collection<V> loadData(ParamPack<P> paramPack, Function<P, V> loader) {
             Collection<V> result;
             V data = loader.apply(paramPack.getParam());
@@ -266,7 +733,7 @@ public class LinkCache<V> implements DataCache<V> {
                 result = Collections.emptyList();
             } else {
                 if (data instanceof Collection) {
-                    result = (Collection<V>) data;
+                    result = asCollection(data);
                 } else {
                     result = Collections.singletonList(data);
                 }
@@ -274,106 +741,195 @@ public class LinkCache<V> implements DataCache<V> {
             return result;
         }
 
-    }
-
-    @Data
-    private static class ParamPack<P> {
-
-        private P param;
-
-        private String cacheKey;
-
-        private String lockKey;
-
-
-        private ParamPack() {
-
+        private boolean isStale(CacheResult<Collection<V>> cacheResult, CachePolicy policy) {
+            Collection<V> data = cacheResult.getData();
+            return data != null && !data.isEmpty() && policy.isStale(cacheResult.getExpireAt(), expireOf(policy));
         }
 
-        public static <P> ParamPack<P> buildParamPack(P param, Function<P, String> keyBuilder) {
-            ParamPack<P> pack = new ParamPack<>();
-            pack.param = param;
-            pack.cacheKey = keyBuilder.apply(param);
-            pack.lockKey = buildLockKey(pack.cacheKey);
-            return pack;
-        }
-
-        private static String buildLockKey(String key) {
-            return "$" + key + "$lock";
+        private <P> void refreshIfStale(ParamPack<P> paramPack, Function<P, V> loader, CachePolicy policy, CacheResult<Collection<V>> cacheData) {
+            if (!isStale(cacheData, policy) || !refreshing.add(paramPack.getCacheKey())) {
+                return;
+            }
+            submitRefresh(Collections.singletonList(paramPack.getCacheKey()), () -> reload(paramPack, loader, policy));
         }
-    }
-
-    private static class ParamCombination<P> {
-
-        private final Set<ParamPack<P>> paramPacks;
-
-        private final Map<String, ParamPack<P>> cacheKeyMap;
 
-        private final Map<String, ParamPack<P>> lockKeyMap;
-
-        private final Map<P, ParamPack<P>> paramMap;
-
-        private final Class<? extends Collection> paramClass;
-
-        private final Collector<P, ?, ? extends Collection<P>> paramCollectors;
-
-        private ParamCombination(List<ParamPack<P>> paramPacks, Class<? extends Collection> paramClass) {
-            cacheKeyMap = paramPacks.stream().collect(Collectors.toMap(ParamPack::getCacheKey, Function.identity(), (l, r) -> l));
-            lockKeyMap = paramPacks.stream().collect(Collectors.toMap(ParamPack::getLockKey, Function.identity(), (l, r) -> l));
-            paramMap = paramPacks.stream().collect(Collectors.toMap(ParamPack::getParam, Function.identity(), (l, r) -> l));
-            //
-            this.paramPacks = new HashSet<>(cacheKeyMap.values());
-            this.paramClass = paramClass;
-            if (List.class.isAssignableFrom(paramClass)) {
-                this.paramCollectors = Collectors.toList();
-            } else if (Set.class.isAssignableFrom(paramClass)) {
-                this.paramCollectors = Collectors.toSet();
-            } else {
-                throw new CacheException("not support param type" + paramClass);
+        private <P> void refreshListIfStale(List<ParamPack<P>> stale, Class<?> paramClass, Function<Collection<P>, Object> loader,
+                                            Function<Object, P> methodThatGetParamFromData, CachePolicy policy) {
+            List<ParamPack<P>> paramPacks = stale.stream()
+                    .filter(paramPack -> refreshing.add(paramPack.getCacheKey()))
+                    .collect(Collectors.toList());
+            if (paramPacks.isEmpty()) {
+                return;
             }
+            List<String> cacheKeys = paramPacks.stream().map(ParamPack::getCacheKey).collect(Collectors.toList());
+            submitRefresh(cacheKeys, () -> reloadList(paramPacks, paramClass, loader, methodThatGetParamFromData, policy));
         }
 
-        public Set<String> getLockKeys() {
-            return lockKeyMap.keySet();
+        private void submitRefresh(Collection<String> cacheKeys, Runnable task) {
+            try {
+                REFRESH_EXECUTOR.execute(() -> {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        log.warn("refresh cache fail, keys {}", cacheKeys, e);
+                    } finally {
+                        refreshing.removeAll(cacheKeys);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.removeAll(cacheKeys);
+                if (log.isDebugEnabled()) {
+                    log.debug("refresh queue is full, skip keys {}", cacheKeys);
+                }
+            }
         }
 
-        public Set<String> getCacheKeys() {
-            return cacheKeyMap.keySet();
+        /**
+         * 持有本级的锁时，从下一级缓存读取未过期的数据或调用原方法，刷新本级缓存；
+         * 锁被其他线程或节点持有说明已经在加载或刷新，直接放弃
+         *
+         * @return 刷新后的数据，没有获得锁时返回null
+         */
+        private <P> Collection<V> reload(ParamPack<P> paramPack, Function<P, V> loader, CachePolicy policy) {
+            String cacheKey = paramPack.getCacheKey();
+            String lockKey = paramPack.getLockKey();
+            if (!cache.putIfNotExist(lockKey, LOCK_TIME)) {
+                return null;
+            }
+            try {
+                Collection<V> result;
+                Map<String, Long> nextExpireAt = Collections.emptyMap();
+                if (hasNext()) {
+                    CacheResult<Collection<V>> nextData = next.cache.get(cacheKey);
+                    if (CacheResults.isHit(nextData) && !next.isStale(nextData, policy)) {
+                        result = Optional.ofNullable(nextData.getData()).orElse(Collections.emptyList());
+                        nextExpireAt = Collections.singletonMap(cacheKey, nextData.getExpireAt());
+                    } else {
+                        result = next.reload(paramPack, loader, policy);
+                    }
+                    if (result == null) {
+                        return null;
+                    }
+                } else {
+                    result = loadData(paramPack, loader);
+                }
+                saveReloaded(Collections.singletonMap(cacheKey, result), policy, nextExpireAt);
+                return result;
+            } finally {
+                cache.remove(lockKey);
+                unlockNotifier.notifyUnlock(Collections.singletonList(lockKey));
+            }
         }
 
-        public void removeByCacheKeys(String key) {
-            ParamPack<P> paramPack = cacheKeyMap.remove(key);
-            lockKeyMap.remove(paramPack.getLockKey());
-            paramPacks.remove(paramPack);
+        /**
+         * 批量参数的 {@link #reload}，只刷新本级加锁成功的参数
+         *
+         * @return 刷新后的数据，按cacheKey分组
+         */
+        private <P> Map<String, Collection<V>> reloadList(List<ParamPack<P>> paramPacks, Class<?> paramClass, Function<Collection<P>, Object> loader,
+                                                          Function<Object, P> methodThatGetParamFromData, CachePolicy policy) {
+            ParamCombination<P> paramCombination = new ParamCombination<>(paramPacks, paramClass);
+            Set<String> successLock = cache.putMultiIfNotExist(paramCombination.getLockKeys(), LOCK_TIME);
+            if (successLock.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            try {
+                List<ParamPack<P>> lockedPacks = paramCombination.getByLockKey(successLock);
+                Map<String, Collection<V>> reloaded = new HashMap<>();
+                Map<String, Long> nextExpireAt = new HashMap<>();
+                if (hasNext()) {
+                    Set<String> cacheKeys = lockedPacks.stream().map(ParamPack::getCacheKey).collect(Collectors.toSet());
+                    Map<String, CacheResult<Collection<V>>> nextData = next.cache.getAll(cacheKeys);
+                    List<ParamPack<P>> remaining = new ArrayList<>();
+                    for (ParamPack<P> paramPack : lockedPacks) {
+                        CacheResult<Collection<V>> cacheResult = nextData.get(paramPack.getCacheKey());
+                        if (cacheResult != null && CacheResults.isHit(cacheResult) && !next.isStale(cacheResult, policy)) {
+                            reloaded.put(paramPack.getCacheKey(), Optional.ofNullable(cacheResult.getData()).orElse(Collections.emptyList()));
+                            nextExpireAt.put(paramPack.getCacheKey(), cacheResult.getExpireAt());
+                        } else {
+                            remaining.add(paramPack);
+                        }
+                    }
+                    if (!remaining.isEmpty()) {
+                        reloaded.putAll(next.reloadList(remaining, paramClass, loader, methodThatGetParamFromData, policy));
+                    }
+                } else {
+                    List<P> params = lockedPacks.stream().map(ParamPack::getParam).collect(Collectors.toList());
+                    Collection<V> loadResult = asCollection(loader.apply(params));
+                    for (V data : loadResult) {
+                        reloaded.computeIfAbsent(paramCombination.getCacheKeyByParam(methodThatGetParamFromData.apply(data)), k -> new ArrayList<>())
+                                .add(data);
+                    }
+                    lockedPacks.forEach(paramPack -> reloaded.putIfAbsent(paramPack.getCacheKey(), Collections.emptyList()));
+                }
+                saveReloaded(reloaded, policy, nextExpireAt);
+                return reloaded;
+            } finally {
+                cache.removeAll(successLock);
+                unlockNotifier.notifyUnlock(successLock);
+            }
         }
 
-        public boolean isClear() {
-            return paramPacks.isEmpty();
+        /**
+         * 保存刷新的结果，原方法已经没有数据且不缓存null值时删除旧的缓存
+         *
+         * @param nextExpireAt 直接使用下一级缓存数据的key的硬过期时间点
+         */
+        private void saveReloaded(Map<String, Collection<V>> reloaded, CachePolicy policy, Map<String, Long> nextExpireAt) {
+            Map<String, Collection<V>> data = new HashMap<>();
+            Map<String, Collection<V>> empty = new HashMap<>();
+            reloaded.forEach((cacheKey, value) -> (value.isEmpty() ? empty : data).put(cacheKey, value));
+            if (!data.isEmpty()) {
+                putAll(data, expireOf(policy), policy, false, nextExpireAt);
+            }
+            if (!empty.isEmpty()) {
+                if (policy.isCacheNull()) {
+                    putAll(empty, nullExpireOf(policy), policy, false, nextExpireAt);
+                } else {
+                    cache.removeAll(empty.keySet());
+                }
+            }
         }
 
-        public List<ParamPack<P>> getByLockKey(Set<String> successLock) {
-            return successLock.stream()
-                    .map(lockKeyMap::get)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+        private void complete(Map<String, CompletableFuture<Collection<V>>> leading, String cacheKey, Collection<V> data) {
+            CompletableFuture<Collection<V>> future = leading.get(cacheKey);
+            if (future != null) {
+                future.complete(data);
+            }
         }
 
-        public Class<? extends Collection> getParamClass() {
-            return paramClass;
+        /**
+         * 等待同JVM内其他线程的加载结果，加载失败时抛出与加载线程相同的异常
+         */
+        private static <T> T await(CompletableFuture<T> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new CacheException("load data fail", cause);
+            }
         }
 
-        public String getCacheKeyByLockKey(String lockKey) {
-            return lockKeyMap.get(lockKey).getCacheKey();
+        /**
+         * 其他线程加载的结果会同时返回给多个调用方，复制一份避免调用方之间互相修改
+         */
+        private static <T> T copyOf(T data) {
+            return KryoUtil.copy(data);
         }
 
-        public String getCacheKeyByParam(P param) {
-            return paramMap.get(param).getCacheKey();
+        /**
+         * 原方法返回的集合，元素类型与缓存的数据类型相同
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> Collection<T> asCollection(Object data) {
+            return (Collection<T>) data;
         }
 
-        public void removeByLockKeys(String lockKey) {
-            ParamPack<P> paramPack = lockKeyMap.remove(lockKey);
-            cacheKeyMap.remove(paramPack.getCacheKey());
-            paramPacks.remove(paramPack);
-        }
     }
 }
@@ -52,4 +52,14 @@ public class NoCache<V> implements Cache<V> {
     public void removeAll(Set<String> keys) {
 
     }
+
+    @Override
+    public void clear() {
+
+    }
+
+    @Override
+    public boolean supportClear() {
+        return true;
+    }
 }
@@ -0,0 +1,532 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.lock.LocalUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
+import com.server.base.cache.util.CacheHolders;
+import com.server.base.cache.util.CacheResults;
+import com.server.base.cache.util.TimingWheel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 堆外本地缓存，{@link ValueConverter} 编码后的数据存放在直接内存中，堆上只保留索引，本地缓存很大时不会给 GC 带来压力
+ * <p>
+ * 内存按 slab 管理：直接内存按页申请，每页只切分成一种大小的块（块大小按 1.25 倍递增），
+ * 数据写入能容纳它的最小的块；每种块大小各自维护一条 LRU 链，读取只设置访问标记，
+ * 淘汰时给被访问过的条目第二次机会（CLOCK），因此读路径只需要读锁
+ * <p>
+ * 内存用完后某种块大小还没有分到页时，从占用页最多的块大小回收一页（清除该页上的条目）给它使用；超过一页大小的数据不会被缓存
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class OffHeapCache<V> implements Cache<V> {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private static final int DEFAULT_PAGE_SIZE = 1 << 20;
+
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private final ValueConverter<V> converter;
+
+    private final List<Segment> segments;
+
+    private final int[] chunkSizes;
+
+    private final TimingWheel timingWheel = TimingWheel.shared();
+
+    private final UnlockNotifier unlockNotifier = new LocalUnlockNotifier();
+
+    /**
+     * @param capacity 直接内存的总容量（字节）
+     */
+    public OffHeapCache(ValueConverter<V> converter, long capacity) {
+        this(converter, capacity, DEFAULT_SEGMENTS, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param capacity 直接内存的总容量（字节）
+     * @param segments 分段数，必须是2的幂，每段一把读写锁，容量平分
+     * @param pageSize 每次申请的直接内存大小，同时也是能缓存的最大数据
+     */
+    public OffHeapCache(ValueConverter<V> converter, long capacity, int segments, int pageSize) {
+        if (Integer.bitCount(segments) != 1) {
+            throw new IllegalArgumentException("segments must be a power of two");
+        }
+        if (pageSize < MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("pageSize must be at least " + MIN_CHUNK_SIZE);
+        }
+        this.converter = converter;
+        this.chunkSizes = chunkSizes(pageSize);
+        int maxPages = (int) Math.max(1, capacity / segments / pageSize);
+        this.segments = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+            this.segments.add(new Segment(pageSize, maxPages));
+        }
+    }
+
+    @Override
+    public CacheResult<V> get(String key) {
+        return segmentFor(key).get(key);
+    }
+
+    @Override
+    public Map<String, CacheResult<V>> getAll(Set<String> keys) {
+        HashMap<String, CacheResult<V>> result = new HashMap<>(keys.size());
+        keys.forEach(k -> result.put(k, get(k)));
+        return result;
+    }
+
+    @Override
+    public void put(String key, V value, Long expire) {
+        byte[] bytes = converter.encode(CacheHolders.expireAfter(value, expire));
+        Segment segment = segmentFor(key);
+        Slot slot = segment.put(key, bytes, expire);
+        if (slot != null) {
+            scheduleExpire(segment, slot, expire);
+        }
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends V> values, Long expire) {
+        values.forEach((k, v) -> put(k, v, expire));
+    }
+
+    @Override
+    public boolean putIfNotExist(String key, Long expire) {
+        Segment segment = segmentFor(key);
+        Slot slot = segment.putIfNotExist(key, expire);
+        if (slot == null) {
+            return false;
+        }
+        scheduleExpire(segment, slot, expire);
+        return true;
+    }
+
+    @Override
+    public Set<String> putMultiIfNotExist(Set<String> keys, Long expire) {
+        return keys.stream().filter(key -> putIfNotExist(key, expire)).collect(Collectors.toSet());
+    }
+
+    @Override
+    public boolean remove(String key) {
+        segmentFor(key).remove(key, null);
+        return true;
+    }
+
+    @Override
+    public void removeAll(Set<String> keys) {
+        keys.forEach(this::remove);
+    }
+
+    @Override
+    public boolean supportClear() {
+        return true;
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return unlockNotifier;
+    }
+
+    /**
+     * 当前已申请的直接内存（字节）
+     */
+    public long allocatedBytes() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.allocatedBytes();
+        }
+        return total;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public void close() {
+        clear();
+    }
+
+    private Segment segmentFor(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments.get(h & (segments.size() - 1));
+    }
+
+    private void scheduleExpire(Segment segment, Slot slot, long expire) {
+        slot.setTimeout(timingWheel.schedule(expire, TimeUnit.MILLISECONDS, () -> {
+            if (log.isDebugEnabled()) {
+                log.debug("delete key {} expireTime {}", slot.key, expire);
+            }
+            segment.remove(slot.key, slot);
+        }));
+    }
+
+    private static int[] chunkSizes(int pageSize) {
+        List<Integer> sizes = new ArrayList<>();
+        int size = MIN_CHUNK_SIZE;
+        while (size < pageSize) {
+            sizes.add(size);
+            size = Math.max(size + 8, ((int) (size * GROWTH_FACTOR) + 7) & ~7);
+        }
+        sizes.add(pageSize);
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int slabClassOf(int length) {
+        int index = Arrays.binarySearch(chunkSizes, length);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private class Segment {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final HashMap<String, Slot> index = new HashMap<>();
+
+        private final List<ByteBuffer> pages = new ArrayList<>();
+
+        private final SlabClass[] slabClasses = new SlabClass[chunkSizes.length];
+
+        private final int pageSize;
+
+        private final int maxPages;
+
+        private Segment(int pageSize, int maxPages) {
+            this.pageSize = pageSize;
+            this.maxPages = maxPages;
+            for (int i = 0; i < chunkSizes.length; i++) {
+                slabClasses[i] = new SlabClass(chunkSizes[i]);
+            }
+        }
+
+        private CacheResult<V> get(String key) {
+            Slot slot;
+            lock.readLock().lock();
+            try {
+                slot = index.get(key);
+                if (slot == null || slot.isMarker()) {
+                    return CacheResults.fail();
+                }
+                if (!slot.isExpired()) {
+                    slot.accessed = true;
+                    // 必须在读锁内解码，释放读锁后块可能被复用
+                    ByteBuffer buffer = pages.get(slot.page).duplicate();
+                    buffer.limit(slot.offset + slot.length).position(slot.offset);
+                    try {
+                        return warp(converter.decode(buffer));
+                    } catch (ConvertException convertException) {
+                        return CacheResults.fail();
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            remove(key, slot);
+            return CacheResults.fail();
+        }
+
+        private Slot put(String key, byte[] bytes, long expire) {
+            lock.writeLock().lock();
+            try {
+                Slot exist = index.remove(key);
+                if (exist != null) {
+                    release(exist);
+                }
+                if (bytes.length > pageSize) {
+                    return null;
+                }
+                SlabClass slabClass = slabClasses[slabClassOf(bytes.length)];
+                long chunk = allocate(slabClass);
+                if (chunk < 0) {
+                    return null;
+                }
+                Slot slot = new Slot(key, slabClass, (int) (chunk >>> 32), (int) chunk, bytes.length, expire);
+                ByteBuffer buffer = pages.get(slot.page).duplicate();
+                buffer.position(slot.offset);
+                buffer.put(bytes);
+                slabClass.link(slot);
+                index.put(key, slot);
+                return slot;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private Slot putIfNotExist(String key, long expire) {
+            lock.writeLock().lock();
+            try {
+                Slot exist = index.get(key);
+                if (exist != null) {
+                    // 已过期但还没有被删除的条目视为不存在
+                    if (!exist.isExpired()) {
+                        return null;
+                    }
+                    index.remove(key);
+                    release(exist);
+                }
+                Slot marker = new Slot(key, null, -1, -1, 0, expire);
+                index.put(key, marker);
+                return marker;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * @param expected 不为空时只有当前条目是它才删除
+         */
+        private void remove(String key, Slot expected) {
+            lock.writeLock().lock();
+            try {
+                Slot exist = index.get(key);
+                if (exist == null || (expected != null && exist != expected)) {
+                    return;
+                }
+                index.remove(key);
+                release(exist);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private long allocate(SlabClass slabClass) {
+            if (slabClass.freeSize == 0) {
+                if (pages.size() < maxPages) {
+                    pages.add(ByteBuffer.allocateDirect(pageSize));
+                    carve(pages.size() - 1, slabClass);
+                } else if (slabClass.tail == null) {
+                    reassign(slabClass);
+                }
+            }
+            while (slabClass.freeSize == 0) {
+                Slot victim = slabClass.tail;
+                if (victim == null) {
+                    return -1;
+                }
+                if (victim.accessed) {
+                    victim.accessed = false;
+                    slabClass.unlink(victim);
+                    slabClass.link(victim);
+                    continue;
+                }
+                index.remove(victim.key);
+                release(victim);
+            }
+            return slabClass.freeChunks[--slabClass.freeSize];
+        }
+
+        private void carve(int page, SlabClass slabClass) {
+            slabClass.pages++;
+            for (int offset = pageSize / slabClass.chunkSize * slabClass.chunkSize - slabClass.chunkSize;
+                 offset >= 0; offset -= slabClass.chunkSize) {
+                slabClass.free(((long) page << 32) | offset);
+            }
+        }
+
+        /**
+         * 从占用页最多的块大小中回收一页：清除该页上的条目，移除该页的空闲块，再切分给 target
+         */
+        private void reassign(SlabClass target) {
+            SlabClass victim = null;
+            for (SlabClass slabClass : slabClasses) {
+                if (slabClass != target && slabClass.pages > 0 && (victim == null || slabClass.pages > victim.pages)) {
+                    victim = slabClass;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            int page = victim.tail != null ? victim.tail.page : (int) (victim.freeChunks[0] >>> 32);
+            for (Slot slot = victim.head; slot != null; ) {
+                Slot next = slot.next;
+                if (slot.page == page) {
+                    index.remove(slot.key);
+                    release(slot);
+                }
+                slot = next;
+            }
+            int size = 0;
+            for (int i = 0; i < victim.freeSize; i++) {
+                if ((int) (victim.freeChunks[i] >>> 32) != page) {
+                    victim.freeChunks[size++] = victim.freeChunks[i];
+                }
+            }
+            victim.freeSize = size;
+            victim.pages--;
+            carve(page, target);
+        }
+
+        private void release(Slot slot) {
+            slot.cancelExpire();
+            SlabClass slabClass = slot.slabClass;
+            if (slabClass != null) {
+                slabClass.unlink(slot);
+                slabClass.free(((long) slot.page << 32) | slot.offset);
+            }
+        }
+
+        private long allocatedBytes() {
+            lock.readLock().lock();
+            try {
+                return (long) pages.size() * pageSize;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void clear() {
+            lock.writeLock().lock();
+            try {
+                index.values().forEach(Slot::cancelExpire);
+                index.clear();
+                pages.clear();
+                for (int i = 0; i < chunkSizes.length; i++) {
+                    slabClasses[i] = new SlabClass(chunkSizes[i]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * 同一大小的块：空闲块栈（页号在高32位，页内偏移在低32位）与已使用块的 LRU 链，均由段的写锁保护
+     */
+    private static class SlabClass {
+
+        private final int chunkSize;
+
+        /**
+         * 分配给该块大小的页数
+         */
+        private int pages;
+
+        private long[] freeChunks = new long[16];
+
+        private int freeSize;
+
+        private Slot head;
+
+        private Slot tail;
+
+        private SlabClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        private void free(long chunk) {
+            if (freeSize == freeChunks.length) {
+                freeChunks = Arrays.copyOf(freeChunks, freeSize << 1);
+            }
+            freeChunks[freeSize++] = chunk;
+        }
+
+        private void link(Slot slot) {
+            slot.prev = null;
+            slot.next = head;
+            if (head != null) {
+                head.prev = slot;
+            }
+            head = slot;
+            if (tail == null) {
+                tail = slot;
+            }
+        }
+
+        private void unlink(Slot slot) {
+            if (slot.prev != null) {
+                slot.prev.next = slot.next;
+            } else {
+                head = slot.next;
+            }
+            if (slot.next != null) {
+                slot.next.prev = slot.prev;
+            } else {
+                tail = slot.prev;
+            }
+            slot.prev = null;
+            slot.next = null;
+        }
+    }
+
+    /**
+     * 堆上的索引条目，记录数据在直接内存中的位置；putIfNotExist 写入的锁标记不占用直接内存
+     */
+    private static class Slot {
+
+        private final String key;
+
+        private final SlabClass slabClass;
+
+        private final int page;
+
+        private final int offset;
+
+        private final int length;
+
+        private final long deadline;
+
+        private volatile boolean accessed;
+
+        private Slot prev;
+
+        private Slot next;
+
+        private volatile TimingWheel.Timeout timeout;
+
+        private volatile boolean removed;
+
+        private Slot(String key, SlabClass slabClass, int page, int offset, int length, long expire) {
+            this.key = key;
+            this.slabClass = slabClass;
+            this.page = page;
+            this.offset = offset;
+            this.length = length;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(expire);
+        }
+
+        private boolean isMarker() {
+            return slabClass == null;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - deadline >= 0;
+        }
+
+        private void setTimeout(TimingWheel.Timeout timeout) {
+            this.timeout = timeout;
+            if (removed) {
+                timeout.cancel();
+            }
+        }
+
+        private void cancelExpire() {
+            removed = true;
+            TimingWheel.Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.exception.CacheException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * 批量请求参数中尚未找到缓存值的部分，命中或加载完成的参数会被移除
+ *
+ * @author hanlipeng
+ * @date 2021/3/13
+ */
+class ParamCombination<P> {
+
+    private final Set<ParamPack<P>> paramPacks;
+
+    private final Map<String, ParamPack<P>> cacheKeyMap;
+
+    private final Map<String, ParamPack<P>> lockKeyMap;
+
+    private final Map<P, ParamPack<P>> paramMap;
+
+    private final Class<?> paramClass;
+
+    private final Collector<P, ?, ? extends Collection<P>> paramCollectors;
+
+    ParamCombination(List<ParamPack<P>> paramPacks, Class<?> paramClass) {
+        // 保持参数的顺序，分批加载时按原顺序切分
+        cacheKeyMap = paramPacks.stream().collect(Collectors.toMap(ParamPack::getCacheKey, Function.identity(), (l, r) -> l, LinkedHashMap::new));
+        lockKeyMap = paramPacks.stream().collect(Collectors.toMap(ParamPack::getLockKey, Function.identity(), (l, r) -> l, LinkedHashMap::new));
+        paramMap = paramPacks.stream().collect(Collectors.toMap(ParamPack::getParam, Function.identity(), (l, r) -> l));
+        //
+        this.paramPacks = new HashSet<>(cacheKeyMap.values());
+        this.paramClass = paramClass;
+        if (List.class.isAssignableFrom(paramClass)) {
+            this.paramCollectors = Collectors.toList();
+        } else if (Set.class.isAssignableFrom(paramClass)) {
+            this.paramCollectors = Collectors.toSet();
+        } else {
+            throw new CacheException("not support param type" + paramClass);
+        }
+    }
+
+    public Set<String> getLockKeys() {
+        return lockKeyMap.keySet();
+    }
+
+    public Set<String> getCacheKeys() {
+        return cacheKeyMap.keySet();
+    }
+
+    /**
+     * @return 剩余参数的 cacheKey 与对应的 lockKey
+     */
+    public Map<String, String> getLockKeyByCacheKey() {
+        Map<String, String> lockKeys = new LinkedHashMap<>(cacheKeyMap.size());
+        cacheKeyMap.forEach((cacheKey, paramPack) -> lockKeys.put(cacheKey, paramPack.getLockKey()));
+        return lockKeys;
+    }
+
+    public ParamPack<P> getByCacheKey(String key) {
+        return cacheKeyMap.get(key);
+    }
+
+    public void removeByCacheKeys(String key) {
+        ParamPack<P> paramPack = cacheKeyMap.remove(key);
+        lockKeyMap.remove(paramPack.getLockKey());
+        paramPacks.remove(paramPack);
+    }
+
+    public boolean isClear() {
+        return paramPacks.isEmpty();
+    }
+
+    /**
+     * @return successLock 对应的参数，按参数的原顺序排列
+     */
+    public List<ParamPack<P>> getByLockKey(Set<String> successLock) {
+        return lockKeyMap.values().stream()
+                .filter(paramPack -> successLock.contains(paramPack.getLockKey()))
+                .collect(Collectors.toList());
+    }
+
+    public Class<?> getParamClass() {
+        return paramClass;
+    }
+
+    public String getCacheKeyByLockKey(String lockKey) {
+        return lockKeyMap.get(lockKey).getCacheKey();
+    }
+
+    public String getCacheKeyByParam(P param) {
+        return paramMap.get(param).getCacheKey();
+    }
+
+    public void removeByLockKeys(String lockKey) {
+        ParamPack<P> paramPack = lockKeyMap.remove(lockKey);
+        cacheKeyMap.remove(paramPack.getCacheKey());
+        paramPacks.remove(paramPack);
+    }
+}
@@ -0,0 +1,45 @@
+package com.server.base.cache.container;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.function.Function;
+
+/**
+ * 一个请求参数及其对应的缓存key与加载锁key
+ *
+ * @author hanlipeng
+ * @date 2021/3/13
+ */
+@Data
+class ParamPack<P> {
+
+    private P param;
+
+    private String cacheKey;
+
+    private String lockKey;
+
+    /**
+     * 读取到的缓存的硬过期时间点，上一级缓存写入时不超过它，0表示没有读取到；
+     * 读取时才会修改，不参与 equals/hashCode，避免 {@link ParamCombination} 中的 HashSet 找不到它
+     */
+    @EqualsAndHashCode.Exclude
+    private long expireAt;
+
+    private ParamPack() {
+
+    }
+
+    public static <P> ParamPack<P> buildParamPack(P param, Function<P, String> keyBuilder) {
+        ParamPack<P> pack = new ParamPack<>();
+        pack.param = param;
+        pack.cacheKey = keyBuilder.apply(param);
+        pack.lockKey = buildLockKey(pack.cacheKey);
+        return pack;
+    }
+
+    private static String buildLockKey(String key) {
+        return "$" + key + "$lock";
+    }
+}
@@ -1,6 +1,8 @@
 package com.server.base.cache.container;
 
 import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.lock.UnlockNotifier;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
@@ -49,6 +51,11 @@ public class RandomExpireCache<V> implements Cache<V> {
         return cache.putMultiIfNotExist(keys, randomExpire(expire));
     }
 
+    @Override
+    public GetOrLockResult<V> getAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        return cache.getAllOrLock(lockKeys, randomExpire(lockExpire));
+    }
+
     @Override
     public boolean remove(String key) {
         return cache.remove(key);
@@ -59,6 +66,21 @@ public class RandomExpireCache<V> implements Cache<V> {
         cache.removeAll(keys);
     }
 
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public boolean supportClear() {
+        return cache.supportClear();
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return cache.unlockNotifier();
+    }
+
     private Long randomExpire(Long time) {
         long result = (long) (time * (1 + random.nextDouble()));
         return result;
@@ -2,28 +2,49 @@ package com.server.base.cache.container;
 
 import com.server.base.cache.converter.ValueConverter;
 import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.entity.LazyCacheResult;
 import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.lock.PollingUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
 import com.server.base.cache.util.BatchInvokeUtils;
+import com.server.base.cache.util.BatchLoadExecutors;
 import com.server.base.cache.util.CacheHolders;
 import com.server.base.cache.util.CacheResults;
+import com.server.base.cache.util.ClusterSlots;
+import com.server.base.cache.util.CompletableFutures;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author hanlipeng
@@ -34,28 +55,92 @@ public class RedisCache<V> implements Cache<V> {
     /** 如果触发了mget的分批查询，则此值作为单次查询的最小元素个数 */
     private static final int mGetMinSize = 500;
     private static final int mGetMaxSize = 1000;
+    /** 并行解码时每个任务解码的元素个数 */
+    private static final int decodeChunkSize = 256;
+
+    private static final RedisSerializer<byte[]> BYTES = new RedisSerializer<byte[]>() {
+        @Override
+        public byte[] serialize(byte[] bytes) throws SerializationException {
+            return bytes;
+        }
+
+        @Override
+        public byte[] deserialize(byte[] bytes) throws SerializationException {
+            return bytes;
+        }
+    };
+
+    /**
+     * KEYS 为 n 个缓存key与对应的 n 个锁key，ARGV 为锁的过期毫秒数与锁的值；
+     * 命中时返回值，未命中时加锁成功返回1，失败返回0
+     */
+    private static final RedisScript<List<Object>> GET_OR_LOCK_SCRIPT = listScript(
+            "local n = #KEYS / 2\n"
+                    + "local result = {}\n"
+                    + "for i = 1, n do\n"
+                    + "  local value = redis.call('GET', KEYS[i])\n"
+                    + "  if value then\n"
+                    + "    result[i] = value\n"
+                    + "  elseif redis.call('SET', KEYS[n + i], ARGV[2], 'NX', 'PX', ARGV[1]) then\n"
+                    + "    result[i] = 1\n"
+                    + "  else\n"
+                    + "    result[i] = 0\n"
+                    + "  end\n"
+                    + "end\n"
+                    + "return result");
 
     private final RedisTemplate<String, byte[]> cache;
 
     private final ValueConverter<V> converter;
 
+    private UnlockNotifier unlockNotifier = PollingUnlockNotifier.INSTANCE;
+
+    private boolean lazyDecode;
+
+    private Executor decodeExecutor;
+
+    private int parallelDecodeThreshold = 2000;
+
+    /**
+     * 是否为 Redis Cluster，是时批量操作按 slot 与节点分组执行
+     */
+    private boolean cluster;
+
+    private Executor clusterExecutor;
+
+    /**
+     * 集群连接是否支持 pipeline，Jedis 的集群连接不支持，第一次失败后改为逐条执行
+     */
+    private volatile boolean clusterPipeline = true;
+
     public RedisCache(RedisConnectionFactory redisConnectionFactory, ValueConverter<V> converter) {
         this.cache = new RedisTemplate<>();
         cache.setConnectionFactory(redisConnectionFactory);
         this.converter = converter;
-        cache.setValueSerializer(new RedisSerializer<byte[]>() {
-            @Override
-            public byte[] serialize(byte[] bytes) throws SerializationException {
-                return bytes;
-            }
-
-            @Override
-            public byte[] deserialize(byte[] bytes) throws SerializationException {
-                return bytes;
-            }
-        });
+        cache.setValueSerializer(BYTES);
         cache.setKeySerializer(new StringRedisSerializer());
         cache.afterPropertiesSet();
+        this.cluster = isClusterAware(redisConnectionFactory);
+    }
+
+    /**
+     * Lettuce 与 Jedis 的连接工厂都有 isRedisClusterAware 方法，但不在 RedisConnectionFactory 接口中
+     */
+    private static boolean isClusterAware(RedisConnectionFactory redisConnectionFactory) {
+        try {
+            Method method = redisConnectionFactory.getClass().getMethod("isRedisClusterAware");
+            return Boolean.TRUE.equals(method.invoke(redisConnectionFactory));
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 返回多个值的脚本，Spring Data Redis 只接受 List.class 作为结果类型
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static RedisScript<List<Object>> listScript(String script) {
+        return (RedisScript) RedisScript.of(script, List.class);
     }
 
     @Override
@@ -76,12 +161,16 @@ public class RedisCache<V> implements Cache<V> {
     public Map<String, CacheResult<V>> getAll(Set<String> keys) {
         int keySize = keys.size();
         HashMap<String, CacheResult<V>> resultMap = new HashMap<>(keySize);
+        // 数量较多时先只保存原始字节，全部读取后再并行解码
+        boolean parallelDecode = !lazyDecode && decodeExecutor != null && keySize >= parallelDecodeThreshold;
 
-        if (keySize > mGetMaxSize + (mGetMaxSize >> 1) ) {
+        if (cluster) {
+            clusterMultiGet(keys, resultMap, parallelDecode);
+        } else if (keySize > mGetMaxSize + (mGetMaxSize >> 1) ) {
             if (log.isDebugEnabled()) {
                 log.debug("调用Redis的mget命令时key的数量过多（共{}个），已优化为分批查", keySize);
             }
-            BatchInvokeUtils.batchInvokeBiConsumer(this::multiGetCacheResultToMap,
+            BatchInvokeUtils.batchInvokeBiConsumer((subKeys, map) -> multiGetCacheResultToMap(subKeys, map, parallelDecode),
                     new ArrayList<>(keys), resultMap, mGetMaxSize, mGetMaxSize + (mGetMaxSize >> 1));
 
             // List<String> keyList = new ArrayList<>(keys);
@@ -98,42 +187,149 @@ public class RedisCache<V> implements Cache<V> {
             //     }
             // }
         } else {
-            multiGetCacheResultToMap(keys, resultMap);
+            multiGetCacheResultToMap(keys, resultMap, parallelDecode);
+        }
+        if (parallelDecode) {
+            LazyCacheResult.decodeAll(resultMap.values(), decodeExecutor, decodeChunkSize);
         }
         return resultMap;
     }
 
-    private void multiGetCacheResultToMap(Collection<String> keys, HashMap<String, CacheResult<V>> result) {
+    private void multiGetCacheResultToMap(Collection<String> keys, HashMap<String, CacheResult<V>> result, boolean deferDecode) {
         List<byte[]> values = cache.opsForValue().multiGet(keys);
         Iterator<String> keyIterator = keys.iterator();
         Iterator<byte[]> valueIterator = values.iterator();
         while (keyIterator.hasNext() && valueIterator.hasNext()) {
-            byte[] value = valueIterator.next();
-            CacheResult<V> cacheResult;
-            if (value == null) {
-                cacheResult = CacheResults.fail();
+            result.put(keyIterator.next(), toCacheResult(valueIterator.next(), deferDecode));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void clusterMultiGet(Collection<String> keys, HashMap<String, CacheResult<V>> result, boolean deferDecode) {
+        List<Map<String, CacheResult<V>>> nodeResults = invokeByNode(keys, groups -> {
+            List<Object> replies = pipelineOnNode(groups,
+                    (connection, group) -> connection.mGet(rawKeys(group)),
+                    group -> Collections.singletonList(cache.opsForValue().multiGet(group)));
+            Map<String, CacheResult<V>> nodeResult = new HashMap<>();
+            for (int i = 0; i < groups.size(); i++) {
+                Iterator<String> keyIterator = groups.get(i).iterator();
+                Iterator<byte[]> valueIterator = ((List<byte[]>) replies.get(i)).iterator();
+                while (keyIterator.hasNext() && valueIterator.hasNext()) {
+                    nodeResult.put(keyIterator.next(), toCacheResult(valueIterator.next(), deferDecode));
+                }
+            }
+            return nodeResult;
+        });
+        nodeResults.forEach(result::putAll);
+    }
+
+    private CacheResult<V> toCacheResult(byte[] value, boolean deferDecode) {
+        if (value == null) {
+            return CacheResults.fail();
+        }
+        if (lazyDecode || deferDecode) {
+            return new LazyCacheResult<>(value, converter);
+        }
+        try {
+            return warp(converter.decode(value));
+        } catch (ConvertException e) {
+            log.error("Redis value decode fail", e);
+            return CacheResults.fail();
+        }
+    }
+
+    /**
+     * 通过脚本在一次请求中读取并为未命中的key加锁，key较多时分批执行；
+     * 集群模式下脚本只能用于缓存key与锁key在同一 slot 的情况（如 {@link com.server.base.cache.annotation.Cached#hashTag()}），
+     * 其余的key使用默认实现
+     */
+    @Override
+    public GetOrLockResult<V> getAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        if (cluster) {
+            return clusterGetAllOrLock(lockKeys, lockExpire);
+        }
+        HashMap<String, CacheResult<V>> values = new HashMap<>(lockKeys.size());
+        Set<String> locked = new HashSet<>();
+        byte[] lockValue = lockValue();
+        BatchInvokeUtils.batchInvokeBiConsumer((cacheKeys, map) -> getOrLock(cacheKeys, lockKeys, lockExpire, lockValue, map, locked),
+                new ArrayList<>(lockKeys.keySet()), values, mGetMaxSize, mGetMaxSize + (mGetMaxSize >> 1));
+        GetOrLockResult<V> result = new GetOrLockResult<>();
+        result.setValues(values);
+        result.setLocked(locked);
+        return result;
+    }
+
+    private GetOrLockResult<V> clusterGetAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        Map<String, String> sameSlot = new HashMap<>();
+        Map<String, String> crossSlot = new HashMap<>();
+        lockKeys.forEach((cacheKey, lockKey) ->
+                (ClusterSlots.slot(cacheKey) == ClusterSlots.slot(lockKey) ? sameSlot : crossSlot).put(cacheKey, lockKey));
+        GetOrLockResult<V> result = new GetOrLockResult<>();
+        result.setValues(new HashMap<>(lockKeys.size()));
+        result.setLocked(new HashSet<>());
+        if (!sameSlot.isEmpty()) {
+            byte[] lockValue = lockValue();
+            List<GetOrLockResult<V>> nodeResults = invokeByNode(sameSlot.keySet(), groups -> {
+                GetOrLockResult<V> nodeResult = new GetOrLockResult<>();
+                nodeResult.setValues(new HashMap<>());
+                nodeResult.setLocked(new HashSet<>());
+                groups.forEach(group -> getOrLock(group, sameSlot, lockExpire, lockValue, nodeResult.getValues(), nodeResult.getLocked()));
+                return nodeResult;
+            });
+            nodeResults.forEach(nodeResult -> {
+                result.getValues().putAll(nodeResult.getValues());
+                result.getLocked().addAll(nodeResult.getLocked());
+            });
+        }
+        if (!crossSlot.isEmpty()) {
+            GetOrLockResult<V> crossResult = Cache.super.getAllOrLock(crossSlot, lockExpire);
+            result.getValues().putAll(crossResult.getValues());
+            result.getLocked().addAll(crossResult.getLocked());
+        }
+        return result;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void getOrLock(List<String> cacheKeys, Map<String, String> lockKeys, Long lockExpire, byte[] lockValue,
+                           Map<String, CacheResult<V>> values, Set<String> locked) {
+        List<String> keys = new ArrayList<>(cacheKeys.size() * 2);
+        keys.addAll(cacheKeys);
+        cacheKeys.forEach(cacheKey -> keys.add(lockKeys.get(cacheKey)));
+        List<Object> replies = cache.execute(GET_OR_LOCK_SCRIPT, BYTES, (RedisSerializer) BYTES, keys,
+                String.valueOf(lockExpire).getBytes(StandardCharsets.UTF_8), lockValue);
+        for (int i = 0; i < cacheKeys.size(); i++) {
+            String cacheKey = cacheKeys.get(i);
+            Object reply = replies.get(i);
+            if (reply instanceof byte[]) {
+                values.put(cacheKey, toCacheResult((byte[]) reply, false));
             } else {
-                try {
-                    cacheResult = warp(converter.decode(value));
-                } catch (ConvertException e) {
-                    log.error("Redis value decode fail", e);
-                    cacheResult = CacheResults.fail();
+                values.put(cacheKey, CacheResults.fail());
+                if (Long.valueOf(1L).equals(reply)) {
+                    locked.add(lockKeys.get(cacheKey));
                 }
             }
-            result.put(keyIterator.next(), cacheResult);
         }
     }
 
     @Override
     public void put(String key, V value, Long expire) {
-        cache.opsForValue().set(key, converter.encode(CacheHolders.init(value, expire)), Duration.ofMillis(expire));
+        cache.opsForValue().set(key, converter.encode(CacheHolders.expireAfter(value, expire)), Duration.ofMillis(expire));
     }
 
     @Override
     public void putAll(Map<String, ? extends V> values, Long expire) {
         HashMap<String, byte[]> convertMap = new HashMap<>(values.size());
         StringRedisSerializer keySerializer = (StringRedisSerializer) cache.getKeySerializer();
-        values.forEach((k, v) -> convertMap.put(k, converter.encode(CacheHolders.init(v, expire))));
+        values.forEach((k, v) -> convertMap.put(k, converter.encode(CacheHolders.expireAfter(v, expire))));
+        if (cluster) {
+            invokeByNode(convertMap.keySet(), groups -> pipelineOnNode(groups,
+                    (connection, group) -> group.forEach(k -> connection.pSetEx(keySerializer.serialize(k), expire, convertMap.get(k))),
+                    group -> {
+                        group.forEach(k -> cache.opsForValue().set(k, convertMap.get(k), Duration.ofMillis(expire)));
+                        return Collections.emptyList();
+                    }));
+            return;
+        }
         cache.executePipelined((RedisCallback<Object>) conn -> {
             convertMap.forEach((k, v) -> conn.pSetEx(keySerializer.serialize(k), expire, v));
             return null;
@@ -142,24 +338,43 @@ public class RedisCache<V> implements Cache<V> {
 
     @Override
     public boolean putIfNotExist(String key, Long expire) {
-        byte[] randomKey = (Thread.currentThread().getName() + System.currentTimeMillis()).getBytes();
-        Boolean success = cache.opsForValue().setIfAbsent(key, randomKey, Duration.ofMillis(expire));
+        Boolean success = cache.opsForValue().setIfAbsent(key, lockValue(), Duration.ofMillis(expire));
         return success == null ? false : success;
     }
 
     @Override
     public Set<String> putMultiIfNotExist(Set<String> keys, Long expire) {
-        // 此处应该是value吧？
-        byte[] randomKey = (Thread.currentThread().getName() + System.currentTimeMillis()).getBytes();
+        byte[] lockValue = lockValue();
         StringRedisSerializer keySerializer = (StringRedisSerializer) cache.getKeySerializer();
-        LinkedList<String> keyArray = new LinkedList<>(keys);
+        Expiration expiration = Expiration.milliseconds(expire);
+        if (cluster) {
+            List<Set<String>> nodeResults = invokeByNode(keys, groups -> {
+                List<Object> replies = pipelineOnNode(groups,
+                        (connection, group) -> group.forEach(key -> connection.set(keySerializer.serialize(key), lockValue, expiration, SetOption.SET_IF_ABSENT)),
+                        group -> group.stream()
+                                .map(key -> (Object) cache.opsForValue().setIfAbsent(key, lockValue, Duration.ofMillis(expire)))
+                                .collect(Collectors.toList()));
+                Set<String> nodeResult = new HashSet<>();
+                Iterator<Object> replyIterator = replies.iterator();
+                groups.forEach(group -> group.forEach(key -> {
+                    if (Boolean.TRUE.equals(replyIterator.next())) {
+                        nodeResult.add(key);
+                    }
+                }));
+                return nodeResult;
+            });
+            HashSet<String> result = new HashSet<>();
+            nodeResults.forEach(result::addAll);
+            return result;
+        }
+        List<String> keyArray = new ArrayList<>(keys);
         List<Object> doResult = cache.executePipelined((RedisCallback<Set<String>>) connection -> {
-            keyArray.forEach(key -> connection.pSetEx(keySerializer.serialize(key), expire, randomKey));
+            keyArray.forEach(key -> connection.set(keySerializer.serialize(key), lockValue, expiration, SetOption.SET_IF_ABSENT));
             return null;
         });
         HashSet<String> result = new HashSet<>();
         for (int i = 0; i < keyArray.size(); i++) {
-            if ((Boolean) doResult.get(i)) {
+            if (Boolean.TRUE.equals(doResult.get(i))) {
                 result.add(keyArray.get(i));
             }
         }
@@ -177,5 +392,125 @@ public class RedisCache<V> implements Cache<V> {
         cache.delete(keys);
     }
 
-}
+    /**
+     * 集群模式下按节点执行：key 先按 slot 分组（每组不超过单次 mget 的数量），再按 slot 所在的节点合并，
+     * 每个节点一个任务并行执行，最后一个节点在调用线程执行
+     *
+     * @param nodeTask 参数为同一节点上按 slot 分好的组
+     * @return 每个节点的结果
+     */
+    private <R> List<R> invokeByNode(Collection<String> keys, Function<List<List<String>>, R> nodeTask) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<List<String>> slotGroups = ClusterSlots.groupBySlot(keys, mGetMaxSize);
+        Map<RedisClusterNode, List<List<String>>> byNode = cache.execute((RedisCallback<Map<RedisClusterNode, List<List<String>>>>) connection -> {
+            RedisClusterConnection clusterConnection = (RedisClusterConnection) connection;
+            Map<RedisClusterNode, List<List<String>>> groups = new LinkedHashMap<>();
+            for (List<String> slotGroup : slotGroups) {
+                RedisClusterNode node = clusterConnection.clusterGetNodeForSlot(ClusterSlots.slot(slotGroup.get(0)));
+                groups.computeIfAbsent(node, n -> new ArrayList<>()).add(slotGroup);
+            }
+            return groups;
+        });
+        List<List<List<String>>> nodeGroups = new ArrayList<>(byNode.values());
+        Executor executor = clusterExecutor == null ? ClusterExecutorHolder.EXECUTOR : clusterExecutor;
+        List<CompletableFuture<R>> futures = new ArrayList<>(nodeGroups.size());
+        for (int i = 0; i < nodeGroups.size() - 1; i++) {
+            List<List<String>> groups = nodeGroups.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> nodeTask.apply(groups), executor));
+        }
+        List<R> results = new ArrayList<>(nodeGroups.size());
+        results.add(nodeTask.apply(nodeGroups.get(nodeGroups.size() - 1)));
+        futures.forEach(future -> results.add(CompletableFutures.join(future)));
+        return results;
+    }
+
+    /**
+     * 在同一节点上执行一组命令，支持时使用 pipeline，否则逐条执行
+     *
+     * @param pipelined  pipeline 中每组执行的命令
+     * @param sequential 不支持 pipeline 时每组执行的命令，返回值与 pipeline 中这组命令的结果一致
+     * @return 按组的顺序排列的结果
+     */
+    private List<Object> pipelineOnNode(List<List<String>> groups, BiConsumer<RedisConnection, List<String>> pipelined,
+                                        Function<List<String>, List<Object>> sequential) {
+        if (clusterPipeline) {
+            try {
+                return cache.executePipelined((RedisCallback<Object>) connection -> {
+                    groups.forEach(group -> pipelined.accept(connection, group));
+                    return null;
+                });
+            } catch (UnsupportedOperationException e) {
+                log.info("cluster connection does not support pipeline, execute commands one by one");
+                clusterPipeline = false;
+            }
+        }
+        List<Object> replies = new ArrayList<>();
+        groups.forEach(group -> replies.addAll(sequential.apply(group)));
+        return replies;
+    }
+
+    private byte[][] rawKeys(List<String> keys) {
+        StringRedisSerializer keySerializer = (StringRedisSerializer) cache.getKeySerializer();
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = keySerializer.serialize(keys.get(i));
+        }
+        return rawKeys;
+    }
+
+    private static byte[] lockValue() {
+        return (Thread.currentThread().getName() + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return unlockNotifier;
+    }
+
+    /**
+     * 开启后 getAll 返回 {@link LazyCacheResult}，只在读取结果时才解码，适合只访问部分结果的调用方
+     */
+    public void setLazyDecode(boolean lazyDecode) {
+        this.lazyDecode = lazyDecode;
+    }
+
+    /**
+     * 开启 getAll 并行解码，key 的数量不小于阈值时分片并行解码，默认不开启；
+     * 解码在 executor 中执行，不要使用同时执行阻塞任务的线程池
+     *
+     * @param executor  为null时关闭并行解码
+     * @param threshold 开启并行解码的最小key数量，默认2000
+     */
+    public void setParallelDecode(Executor executor, int threshold) {
+        this.decodeExecutor = executor;
+        this.parallelDecodeThreshold = threshold;
+    }
+
+    /**
+     * 是否按 Redis Cluster 执行批量操作，默认根据连接工厂的配置判断
+     */
+    public void setCluster(boolean cluster) {
+        this.cluster = cluster;
+    }
+
+    /**
+     * 集群模式下各节点并行执行批量操作的线程池，默认为共享的 {@link BatchLoadExecutors#newBatchLoadExecutor(int)}
+     */
+    public void setClusterExecutor(Executor clusterExecutor) {
+        this.clusterExecutor = clusterExecutor;
+    }
 
+    /**
+     * 设置加载锁释放的通知方式，如 {@link com.server.base.cache.lock.RedisUnlockNotifier}，默认为轮询
+     */
+    public void setUnlockNotifier(UnlockNotifier unlockNotifier) {
+        this.unlockNotifier = unlockNotifier;
+    }
+
+    private static class ClusterExecutorHolder {
+
+        private static final Executor EXECUTOR = BatchLoadExecutors.newBatchLoadExecutor(16);
+    }
+}
@@ -0,0 +1,81 @@
+package com.server.base.cache.container;
+
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.util.CacheHolders;
+import com.server.base.cache.util.KryoUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 本地缓存直接存储对象引用（不经过 {@link com.server.base.cache.converter.ValueConverter} 序列化）时，
+ * 如何防止调用方修改缓存中的对象
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public enum ReferencePolicy {
+
+    /**
+     * 信任调用方不会修改返回的对象，读取时直接返回缓存中的实例，没有任何复制
+     */
+    TRUST,
+
+    /**
+     * 存入时与每次读取时通过 Kryo.copy 深复制一份，比反序列化便宜，调用方可以任意修改存入的与返回的对象
+     */
+    COPY_ON_READ {
+        @Override
+        <V> CacheHolder<V> onPut(CacheHolder<V> holder) {
+            holder.setData(KryoUtil.copy(holder.getData()));
+            return holder;
+        }
+
+        @Override
+        <V> CacheHolder<V> onRead(CacheHolder<V> holder) {
+            return CacheHolders.init(KryoUtil.copy(holder.getData()), holder.getExpireAt());
+        }
+    },
+
+    /**
+     * 存入时把集合包装为不可修改的集合，读取时直接返回；调用方修改集合会抛出 UnsupportedOperationException
+     * 只冻结集合本身，集合中的元素仍然是同一实例；方法声明的返回值类型需要是 List、Set、Collection 或 Map 接口
+     */
+    FREEZE {
+        @Override
+        <V> CacheHolder<V> onPut(CacheHolder<V> holder) {
+            holder.setData(freeze(holder.getData()));
+            return holder;
+        }
+    };
+
+    <V> CacheHolder<V> onPut(CacheHolder<V> holder) {
+        return holder;
+    }
+
+    <V> CacheHolder<V> onRead(CacheHolder<V> holder) {
+        return holder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V freeze(V data) {
+        if (data instanceof List) {
+            return (V) Collections.unmodifiableList(new ArrayList<>((List<?>) data));
+        }
+        if (data instanceof Set) {
+            return (V) Collections.unmodifiableSet(new LinkedHashSet<>((Set<?>) data));
+        }
+        if (data instanceof Collection) {
+            return (V) Collections.unmodifiableCollection(new ArrayList<>((Collection<?>) data));
+        }
+        if (data instanceof Map) {
+            return (V) Collections.unmodifiableMap(new LinkedHashMap<>((Map<?, ?>) data));
+        }
+        return data;
+    }
+}
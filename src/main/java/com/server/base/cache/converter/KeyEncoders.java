@@ -0,0 +1,286 @@
+package com.server.base.cache.converter;
+
+import com.server.generic.util.JsonUtils;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 缓存key中参数部分的编码器，生成的内容与 Jackson 序列化的结果一致，因此与原有的缓存key兼容
+ * <p>
+ * 整数、布尔、字符串、字符、UUID 与枚举直接拼接字符串；其他类型（包括 POJO，其序列化结果依赖 JsonUtils 中 ObjectMapper 的配置）仍然使用 JSON。
+ * 每种类型第一次使用时会用样例值与 JSON 的结果比较，不一致（比如配置了 Long 序列化为字符串、枚举使用 @JsonValue）时该类型退回 JSON
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public final class KeyEncoders {
+
+    /**
+     * 与 {@code JsonUtils.toJsonNode(value).toString()} 一致，集合参数中的元素使用
+     */
+    private static final KeyEncoder<Object> JSON_NODE = value -> JsonUtils.toJsonNode(value).toString();
+
+    /**
+     * 与 {@code JsonUtils.getStringJsonUtils().toJson(value)} 一致，方法参数数组中的元素使用
+     */
+    private static final KeyEncoder<Object> JSON_STRING = value -> JsonUtils.getStringJsonUtils().toJson(value);
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * 每种类型验证通过的编码器，没有时为 JSON_NODE
+     */
+    private static final ClassValue<KeyEncoder<Object>> ENCODERS = new ClassValue<KeyEncoder<Object>>() {
+        @Override
+        protected KeyEncoder<Object> computeValue(Class<?> type) {
+            return verified(type);
+        }
+    };
+
+    private static final KeyEncoder<Object> DYNAMIC = dynamic(JSON_NODE);
+
+    private static final KeyEncoder<Object> DYNAMIC_ARG = dynamic(JSON_STRING);
+
+    private KeyEncoders() {
+    }
+
+    /**
+     * 按运行时类型选择编码器
+     */
+    public static KeyEncoder<Object> dynamic() {
+        return DYNAMIC;
+    }
+
+    /**
+     * 按声明的类型选择编码器，类型不是 final 的时候（比如 Object、Number）按运行时类型选择
+     */
+    public static KeyEncoder<Object> forType(Type type) {
+        return forType(type, DYNAMIC);
+    }
+
+    /**
+     * 集合类型参数的元素编码器，比如 {@code List<Long>} 返回 Long 的编码器
+     */
+    public static KeyEncoder<Object> forElementOf(Type collectionType) {
+        if (collectionType instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) collectionType).getActualTypeArguments();
+            if (arguments.length == 1) {
+                return forType(arguments[0]);
+            }
+        }
+        return DYNAMIC;
+    }
+
+    /**
+     * 方法全部参数的编码器，与 {@code JsonUtils.getStringJsonUtils().toJson(args)} 一致，形如 {@code [1,"a"]}
+     * <p>
+     * 有参数只能使用 JSON 编码时，整个数组使用 JSON，保证与原有的缓存key完全一致
+     */
+    public static KeyEncoder<Object[]> forArgs(Type[] parameterTypes) {
+        List<KeyEncoder<Object>> encoders = new ArrayList<>(parameterTypes.length);
+        for (Type parameterType : parameterTypes) {
+            KeyEncoder<Object> encoder = forType(parameterType, DYNAMIC_ARG);
+            if (encoder == JSON_NODE) {
+                return args -> JsonUtils.getStringJsonUtils().toJson(args);
+            }
+            encoders.add(encoder);
+        }
+        return args -> {
+            if (args.length != encoders.size()) {
+                return JsonUtils.getStringJsonUtils().toJson(args);
+            }
+            StringBuilder builder = new StringBuilder(args.length * 16).append('[');
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(encoders.get(i).encode(args[i]));
+            }
+            return builder.append(']').toString();
+        };
+    }
+
+    /**
+     * @param dynamic 类型不确定时按运行时类型选择的编码器
+     * @return 确定类型且只能使用 JSON 时返回 JSON_NODE
+     */
+    private static KeyEncoder<Object> forType(Type type, KeyEncoder<Object> dynamic) {
+        Class<?> clazz = rawClass(type);
+        if (clazz == null || !isExact(clazz)) {
+            return dynamic;
+        }
+        KeyEncoder<Object> encoder = ENCODERS.get(wrap(clazz));
+        if (encoder == JSON_NODE) {
+            return JSON_NODE;
+        }
+        return value -> value == null ? "null" : encoder.encode(value);
+    }
+
+    private static KeyEncoder<Object> dynamic(KeyEncoder<Object> fallback) {
+        return value -> {
+            if (value == null) {
+                return "null";
+            }
+            KeyEncoder<Object> encoder = ENCODERS.get(value.getClass());
+            return encoder == JSON_NODE ? fallback.encode(value) : encoder.encode(value);
+        };
+    }
+
+    private static KeyEncoder<Object> verified(Class<?> type) {
+        KeyEncoder<Object> encoder = specialized(type);
+        if (encoder == null) {
+            return JSON_NODE;
+        }
+        for (Object sample : samples(type)) {
+            String actual = encoder.encode(sample);
+            if (!Objects.equals(JSON_NODE.encode(sample), actual) || !Objects.equals(JSON_STRING.encode(sample), actual)) {
+                return JSON_NODE;
+            }
+        }
+        return encoder;
+    }
+
+    private static KeyEncoder<Object> specialized(Class<?> type) {
+        if (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class
+                || type == Boolean.class) {
+            return String::valueOf;
+        }
+        if (type == String.class || type == Character.class) {
+            return value -> quote(value.toString());
+        }
+        if (type == UUID.class) {
+            return value -> '"' + value.toString() + '"';
+        }
+        if (type.isEnum() && type.getEnumConstants().length > 0) {
+            return value -> '"' + ((Enum<?>) value).name() + '"';
+        }
+        return null;
+    }
+
+    private static List<?> samples(Class<?> type) {
+        if (type == Long.class) {
+            return Arrays.asList(0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+        if (type == Integer.class) {
+            return Arrays.asList(0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE);
+        }
+        if (type == Short.class) {
+            return Arrays.asList((short) -1, Short.MAX_VALUE);
+        }
+        if (type == Byte.class) {
+            return Arrays.asList((byte) -1, Byte.MAX_VALUE);
+        }
+        if (type == Boolean.class) {
+            return Arrays.asList(true, false);
+        }
+        if (type == String.class) {
+            return Arrays.asList("", "key", "\"\\/\b\f\n\r\t\u0000\u001f\u007f", "中文é😀");
+        }
+        if (type == Character.class) {
+            return Arrays.asList('a', '"', '\n', '中');
+        }
+        if (type == UUID.class) {
+            return Collections.singletonList(new UUID(0x0123456789abcdefL, 0xfedcba9876543210L));
+        }
+        return Arrays.asList(type.getEnumConstants());
+    }
+
+    private static String quote(String value) {
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                break;
+            }
+            i++;
+        }
+        if (i == length) {
+            return '"' + value + '"';
+        }
+        StringBuilder builder = new StringBuilder(length + 16).append('"').append(value, 0, i);
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\b':
+                    builder.append("\\b");
+                    break;
+                case '\f':
+                    builder.append("\\f");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return null;
+    }
+
+    /**
+     * 声明的类型就是运行时的类型
+     */
+    private static boolean isExact(Class<?> clazz) {
+        return clazz.isPrimitive() || Modifier.isFinal(clazz.getModifiers()) || clazz.isEnum();
+    }
+
+    private static Class<?> wrap(Class<?> clazz) {
+        if (!clazz.isPrimitive()) {
+            return clazz;
+        }
+        if (clazz == long.class) {
+            return Long.class;
+        }
+        if (clazz == int.class) {
+            return Integer.class;
+        }
+        if (clazz == short.class) {
+            return Short.class;
+        }
+        if (clazz == byte.class) {
+            return Byte.class;
+        }
+        if (clazz == boolean.class) {
+            return Boolean.class;
+        }
+        if (clazz == char.class) {
+            return Character.class;
+        }
+        return clazz == double.class ? Double.class : Float.class;
+    }
+}
@@ -4,6 +4,7 @@ import com.esotericsoftware.kryo.KryoException;
 import com.server.base.cache.entity.CacheHolder;
 import com.server.base.cache.exception.ConvertException;
 import com.server.base.cache.util.KryoUtil;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -34,6 +35,15 @@ public class KryoValueConverter<IN> implements ValueConverter<IN> {
         }
     }
 
+    @Override
+    public CacheHolder<IN> decode(ByteBuffer value) throws ConvertException {
+        try {
+            return KryoUtil.readFromByteBuffer(value);
+        } catch (KryoException e) {
+            throw new ConvertException(e);
+        }
+    }
+
     @Override
     public byte[] encode(CacheHolder<IN> value) {
         if (CONST_MAP.containsKey(value)) {
@@ -2,6 +2,7 @@ package com.server.base.cache.converter;
 
 import com.server.base.cache.entity.CacheHolder;
 import com.server.base.cache.exception.ConvertException;
+import java.nio.ByteBuffer;
 
 /**
  * @author hanlipeng
@@ -11,5 +12,14 @@ public interface ValueConverter<IN> {
 
     CacheHolder<IN> decode(byte[] value) throws ConvertException;
 
+    /**
+     * 从 position 到 limit 之间的字节解码，默认复制为 byte[] 后解码，可以直接读取 ByteBuffer 的实现应该重写
+     */
+    default CacheHolder<IN> decode(ByteBuffer value) throws ConvertException {
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        return decode(bytes);
+    }
+
     byte[] encode(CacheHolder<IN> value);
 }
@@ -0,0 +1,244 @@
+package com.server.base.cache.converter.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdException;
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.exception.CacheException;
+import com.server.base.cache.exception.ConvertException;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * 压缩序列化结果的 ValueConverter，超过阈值的值压缩后加上头部保存：
+ * <pre>
+ * 0xC5 0x7A | codec(1) | 原始长度(4) | 字典id(4，仅带字典的zstd)
+ * </pre>
+ * 小于阈值或者压缩后没有变小的值不加头部原样保存，kryo 序列化结果的第一个字节不会是 0xC5，
+ * 所以开启压缩前写入的缓存仍然可以读取
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CompressingValueConverter<V> implements ValueConverter<V> {
+
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    /**
+     * 默认允许的最大原始长度，头部中的原始长度来自缓存数据，超过时视为数据损坏，避免按头部分配过大的数组
+     */
+    public static final int DEFAULT_MAX_ORIGINAL_LENGTH = 64 * 1024 * 1024;
+
+    private static final byte MAGIC_0 = (byte) 0xC5;
+
+    private static final byte MAGIC_1 = (byte) 0x7A;
+
+    private static final byte CODEC_LZ4 = 1;
+
+    private static final byte CODEC_ZSTD = 2;
+
+    private static final byte CODEC_ZSTD_DICT = 3;
+
+    private static final int HEADER_LENGTH = 7;
+
+    private static final int DICT_HEADER_LENGTH = HEADER_LENGTH + 4;
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final ValueConverter<V> delegate;
+
+    private final CompressionCodec codec;
+
+    private final int threshold;
+
+    private final ZstdDictionaries dictionaries;
+
+    private final int level;
+
+    private int maxOriginalLength = DEFAULT_MAX_ORIGINAL_LENGTH;
+
+    public CompressingValueConverter(ValueConverter<V> delegate, CompressionCodec codec) {
+        this(delegate, codec, DEFAULT_THRESHOLD);
+    }
+
+    public CompressingValueConverter(ValueConverter<V> delegate, CompressionCodec codec, int threshold) {
+        this(delegate, codec, threshold, null);
+    }
+
+    /**
+     * 使用按实体类型训练字典的 zstd 压缩
+     */
+    public CompressingValueConverter(ValueConverter<V> delegate, ZstdDictionaries dictionaries, int threshold) {
+        this(delegate, CompressionCodec.ZSTD, threshold, dictionaries);
+    }
+
+    private CompressingValueConverter(ValueConverter<V> delegate, CompressionCodec codec, int threshold,
+                                      ZstdDictionaries dictionaries) {
+        this.delegate = delegate;
+        this.codec = codec;
+        this.threshold = threshold;
+        this.dictionaries = dictionaries;
+        this.level = dictionaries == null ? Zstd.defaultCompressionLevel() : dictionaries.level();
+    }
+
+    /**
+     * 设置解压时允许的最大原始长度
+     */
+    public void setMaxOriginalLength(int maxOriginalLength) {
+        if (maxOriginalLength <= 0) {
+            throw new IllegalArgumentException("maxOriginalLength must be positive");
+        }
+        this.maxOriginalLength = maxOriginalLength;
+    }
+
+    @Override
+    public CacheHolder<V> decode(byte[] value) throws ConvertException {
+        if (!isCompressed(value)) {
+            return delegate.decode(value);
+        }
+        return delegate.decode(decompress(value));
+    }
+
+    @Override
+    public CacheHolder<V> decode(ByteBuffer value) throws ConvertException {
+        int position = value.position();
+        if (value.remaining() < HEADER_LENGTH || value.get(position) != MAGIC_0 || value.get(position + 1) != MAGIC_1) {
+            return delegate.decode(value);
+        }
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        return delegate.decode(decompress(bytes));
+    }
+
+    @Override
+    public byte[] encode(CacheHolder<V> value) {
+        byte[] raw = delegate.encode(value);
+        if (raw == null || raw.length < threshold) {
+            return raw;
+        }
+        byte[] compressed;
+        switch (codec) {
+            case LZ4:
+                compressed = lz4(raw);
+                break;
+            case ZSTD:
+                compressed = zstd(raw, value == null ? null : entityType(value.getData()));
+                break;
+            default:
+                throw new IllegalStateException("unknown codec " + codec);
+        }
+        return compressed.length < raw.length ? compressed : raw;
+    }
+
+    private byte[] lz4(byte[] raw) {
+        int maxLength = LZ4.fastCompressor().maxCompressedLength(raw.length);
+        byte[] dst = new byte[HEADER_LENGTH + maxLength];
+        int length = LZ4.fastCompressor().compress(raw, 0, raw.length, dst, HEADER_LENGTH, maxLength);
+        writeHeader(dst, CODEC_LZ4, raw.length);
+        return Arrays.copyOf(dst, HEADER_LENGTH + length);
+    }
+
+    private byte[] zstd(byte[] raw, String entityType) {
+        ZstdDictionaries.Dictionary dictionary = dictionaries == null || entityType == null
+                ? null : dictionaries.forCompress(entityType, raw);
+        int headerLength = dictionary == null ? HEADER_LENGTH : DICT_HEADER_LENGTH;
+        byte[] dst = new byte[headerLength + (int) Zstd.compressBound(raw.length)];
+        long length;
+        if (dictionary == null) {
+            length = Zstd.compressByteArray(dst, headerLength, dst.length - headerLength, raw, 0, raw.length, level);
+            writeHeader(dst, CODEC_ZSTD, raw.length);
+        } else {
+            length = Zstd.compressFastDict(dst, headerLength, raw, 0, raw.length, dictionary.compress);
+            writeHeader(dst, CODEC_ZSTD_DICT, raw.length);
+            writeInt(dst, HEADER_LENGTH, dictionary.id);
+        }
+        if (Zstd.isError(length)) {
+            throw new CacheException("zstd compress fail: " + Zstd.getErrorName(length));
+        }
+        return Arrays.copyOf(dst, headerLength + (int) length);
+    }
+
+    private byte[] decompress(byte[] value) throws ConvertException {
+        byte codec = value[2];
+        int originalLength = readInt(value, 3);
+        if (originalLength < 0 || originalLength > maxOriginalLength) {
+            throw new ConvertException(new CacheException("illegal original length " + originalLength));
+        }
+        byte[] dst = new byte[originalLength];
+        try {
+            long length;
+            switch (codec) {
+                case CODEC_LZ4:
+                    int lz4Length = LZ4.safeDecompressor().decompress(value, HEADER_LENGTH,
+                            value.length - HEADER_LENGTH, dst, 0);
+                    if (lz4Length != originalLength) {
+                        throw new ConvertException(new CacheException("lz4 decompress fail: length " + lz4Length));
+                    }
+                    return dst;
+                case CODEC_ZSTD:
+                    length = Zstd.decompressByteArray(dst, 0, originalLength, value, HEADER_LENGTH,
+                            value.length - HEADER_LENGTH);
+                    break;
+                case CODEC_ZSTD_DICT:
+                    int dictId = readInt(value, HEADER_LENGTH);
+                    ZstdDictDecompress dictionary = dictionaries == null ? null : dictionaries.forDecompress(dictId);
+                    if (dictionary == null) {
+                        throw new ConvertException(new CacheException("zstd dictionary " + dictId + " not found"));
+                    }
+                    length = Zstd.decompressFastDict(dst, 0, value, DICT_HEADER_LENGTH,
+                            value.length - DICT_HEADER_LENGTH, dictionary);
+                    break;
+                default:
+                    throw new ConvertException(new CacheException("unknown compress codec " + codec));
+            }
+            if (Zstd.isError(length) || length != originalLength) {
+                throw new ConvertException(new CacheException("zstd decompress fail: "
+                        + (Zstd.isError(length) ? Zstd.getErrorName(length) : "length " + length)));
+            }
+            return dst;
+        } catch (LZ4Exception | ZstdException | CacheException e) {
+            throw new ConvertException(e);
+        }
+    }
+
+    private static boolean isCompressed(byte[] value) {
+        return value != null && value.length >= HEADER_LENGTH && value[0] == MAGIC_0 && value[1] == MAGIC_1;
+    }
+
+    /**
+     * 字典按实体类型训练，集合使用第一个元素的类型
+     */
+    private static String entityType(Object data) {
+        if (data instanceof Collection) {
+            Iterator<?> iterator = ((Collection<?>) data).iterator();
+            Object first = iterator.hasNext() ? iterator.next() : null;
+            return first == null ? null : first.getClass().getName() + "[]";
+        }
+        return data == null ? null : data.getClass().getName();
+    }
+
+    private static void writeHeader(byte[] dst, byte codec, int originalLength) {
+        dst[0] = MAGIC_0;
+        dst[1] = MAGIC_1;
+        dst[2] = codec;
+        writeInt(dst, 3, originalLength);
+    }
+
+    private static void writeInt(byte[] dst, int offset, int value) {
+        dst[offset] = (byte) (value >>> 24);
+        dst[offset + 1] = (byte) (value >>> 16);
+        dst[offset + 2] = (byte) (value >>> 8);
+        dst[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] src, int offset) {
+        return (src[offset] & 0xFF) << 24 | (src[offset + 1] & 0xFF) << 16
+                | (src[offset + 2] & 0xFF) << 8 | src[offset + 3] & 0xFF;
+    }
+}
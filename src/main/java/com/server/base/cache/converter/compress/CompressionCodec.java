@@ -0,0 +1,20 @@
+package com.server.base.cache.converter.compress;
+
+/**
+ * 压缩算法
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public enum CompressionCodec {
+
+    /**
+     * 压缩与解压速度最快，压缩率较低
+     */
+    LZ4,
+
+    /**
+     * 压缩率较高，配合 {@link ZstdDictionaries} 时使用按实体类型训练的字典
+     */
+    ZSTD
+}
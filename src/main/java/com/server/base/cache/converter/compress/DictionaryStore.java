@@ -0,0 +1,27 @@
+package com.server.base.cache.converter.compress;
+
+/**
+ * zstd 字典的存储，字典的id写在每个压缩值的头部，所有读取这些缓存的节点都需要能通过id取得字典
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public interface DictionaryStore {
+
+    /**
+     * @return 字典内容，不存在时返回null
+     */
+    byte[] load(int dictId);
+
+    /**
+     * @return 实体类型当前使用的字典id，没有时返回null
+     */
+    Integer dictIdOf(String entityType);
+
+    /**
+     * 保存实体类型的字典，其他节点已经保存过时不覆盖
+     *
+     * @return 实体类型最终使用的字典id
+     */
+    int saveIfAbsent(String entityType, int dictId, byte[] dictionary);
+}
@@ -0,0 +1,33 @@
+package com.server.base.cache.converter.compress;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 只保存在本JVM内的字典，只适用于单节点或者只用于本地缓存的场景
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class LocalDictionaryStore implements DictionaryStore {
+
+    private final ConcurrentHashMap<Integer, byte[]> dictionaries = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Integer> dictIds = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] load(int dictId) {
+        return dictionaries.get(dictId);
+    }
+
+    @Override
+    public Integer dictIdOf(String entityType) {
+        return dictIds.get(entityType);
+    }
+
+    @Override
+    public int saveIfAbsent(String entityType, int dictId, byte[] dictionary) {
+        dictionaries.putIfAbsent(dictId, dictionary);
+        Integer exist = dictIds.putIfAbsent(entityType, dictId);
+        return exist == null ? dictId : exist;
+    }
+}
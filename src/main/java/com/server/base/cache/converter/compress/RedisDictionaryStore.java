@@ -0,0 +1,63 @@
+package com.server.base.cache.converter.compress;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 保存在 Redis 中的字典，不设置过期时间：字典删除后使用它压缩的缓存都无法读取，只能等待过期
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class RedisDictionaryStore implements DictionaryStore {
+
+    public static final String DEFAULT_PREFIX = "base-cache:zstd-dict:";
+
+    private final StringRedisTemplate template;
+
+    private final String prefix;
+
+    public RedisDictionaryStore(RedisConnectionFactory connectionFactory) {
+        this(connectionFactory, DEFAULT_PREFIX);
+    }
+
+    public RedisDictionaryStore(RedisConnectionFactory connectionFactory, String prefix) {
+        this.template = new StringRedisTemplate(connectionFactory);
+        this.prefix = prefix;
+    }
+
+    @Override
+    public byte[] load(int dictId) {
+        String value = template.opsForValue().get(idKey(dictId));
+        return value == null ? null : Base64.getDecoder().decode(value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public Integer dictIdOf(String entityType) {
+        String value = template.opsForValue().get(typeKey(entityType));
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    @Override
+    public int saveIfAbsent(String entityType, int dictId, byte[] dictionary) {
+        // 先保存字典再保存类型的映射，其他节点读到映射时字典一定存在
+        template.opsForValue().setIfAbsent(idKey(dictId), Base64.getEncoder().encodeToString(dictionary));
+        Boolean success = template.opsForValue().setIfAbsent(typeKey(entityType), String.valueOf(dictId));
+        if (Boolean.TRUE.equals(success)) {
+            return dictId;
+        }
+        Integer exist = dictIdOf(entityType);
+        return exist == null ? dictId : exist;
+    }
+
+    private String idKey(int dictId) {
+        return prefix + "id:" + dictId;
+    }
+
+    private String typeKey(String entityType) {
+        return prefix + "type:" + entityType;
+    }
+}
@@ -0,0 +1,239 @@
+package com.server.base.cache.converter.compress;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按实体类型训练的 zstd 字典：每种实体类型采样一定数量的序列化结果后在后台训练字典，训练完成前使用不带字典的 zstd
+ * <p>
+ * 字典保存在 {@link DictionaryStore} 中，多个节点同时训练时以先保存的为准
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class ZstdDictionaries {
+
+    public static final int DEFAULT_DICT_SIZE = 64 * 1024;
+
+    public static final int DEFAULT_SAMPLE_COUNT = 200;
+
+    /**
+     * 单个样本的最大长度，超过时只取前面的部分，避免大对象占用过多内存
+     */
+    private static final int MAX_SAMPLE_SIZE = 128 * 1024;
+
+    /**
+     * store 中不存在的字典id在这段时间内不再读取，避免损坏或者来自其他环境的值每次解码都访问 store
+     */
+    private static final long MISSING_DICT_TTL_MILLIS = 5000;
+
+    /**
+     * 记录的不存在的字典id的最大个数，超过时清空，避免损坏的值中随机的字典id占用过多内存
+     */
+    private static final int MAX_MISSING_DICTS = 1024;
+
+    private static final ThreadPoolExecutor TRAIN_EXECUTOR = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(64), r -> {
+        Thread thread = new Thread(r, "base-cache-zstd-train");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.AbortPolicy());
+
+    static {
+        TRAIN_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final DictionaryStore store;
+
+    private final int level;
+
+    private final int dictSize;
+
+    private final int sampleCount;
+
+    /**
+     * 已经有字典的实体类型
+     */
+    private final ConcurrentHashMap<String, Dictionary> dictionaries = new ConcurrentHashMap<>();
+
+    /**
+     * 正在采样的实体类型
+     */
+    private final ConcurrentHashMap<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Integer, ZstdDictDecompress> decompressDictionaries = new ConcurrentHashMap<>();
+
+    /**
+     * store 中不存在的字典id与下次读取的时间
+     */
+    private final ConcurrentHashMap<Integer, Long> missingDictionaries = new ConcurrentHashMap<>();
+
+    public ZstdDictionaries(DictionaryStore store) {
+        this(store, Zstd.defaultCompressionLevel(), DEFAULT_DICT_SIZE, DEFAULT_SAMPLE_COUNT);
+    }
+
+    /**
+     * @param level       压缩级别
+     * @param dictSize    字典的最大字节数
+     * @param sampleCount 训练字典需要的样本个数
+     */
+    public ZstdDictionaries(DictionaryStore store, int level, int dictSize, int sampleCount) {
+        this.store = store;
+        this.level = level;
+        this.dictSize = dictSize;
+        this.sampleCount = sampleCount;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    /**
+     * 压缩时使用：返回实体类型的字典，没有字典时采样并返回null
+     *
+     * @param payload 未压缩的序列化结果，采样时复制
+     */
+    Dictionary forCompress(String entityType, byte[] payload) {
+        Dictionary dictionary = dictionaries.get(entityType);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        Sampler sampler = samplers.get(entityType);
+        if (sampler == null) {
+            // 第一次遇到实体类型时先从 store 中读取其他节点训练的字典，没有时才开始采样；
+            // store 可能是远程存储，不在 computeIfAbsent 中读取，避免读取期间阻塞其他实体类型
+            dictionary = loadDictionary(entityType);
+            if (dictionary != null) {
+                Dictionary exist = dictionaries.putIfAbsent(entityType, dictionary);
+                return exist == null ? dictionary : exist;
+            }
+            sampler = samplers.computeIfAbsent(entityType, key -> new Sampler());
+        }
+        List<byte[]> samples = sampler.add(payload);
+        if (samples != null) {
+            submitTrain(entityType, samples);
+        }
+        return null;
+    }
+
+    /**
+     * 解压时使用
+     *
+     * @return 字典，本地与 {@link DictionaryStore} 中都不存在时返回null
+     */
+    ZstdDictDecompress forDecompress(int dictId) {
+        ZstdDictDecompress dictionary = decompressDictionaries.get(dictId);
+        if (dictionary != null) {
+            return dictionary;
+        }
+        Long retryAt = missingDictionaries.get(dictId);
+        if (retryAt != null) {
+            if (System.currentTimeMillis() < retryAt) {
+                return null;
+            }
+            missingDictionaries.remove(dictId, retryAt);
+        }
+        byte[] content = store.load(dictId);
+        if (content == null) {
+            if (missingDictionaries.size() >= MAX_MISSING_DICTS) {
+                missingDictionaries.clear();
+            }
+            missingDictionaries.put(dictId, System.currentTimeMillis() + MISSING_DICT_TTL_MILLIS);
+            return null;
+        }
+        return decompressDictionaries.computeIfAbsent(dictId, id -> new ZstdDictDecompress(content));
+    }
+
+    /**
+     * @return store 中实体类型的字典，没有时返回null
+     */
+    private Dictionary loadDictionary(String entityType) {
+        Integer dictId = store.dictIdOf(entityType);
+        if (dictId == null) {
+            return null;
+        }
+        byte[] content = store.load(dictId);
+        return content == null ? null : new Dictionary(dictId, new ZstdDictCompress(content, level));
+    }
+
+    private void submitTrain(String entityType, List<byte[]> samples) {
+        try {
+            TRAIN_EXECUTOR.execute(() -> train(entityType, samples));
+        } catch (RejectedExecutionException e) {
+            samplers.remove(entityType);
+        }
+    }
+
+    private void train(String entityType, List<byte[]> samples) {
+        try {
+            int totalSize = samples.stream().mapToInt(sample -> sample.length).sum();
+            ZstdDictTrainer trainer = new ZstdDictTrainer(totalSize, dictSize);
+            samples.forEach(trainer::addSample);
+            byte[] content = trainer.trainSamples();
+            int dictId = (int) Zstd.getDictIdFromDict(content);
+            int savedId = store.saveIfAbsent(entityType, dictId, content);
+            if (savedId != dictId) {
+                // 其他节点已经训练了字典，使用它的字典
+                content = store.load(savedId);
+            }
+            if (content != null) {
+                dictionaries.put(entityType, new Dictionary(savedId, new ZstdDictCompress(content, level)));
+                log.info("zstd dictionary of {} is ready, id {}, size {}", entityType, savedId, content.length);
+            }
+        } catch (RuntimeException e) {
+            log.warn("train zstd dictionary of {} fail, sample again later: {}", entityType, e.getMessage());
+        } finally {
+            samplers.remove(entityType);
+        }
+    }
+
+    /**
+     * 已训练的字典
+     */
+    static class Dictionary {
+
+        final int id;
+
+        final ZstdDictCompress compress;
+
+        private Dictionary(int id, ZstdDictCompress compress) {
+            this.id = id;
+            this.compress = compress;
+        }
+    }
+
+    private class Sampler {
+
+        private final List<byte[]> samples = new ArrayList<>();
+
+        private boolean full;
+
+        /**
+         * @return 样本足够时返回全部样本，只返回一次
+         */
+        private synchronized List<byte[]> add(byte[] payload) {
+            if (full) {
+                return null;
+            }
+            samples.add(Arrays.copyOf(payload, Math.min(payload.length, MAX_SAMPLE_SIZE)));
+            if (samples.size() < sampleCount) {
+                return null;
+            }
+            full = true;
+            return new ArrayList<>(samples);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.server.base.cache.entity;
+
+import lombok.Data;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量读取并为未命中的key加锁的结果
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Data
+public class GetOrLockResult<T> {
+
+    /**
+     * 每个key的读取结果，未命中时为失败的结果
+     */
+    private Map<String, CacheResult<T>> values;
+
+    /**
+     * 加锁成功的锁key，调用方负责释放
+     */
+    private Set<String> locked;
+}
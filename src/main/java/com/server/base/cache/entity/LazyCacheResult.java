@@ -0,0 +1,157 @@
+package com.server.base.cache.entity;
+
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.exception.ConvertException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * 延迟解码的缓存结果，保存读取到的原始字节，第一次读取 data 或 expireAt 时才解码
+ * <p>
+ * 解码前 {@link #isSuccess()} 只判断有没有读取到值，不会触发解码；解码失败时视为未命中，之后 isSuccess 返回 false，
+ * 需要区分时使用 {@link com.server.base.cache.util.CacheResults#isHit(CacheResult)}
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class LazyCacheResult<T> extends CacheResult<T> {
+
+    private byte[] value;
+
+    private ValueConverter<T> converter;
+
+    /**
+     * 是否读取到了值
+     */
+    private final boolean present;
+
+    private volatile boolean decoded;
+
+    /**
+     * 解码完成后调用，参数为是否解码成功
+     */
+    private Consumer<Boolean> decodeListener;
+
+    public LazyCacheResult(byte[] value, ValueConverter<T> converter) {
+        this.value = value;
+        this.converter = converter;
+        this.present = value != null;
+    }
+
+    /**
+     * 按 chunkSize 分片并行解码其中尚未解码的结果，最后一片在调用线程执行，全部完成后返回
+     */
+    public static void decodeAll(Collection<? extends CacheResult<?>> results, Executor executor, int chunkSize) {
+        List<LazyCacheResult<?>> lazy = new ArrayList<>(results.size());
+        for (CacheResult<?> result : results) {
+            if (result instanceof LazyCacheResult && !((LazyCacheResult<?>) result).decoded) {
+                lazy.add((LazyCacheResult<?>) result);
+            }
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        int from = 0;
+        for (; from + chunkSize < lazy.size(); from += chunkSize) {
+            List<LazyCacheResult<?>> chunk = lazy.subList(from, from + chunkSize);
+            futures.add(CompletableFuture.runAsync(() -> chunk.forEach(LazyCacheResult::decode), executor));
+        }
+        lazy.subList(from, lazy.size()).forEach(LazyCacheResult::decode);
+        futures.forEach(CompletableFuture::join);
+    }
+
+    /**
+     * 是否已经解码
+     */
+    public boolean isDecoded() {
+        return decoded;
+    }
+
+    /**
+     * 立即解码，重复调用没有影响
+     */
+    public void decode() {
+        if (decoded) {
+            return;
+        }
+        Consumer<Boolean> listener;
+        synchronized (this) {
+            if (decoded) {
+                return;
+            }
+            try {
+                CacheHolder<T> holder = converter.decode(value);
+                super.setSuccess(true);
+                super.setData(holder.getData());
+                super.setExpireAt(holder.getExpireAt());
+            } catch (ConvertException e) {
+                log.error("Redis value decode fail", e);
+                super.setSuccess(false);
+            }
+            value = null;
+            converter = null;
+            decoded = true;
+            listener = decodeListener;
+            decodeListener = null;
+        }
+        if (listener != null) {
+            listener.accept(super.isSuccess());
+        }
+    }
+
+    /**
+     * 解码完成后以是否解码成功为参数调用 listener，已经解码时立即调用；用于在不提前解码的情况下统计命中
+     */
+    public void whenDecoded(Consumer<Boolean> listener) {
+        synchronized (this) {
+            if (!decoded) {
+                decodeListener = decodeListener == null ? listener : decodeListener.andThen(listener);
+                return;
+            }
+        }
+        listener.accept(super.isSuccess());
+    }
+
+    /**
+     * 解码前只判断是否读取到了值，不触发解码
+     */
+    @Override
+    public boolean isSuccess() {
+        return decoded ? super.isSuccess() : present;
+    }
+
+    @Override
+    public T getData() {
+        decode();
+        return super.getData();
+    }
+
+    @Override
+    public long getExpireAt() {
+        decode();
+        return super.getExpireAt();
+    }
+
+    @Override
+    public void setSuccess(boolean success) {
+        decode();
+        super.setSuccess(success);
+    }
+
+    @Override
+    public void setData(T data) {
+        decode();
+        super.setData(data);
+    }
+
+    @Override
+    public void setExpireAt(long expireAt) {
+        decode();
+        super.setExpireAt(expireAt);
+    }
+}
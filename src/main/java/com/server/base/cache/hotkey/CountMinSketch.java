@@ -0,0 +1,101 @@
+package com.server.base.cache.hotkey;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 估计key访问次数的 count-min sketch，累计计数达到 sampleSize 后全部计数减半，使估计值偏向近期的访问
+ * <p>
+ * 每行的位置由 murmur3 的两个32位哈希组合得到，String.hashCode 相同的key（比如 "Aa" 与 "BB"）在各行中的位置也不同
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+class CountMinSketch {
+
+    private static final int DEPTH = 4;
+
+    private final AtomicIntegerArray table;
+
+    private final int mask;
+
+    private final long sampleSize;
+
+    private final AtomicLong additions = new AtomicLong();
+
+    private volatile long generation;
+
+    /**
+     * @param width 每行的计数器个数，取不小于它的2的幂
+     */
+    CountMinSketch(int width) {
+        int size = Integer.highestOneBit(Math.max(16, width) - 1) << 1;
+        this.table = new AtomicIntegerArray(size * DEPTH);
+        this.mask = size - 1;
+        this.sampleSize = 10L * size;
+    }
+
+    /**
+     * 增加一次计数
+     *
+     * @return 增加后的估计次数
+     */
+    int increment(String key) {
+        long hash = hash(key);
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = indexOf(hash, i);
+            int count = table.get(index);
+            if (count < Integer.MAX_VALUE) {
+                count = table.incrementAndGet(index);
+            }
+            min = Math.min(min, count);
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+        return min;
+    }
+
+    /**
+     * @return 估计的访问次数
+     */
+    int frequency(String key) {
+        long hash = hash(key);
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, table.get(indexOf(hash, i)));
+        }
+        return min;
+    }
+
+    /**
+     * @return 已经减半的次数，调用方据此同步减半自己保存的计数
+     */
+    long generation() {
+        return generation;
+    }
+
+    private synchronized void reset() {
+        if (additions.get() < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < table.length(); i++) {
+            table.set(i, table.get(i) >>> 1);
+        }
+        additions.set(0);
+        generation++;
+    }
+
+    private int indexOf(long hash, int row) {
+        int combined = (int) hash + (row + 1) * (int) (hash >>> 32);
+        return row * (mask + 1) + (combined & mask);
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+}
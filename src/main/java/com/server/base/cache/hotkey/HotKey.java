@@ -0,0 +1,19 @@
+package com.server.base.cache.hotkey;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 热点key与估计的近期访问次数
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Data
+@AllArgsConstructor
+public class HotKey {
+
+    private String key;
+
+    private int count;
+}
@@ -0,0 +1,175 @@
+package com.server.base.cache.hotkey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 {@link com.server.base.cache.config.CachePolicy#getKeyWord()} 统计key的访问频率：
+ * count-min sketch 估计每个key的近期访问次数，同时保留访问次数最多的 topK 个key
+ * <p>
+ * {@link com.server.base.cache.container.LinkCache#setHotKeyDetector} 用它决定哪些key写入第一级缓存：
+ * 访问次数达到 admitFrequency 的key才写入，避免只访问一次的key挤出其他缓存；热点key在第一级缓存中保留 hotExpire
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class HotKeyDetector {
+
+    public static final int DEFAULT_TOP_K = 20;
+
+    public static final int DEFAULT_SKETCH_WIDTH = 4096;
+
+    public static final int DEFAULT_ADMIT_FREQUENCY = 2;
+
+    private final int topK;
+
+    private final int sketchWidth;
+
+    private final int admitFrequency;
+
+    private final long hotExpire;
+
+    private final ConcurrentHashMap<String, KeyWordStats> stats = new ConcurrentHashMap<>();
+
+    public HotKeyDetector() {
+        this(DEFAULT_TOP_K, DEFAULT_SKETCH_WIDTH, DEFAULT_ADMIT_FREQUENCY, 0L);
+    }
+
+    /**
+     * @param topK           每个keyWord保留的热点key个数
+     * @param sketchWidth    每个keyWord的 count-min sketch 每行的计数器个数，应与该keyWord近期访问的不同key的数量相当
+     * @param admitFrequency 写入第一级缓存需要的最小访问次数，小于等于1时全部写入
+     * @param hotExpire      热点key在第一级缓存中的最小过期时间（毫秒），不超过下一级缓存剩余的时间，小于等于0时与其他key相同
+     */
+    public HotKeyDetector(int topK, int sketchWidth, int admitFrequency, long hotExpire) {
+        this.topK = topK;
+        this.sketchWidth = sketchWidth;
+        this.admitFrequency = admitFrequency;
+        this.hotExpire = hotExpire;
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void record(String keyWord, String key) {
+        statsOf(keyWord).record(key);
+    }
+
+    /**
+     * @return 是否写入第一级缓存
+     */
+    public boolean admit(String keyWord, String key) {
+        if (admitFrequency <= 1) {
+            return true;
+        }
+        KeyWordStats keyWordStats = statsOf(keyWord);
+        return keyWordStats.hot.containsKey(key) || keyWordStats.sketch.frequency(key) >= admitFrequency;
+    }
+
+    public boolean isHot(String keyWord, String key) {
+        return statsOf(keyWord).hot.containsKey(key);
+    }
+
+    /**
+     * @return 在第一级缓存中的过期时间，热点key不小于 hotExpire
+     */
+    public long expireOf(String keyWord, String key, long expire) {
+        if (hotExpire <= expire || !isHot(keyWord, key)) {
+            return expire;
+        }
+        return hotExpire;
+    }
+
+    /**
+     * @return keyWord 当前的热点key，按访问次数从多到少排列
+     */
+    public List<HotKey> topKeys(String keyWord) {
+        KeyWordStats keyWordStats = stats.get(normalize(keyWord));
+        if (keyWordStats == null) {
+            return new ArrayList<>();
+        }
+        List<HotKey> result = new ArrayList<>();
+        keyWordStats.hot.forEach((key, count) -> result.add(new HotKey(key, count)));
+        result.sort(Comparator.comparingInt(HotKey::getCount).reversed());
+        return result;
+    }
+
+    /**
+     * @return 每个keyWord当前的热点key
+     */
+    public Map<String, List<HotKey>> topKeys() {
+        Map<String, List<HotKey>> result = new HashMap<>();
+        stats.keySet().forEach(keyWord -> result.put(keyWord, topKeys(keyWord)));
+        return result;
+    }
+
+    private KeyWordStats statsOf(String keyWord) {
+        return stats.computeIfAbsent(normalize(keyWord), k -> new KeyWordStats());
+    }
+
+    private static String normalize(String keyWord) {
+        return keyWord == null ? "" : keyWord;
+    }
+
+    private class KeyWordStats {
+
+        private final CountMinSketch sketch = new CountMinSketch(sketchWidth);
+
+        /**
+         * 热点key与访问次数，访问次数达到 admitFrequency 才会加入；加入、移除与减半只在持有锁时进行，
+         * 已有key的计数不加锁更新，并发记录时保留较大的计数
+         */
+        private final ConcurrentHashMap<String, Integer> hot = new ConcurrentHashMap<>();
+
+        /**
+         * 热点key已满时其中最小的访问次数，超过它才需要加锁更新；已有key的计数不加锁增加，所以可能偏小，只会多加一次锁
+         */
+        private volatile int minCount;
+
+        private volatile long generation;
+
+        private void record(String key) {
+            int count = sketch.increment(key);
+            if (sketch.generation() != generation) {
+                update(key, count);
+            } else if (hot.computeIfPresent(key, (k, c) -> Math.max(c, count)) == null && count >= admitFrequency && count > minCount) {
+                update(key, count);
+            }
+        }
+
+        private synchronized void update(String key, int count) {
+            long current = sketch.generation();
+            if (current != generation) {
+                // sketch 已经减半，热点key的计数同步减半
+                int shift = (int) Math.min(31, current - generation);
+                hot.replaceAll((k, c) -> c >>> shift);
+                generation = current;
+            }
+            if (hot.containsKey(key)) {
+                hot.put(key, count);
+            } else if (count < admitFrequency) {
+                return;
+            } else if (hot.size() < topK) {
+                hot.put(key, count);
+            } else {
+                String minKey = null;
+                int min = Integer.MAX_VALUE;
+                for (Map.Entry<String, Integer> entry : hot.entrySet()) {
+                    if (entry.getValue() < min) {
+                        min = entry.getValue();
+                        minKey = entry.getKey();
+                    }
+                }
+                if (count > min) {
+                    hot.remove(minKey);
+                    hot.put(key, count);
+                }
+            }
+            minCount = hot.size() < topK ? 0 : hot.values().stream().mapToInt(Integer::intValue).min().orElse(0);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.server.base.cache.invalidate;
+
+import com.server.base.cache.bloom.NegativeCache;
+import com.server.base.cache.container.Cache;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 集群内本地缓存的失效广播：本节点删除的key在一个短窗口内合并去重后通过 {@link InvalidationTransport} 发布一次，
+ * 其他节点收到后从注册的本地缓存中删除这些key
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class InvalidationBroadcaster implements AutoCloseable {
+
+    public static final long DEFAULT_WINDOW = 20L;
+
+    /**
+     * 单条消息中key的最大个数，超过时拆分为多条
+     */
+    private static final int MAX_KEYS_PER_MESSAGE = 1000;
+
+    private final InvalidationTransport transport;
+
+    private final long windowMillis;
+
+    private final List<Consumer<Set<String>>> caches = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "base-cache-invalidate");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Set<String> pending = new HashSet<>();
+
+    private boolean scheduled;
+
+    private volatile boolean closed;
+
+    public InvalidationBroadcaster(InvalidationTransport transport) {
+        this(transport, DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param windowMillis 合并失效key的窗口，窗口内的删除只发布一次
+     */
+    public InvalidationBroadcaster(InvalidationTransport transport, long windowMillis) {
+        this.transport = transport;
+        this.windowMillis = windowMillis;
+        transport.subscribe(this::evict);
+    }
+
+    /**
+     * 注册收到其他节点的失效消息时需要删除key的本地缓存
+     */
+    public InvalidationBroadcaster register(Cache<?> cache) {
+        caches.add(cache::removeAll);
+        return this;
+    }
+
+    /**
+     * 注册收到其他节点的失效消息时需要删除key的本地负缓存
+     */
+    public InvalidationBroadcaster register(NegativeCache negativeCache) {
+        caches.add(negativeCache::removeLocal);
+        return this;
+    }
+
+    /**
+     * 在窗口结束时发布失效的key，关闭后不再发布
+     */
+    public void publish(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (closed) {
+            log.warn("invalidation broadcaster is closed, other nodes will keep keys until expire: {}", keys);
+            return;
+        }
+        synchronized (this) {
+            pending.addAll(keys);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        try {
+            scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 与 close 并发时，由 close 中的 flush 或这里发布
+            flush();
+        }
+    }
+
+    /**
+     * 立即发布窗口内尚未发布的key
+     */
+    public void flush() {
+        Set<String> keys;
+        synchronized (this) {
+            keys = pending;
+            pending = new HashSet<>();
+            scheduled = false;
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> batch = new ArrayList<>(Math.min(keys.size(), MAX_KEYS_PER_MESSAGE));
+        for (String key : keys) {
+            batch.add(key);
+            if (batch.size() == MAX_KEYS_PER_MESSAGE) {
+                send(batch);
+                batch = new ArrayList<>(MAX_KEYS_PER_MESSAGE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private void send(List<String> keys) {
+        try {
+            transport.publish(keys);
+        } catch (RuntimeException e) {
+            log.warn("publish invalidation fail, other nodes will keep keys until expire: {}", e.getMessage());
+        }
+    }
+
+    private void evict(Collection<String> keys) {
+        Set<String> keySet = new HashSet<>(keys);
+        if (log.isDebugEnabled()) {
+            log.debug("evict local keys {}", keySet);
+        }
+        for (Consumer<Set<String>> cache : caches) {
+            try {
+                cache.accept(keySet);
+            } catch (RuntimeException e) {
+                log.error("evict local cache fail", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdown();
+        flush();
+    }
+}
@@ -0,0 +1,23 @@
+package com.server.base.cache.invalidate;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * 节点之间传递缓存失效消息的方式
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public interface InvalidationTransport {
+
+    /**
+     * 向其他节点发布失效的key
+     */
+    void publish(Collection<String> keys);
+
+    /**
+     * 订阅其他节点发布的失效key，本节点发布的消息不会回调
+     */
+    void subscribe(Consumer<Collection<String>> listener);
+}
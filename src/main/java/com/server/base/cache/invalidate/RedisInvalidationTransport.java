@@ -0,0 +1,117 @@
+package com.server.base.cache.invalidate;
+
+import com.server.base.cache.util.RedisListenerContainers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 通过 Redis pub/sub 传递失效消息，消息第一行为发布节点的id，用于忽略本节点发布的消息
+ * <p>
+ * pub/sub 不保证送达，订阅连接断开期间的消息会丢失，本地缓存仍然需要设置过期时间兜底
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class RedisInvalidationTransport implements InvalidationTransport, AutoCloseable {
+
+    public static final String DEFAULT_CHANNEL = "base-cache:invalidate";
+
+    private static final String SEPARATOR = "\n";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate template;
+
+    private final RedisMessageListenerContainer container;
+
+    /**
+     * container 是否由本类创建，是时关闭时销毁，否则只移除本类的监听
+     */
+    private final boolean ownContainer;
+
+    private final MessageListener messageListener = this::onMessage;
+
+    private final ChannelTopic topic;
+
+    private final List<Consumer<Collection<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisInvalidationTransport(RedisConnectionFactory connectionFactory) {
+        this(connectionFactory, DEFAULT_CHANNEL);
+    }
+
+    /**
+     * 使用单独的监听容器
+     *
+     * @param connectionFactory redis连接
+     * @param channel           发布失效消息的channel，同一组缓存的所有节点需要一致
+     */
+    public RedisInvalidationTransport(RedisConnectionFactory connectionFactory, String channel) {
+        this(RedisListenerContainers.create(connectionFactory), channel, true);
+    }
+
+    /**
+     * 与 {@link com.server.base.cache.lock.RedisUnlockNotifier} 等共用调用方的监听容器，少占用一个订阅连接；
+     * 容器由调用方启动与关闭
+     *
+     * @param channel 发布失效消息的channel，同一组缓存的所有节点需要一致
+     */
+    public RedisInvalidationTransport(RedisMessageListenerContainer container, String channel) {
+        this(container, channel, false);
+    }
+
+    private RedisInvalidationTransport(RedisMessageListenerContainer container, String channel, boolean ownContainer) {
+        this.topic = new ChannelTopic(channel);
+        this.template = new StringRedisTemplate(container.getConnectionFactory());
+        this.container = container;
+        this.ownContainer = ownContainer;
+        container.addMessageListener(messageListener, topic);
+    }
+
+    @Override
+    public void publish(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        template.convertAndSend(topic.getTopic(), nodeId + SEPARATOR + String.join(SEPARATOR, keys));
+    }
+
+    @Override
+    public void subscribe(Consumer<Collection<String>> listener) {
+        listeners.add(listener);
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        List<String> lines = Arrays.asList(body.split(SEPARATOR));
+        if (lines.size() < 2 || nodeId.equals(lines.get(0))) {
+            return;
+        }
+        List<String> keys = lines.subList(1, lines.size());
+        for (Consumer<Collection<String>> listener : listeners) {
+            try {
+                listener.accept(keys);
+            } catch (RuntimeException e) {
+                log.error("handle invalidation message fail", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        RedisListenerContainers.release(container, ownContainer, messageListener, topic);
+    }
+}
@@ -0,0 +1,196 @@
+package com.server.base.cache.invalidate;
+
+import com.server.base.cache.container.Cache;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 基于 Redis 6 客户端缓存（RESP3 CLIENT TRACKING BCAST）的本地缓存失效：
+ * Redis 中以指定前缀开头的key被修改或删除时，立即删除本地缓存中相同的key，本地缓存因此可以使用较长的过期时间
+ * <p>
+ * 使用单独的连接接收失效通知；连接断开期间的通知会丢失，因此断开与重连时清空本地缓存。
+ * 本节点写入 Redis 同样会收到通知，刚写入的本地缓存可能被删除一次，之后从 Redis 重新读取
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class RedisTrackingInvalidator implements Closeable {
+
+    private static final String INVALIDATE = "invalidate";
+
+    private final RedisClient client;
+
+    private final List<String> prefixes;
+
+    private final List<Cache<?>> caches = new CopyOnWriteArrayList<>();
+
+    private final ConnectionListener connectionListener = new ConnectionListener();
+
+    private volatile StatefulRedisConnection<String, String> connection;
+
+    /**
+     * @param client   客户端，协议版本需要为 RESP3（Lettuce 6 连接 Redis 6 时的默认值）
+     * @param prefixes 需要跟踪的key前缀，即 {@link com.server.base.cache.annotation.Cached#keyWord()}；为空时跟踪全部的key
+     */
+    public RedisTrackingInvalidator(RedisClient client, Collection<String> prefixes) {
+        this.client = client;
+        this.prefixes = normalize(prefixes);
+    }
+
+    /**
+     * 注册需要同步失效的本地缓存
+     *
+     * @throws IllegalArgumentException 缓存不支持 {@link Cache#clear()} 时，连接断开期间无法使它失效
+     */
+    public RedisTrackingInvalidator register(Cache<?> cache) {
+        if (!cache.supportClear()) {
+            throw new IllegalArgumentException(cache.getClass().getName() + " not support clear, can not be invalidated by tracking");
+        }
+        caches.add(cache);
+        return this;
+    }
+
+    public synchronized void start() {
+        if (connection != null) {
+            return;
+        }
+        StatefulRedisConnection<String, String> newConnection = client.connect();
+        newConnection.addListener(this::onPushMessage);
+        connection = newConnection;
+        client.addListener(connectionListener);
+        newConnection.sync().clientTracking(trackingArgs());
+        // 开启跟踪之前写入的本地缓存可能已经过时
+        clearAll();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        client.removeListener(connectionListener);
+        connection.close();
+        connection = null;
+    }
+
+    private void onPushMessage(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        // FLUSHALL、FLUSHDB 时没有具体的key
+        if (!(keys instanceof Collection)) {
+            clearAll();
+            return;
+        }
+        Set<String> invalidKeys = new HashSet<>();
+        for (Object key : (Collection<?>) keys) {
+            String cacheKey = String.valueOf(key);
+            if (!isLockKey(cacheKey)) {
+                invalidKeys.add(cacheKey);
+            }
+        }
+        if (invalidKeys.isEmpty()) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("invalidate local keys {}", invalidKeys);
+        }
+        for (Cache<?> cache : caches) {
+            try {
+                cache.removeAll(invalidKeys);
+            } catch (RuntimeException e) {
+                log.error("invalidate local cache fail", e);
+            }
+        }
+    }
+
+    private void clearAll() {
+        for (Cache<?> cache : caches) {
+            try {
+                cache.clear();
+            } catch (RuntimeException e) {
+                log.error("clear local cache fail", e);
+            }
+        }
+    }
+
+    private TrackingArgs trackingArgs() {
+        TrackingArgs args = TrackingArgs.Builder.enabled().bcast();
+        if (!prefixes.isEmpty()) {
+            args.prefixes(prefixes.toArray(new String[0]));
+        }
+        return args;
+    }
+
+    /**
+     * 加载锁由各级缓存各自持有，不随 Redis 失效
+     */
+    private static boolean isLockKey(String key) {
+        return key.startsWith("$") && key.endsWith("$lock");
+    }
+
+    /**
+     * Redis 不允许 BCAST 的前缀互相重叠，只保留最短的前缀
+     */
+    private static List<String> normalize(Collection<String> prefixes) {
+        List<String> result = new ArrayList<>();
+        for (String prefix : new TreeSet<>(prefixes)) {
+            if (result.isEmpty() || !prefix.startsWith(result.get(result.size() - 1))) {
+                result.add(prefix);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 失效通知连接断开时清空本地缓存，重连后重新开启跟踪并再次清空
+     */
+    private class ConnectionListener implements RedisConnectionStateListener {
+
+        @Override
+        public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+            StatefulRedisConnection<String, String> current = connection;
+            if (current == null || handler != current) {
+                return;
+            }
+            current.async().clientTracking(trackingArgs()).whenComplete((ok, e) -> {
+                if (e != null) {
+                    log.error("enable client tracking fail after reconnect", e);
+                }
+                clearAll();
+            });
+        }
+
+        @Override
+        public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+            if (handler == connection) {
+                log.warn("client tracking connection lost, clear local cache");
+                clearAll();
+            }
+        }
+
+        @Override
+        public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+
+        }
+    }
+}
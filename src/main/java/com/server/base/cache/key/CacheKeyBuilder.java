@@ -1,13 +1,14 @@
 package com.server.base.cache.key;
 
 import com.server.base.cache.annotation.CacheConst;
-import com.server.generic.util.JsonUtils;
+import com.server.base.cache.converter.KeyEncoders;
+import com.server.base.cache.util.MethodAccessors;
 
-import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +34,16 @@ public class CacheKeyBuilder {
      */
     private Class<?> cacheClass;
 
+    /**
+     * 是否把前缀作为 Redis Cluster 的 hash tag
+     */
+    private boolean hashTag;
+
+    /**
+     * 第一次构建key时生成的前缀
+     */
+    private volatile String prefix;
+
 
     public CacheKeyBuilder() {
     }
@@ -43,6 +54,11 @@ public class CacheKeyBuilder {
         this.cacheClass = cacheClass;
     }
 
+    public CacheKeyBuilder(String keyword, String keyValueMethod, Class<?> cacheClass, boolean hashTag) {
+        this(keyword, keyValueMethod, cacheClass);
+        this.hashTag = hashTag;
+    }
+
     /**
      * 构建缓存key
      *
@@ -50,17 +66,13 @@ public class CacheKeyBuilder {
      */
     public List<String> buildKeys(Object param) {
         //1. 生成前缀
-        String prefix = keyword;
-        if (Objects.equals(CacheConst.UNDEFINED_STRING, prefix)) {
-            prefix = buildPrefix(cacheClass, keyValueMethod);
-        }
+        String prefix = prefix();
 
         //2. key前缀部分和key参数值部分的连接
         List<String> cacheKeys;
         if (param instanceof Collection) {
-            String finalPrefix = prefix;
             cacheKeys = ((Collection<?>) param).stream()
-                    .map(oneParam -> buildPrefixAndValue(finalPrefix, oneParam))
+                    .map(oneParam -> buildPrefixAndValue(prefix, oneParam))
                     .collect(Collectors.toList());
         } else {
             cacheKeys = Collections.singletonList(buildPrefixAndValue(prefix,
@@ -78,30 +90,50 @@ public class CacheKeyBuilder {
      * @return
      */
     public Object extractKeyValue(Object[] args, String extractMethod) {
+        return extractKeyValue(args, MethodAccessors.getter(cacheClass, extractMethod));
+    }
+
+    /**
+     * 从更新参数中提取到key的值
+     *
+     * @param args      更新方法aop拦截的参数对象
+     * @param extractor 提取key值的函数
+     * @return
+     */
+    public Object extractKeyValue(Object[] args, Function<Object, Object> extractor) {
         if (args == null || args.length < 1) {
             throw new RuntimeException("no param");
         }
         Object extractArg = args[0];
 
-        try {
-            Method method = cacheClass.getMethod(extractMethod);
-            method.setAccessible(true);
+        if (!(extractArg instanceof Collection)) {
+            return extractor.apply(extractArg);
+        }
+        return ((Collection<?>) extractArg).stream()
+                .map(extractor)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return 缓存key的前缀，与 {@link com.server.base.cache.config.CachePolicy#getKeyWord()} 一致
+     */
+    public String getPrefix() {
+        return prefix();
+    }
 
-            if (!(extractArg instanceof Collection)) {
-                return method.invoke(extractArg);
+    private String prefix() {
+        String result = prefix;
+        if (result == null) {
+            result = keyword;
+            if (Objects.equals(CacheConst.UNDEFINED_STRING, result)) {
+                result = buildPrefix(cacheClass, keyValueMethod);
+            }
+            if (hashTag) {
+                result = hashTag(result);
             }
-            return ((Collection<?>) extractArg).stream()
-                    .map(oneParam -> {
-                        try {
-                            return method.invoke(oneParam);
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                    }).collect(Collectors.toList());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            prefix = result;
         }
-
+        return result;
     }
 
 
@@ -112,6 +144,13 @@ public class CacheKeyBuilder {
         return String.format("%s.%s", cacheClass.toGenericString(), keyValueMethod);
     }
 
+    /**
+     * 把前缀作为 Redis Cluster 的 hash tag，同一前缀的key在同一个 slot
+     */
+    public static String hashTag(String prefix) {
+        return "{" + prefix + "}";
+    }
+
     /**
      * key的前缀和值的构建
      *
@@ -121,7 +160,8 @@ public class CacheKeyBuilder {
      */
     public static String buildPrefixAndValue(String prefix, Object paramValue) {
         // 原有代码：return String.format("%s%s", prefix, JsonUtils.toJsonNode(paramValue));  ，"+"操作比"format"操作性能高20倍
-        return prefix + JsonUtils.toJsonNode(paramValue);
+        // 常用类型不再经过 Jackson，结果与 JsonUtils.toJsonNode(paramValue) 一致
+        return prefix + KeyEncoders.dynamic().encode(paramValue);
     }
 
 }
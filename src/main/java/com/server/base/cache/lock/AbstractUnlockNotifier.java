@@ -0,0 +1,89 @@
+package com.server.base.cache.lock;
+
+import com.server.base.cache.util.CompletableFutures;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 维护本JVM内等待各个锁的线程，收到锁释放的消息后唤醒对应的等待方
+ * 等待超过 timeout 后返回，由调用方回退为重新读取缓存
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public abstract class AbstractUnlockNotifier implements UnlockNotifier {
+
+    private final ConcurrentHashMap<String, Set<LatchWaiter>> waiters = new ConcurrentHashMap<>();
+
+    private final long timeoutMillis;
+
+    protected AbstractUnlockNotifier(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public UnlockWaiter listen(Collection<String> lockKeys) {
+        LatchWaiter waiter = new LatchWaiter(lockKeys);
+        lockKeys.forEach(key -> waiters.compute(key, (k, set) -> {
+            if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
+            }
+            set.add(waiter);
+            return set;
+        }));
+        return waiter;
+    }
+
+    /**
+     * 唤醒等待这些锁的线程
+     */
+    protected void wakeUp(Collection<String> lockKeys) {
+        lockKeys.forEach(key -> {
+            Set<LatchWaiter> set = waiters.get(key);
+            if (set != null) {
+                set.forEach(LatchWaiter::release);
+            }
+        });
+    }
+
+    private class LatchWaiter implements UnlockWaiter {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private final CompletableFuture<Void> released = new CompletableFuture<>();
+
+        private final Collection<String> lockKeys;
+
+        private LatchWaiter(Collection<String> lockKeys) {
+            this.lockKeys = lockKeys;
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            latch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public CompletableFuture<Void> unlocked() {
+            return released.applyToEither(CompletableFutures.delay(timeoutMillis, TimeUnit.MILLISECONDS), v -> null);
+        }
+
+        private void release() {
+            latch.countDown();
+            released.complete(null);
+        }
+
+        @Override
+        public void close() {
+            lockKeys.forEach(key -> waiters.computeIfPresent(key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            }));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.server.base.cache.lock;
+
+import java.util.Collection;
+
+/**
+ * 锁只存在于本JVM内（如本地缓存）时使用，释放锁时直接唤醒本JVM内的等待方
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class LocalUnlockNotifier extends AbstractUnlockNotifier {
+
+    private static final long DEFAULT_TIMEOUT = 100L;
+
+    public LocalUnlockNotifier() {
+        super(DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public void notifyUnlock(Collection<String> lockKeys) {
+        wakeUp(lockKeys);
+    }
+}
@@ -0,0 +1,49 @@
+package com.server.base.cache.lock;
+
+import com.server.base.cache.util.CompletableFutures;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不发送通知，等待方固定休眠后重新读取，即原有的轮询方式
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class PollingUnlockNotifier implements UnlockNotifier {
+
+    public static final PollingUnlockNotifier INSTANCE = new PollingUnlockNotifier(10L);
+
+    private final UnlockWaiter waiter;
+
+    public PollingUnlockNotifier(long intervalMillis) {
+        waiter = new UnlockWaiter() {
+            @Override
+            public void await() throws InterruptedException {
+                TimeUnit.MILLISECONDS.sleep(intervalMillis);
+            }
+
+            @Override
+            public CompletableFuture<Void> unlocked() {
+                return CompletableFutures.delay(intervalMillis, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void close() {
+
+            }
+        };
+    }
+
+    @Override
+    public void notifyUnlock(Collection<String> lockKeys) {
+
+    }
+
+    @Override
+    public UnlockWaiter listen(Collection<String> lockKeys) {
+        return waiter;
+    }
+}
@@ -0,0 +1,101 @@
+package com.server.base.cache.lock;
+
+import com.server.base.cache.util.RedisListenerContainers;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 通过 Redis pub/sub 广播锁释放：持有锁的节点保存数据并释放锁后向 channel 发布锁的key，
+ * 所有节点收到后唤醒本JVM内等待这些锁的线程；消息丢失时等待方在 timeout 后回退为重新读取
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public class RedisUnlockNotifier extends AbstractUnlockNotifier implements AutoCloseable {
+
+    public static final String DEFAULT_CHANNEL = "base-cache:unlock";
+
+    private static final long DEFAULT_TIMEOUT = 100L;
+
+    private static final String SEPARATOR = "\n";
+
+    private final StringRedisTemplate template;
+
+    private final RedisMessageListenerContainer container;
+
+    /**
+     * container 是否由本类创建，是时关闭时销毁，否则只移除本类的监听
+     */
+    private final boolean ownContainer;
+
+    private final MessageListener messageListener = this::onMessage;
+
+    private final ChannelTopic topic;
+
+    public RedisUnlockNotifier(RedisConnectionFactory connectionFactory) {
+        this(connectionFactory, DEFAULT_CHANNEL, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * 使用单独的监听容器
+     *
+     * @param connectionFactory redis连接
+     * @param channel           发布锁释放消息的channel，同一组缓存的所有节点需要一致
+     * @param timeoutMillis     等待通知的最长时间，超时后回退为重新读取
+     */
+    public RedisUnlockNotifier(RedisConnectionFactory connectionFactory, String channel, long timeoutMillis) {
+        this(RedisListenerContainers.create(connectionFactory), channel, timeoutMillis, true);
+    }
+
+    /**
+     * 与 {@link com.server.base.cache.invalidate.RedisInvalidationTransport} 等共用调用方的监听容器，少占用一个订阅连接；
+     * 容器由调用方启动与关闭
+     *
+     * @param channel       发布锁释放消息的channel，同一组缓存的所有节点需要一致
+     * @param timeoutMillis 等待通知的最长时间，超时后回退为重新读取
+     */
+    public RedisUnlockNotifier(RedisMessageListenerContainer container, String channel, long timeoutMillis) {
+        this(container, channel, timeoutMillis, false);
+    }
+
+    private RedisUnlockNotifier(RedisMessageListenerContainer container, String channel, long timeoutMillis, boolean ownContainer) {
+        super(timeoutMillis);
+        this.topic = new ChannelTopic(channel);
+        this.template = new StringRedisTemplate(container.getConnectionFactory());
+        this.container = container;
+        this.ownContainer = ownContainer;
+        container.addMessageListener(messageListener, topic);
+    }
+
+    @Override
+    public void notifyUnlock(Collection<String> lockKeys) {
+        if (lockKeys.isEmpty()) {
+            return;
+        }
+        try {
+            template.convertAndSend(topic.getTopic(), String.join(SEPARATOR, lockKeys));
+        } catch (Exception e) {
+            log.warn("publish unlock message fail, waiters will fall back to polling: {}", e.getMessage());
+        }
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        wakeUp(Arrays.asList(body.split(SEPARATOR)));
+    }
+
+    @Override
+    public void close() {
+        RedisListenerContainers.release(container, ownContainer, messageListener, topic);
+    }
+}
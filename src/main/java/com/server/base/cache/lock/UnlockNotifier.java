@@ -0,0 +1,52 @@
+package com.server.base.cache.lock;
+
+import com.server.base.cache.util.CompletableFutures;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 加载锁（{@code $key$lock}）释放的通知方式
+ * 没有抢到锁的线程在重试前通过 {@link #listen(Collection)} 等待锁被释放，持有锁的线程在保存数据并释放锁后调用 {@link #notifyUnlock(Collection)}
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public interface UnlockNotifier {
+
+    /**
+     * 通知等待方这些锁已经释放，通知失败不影响调用方，等待方会在超时后重新读取
+     *
+     * @param lockKeys 已释放的锁
+     */
+    void notifyUnlock(Collection<String> lockKeys);
+
+    /**
+     * 开始监听锁的释放，需要在尝试加锁之前调用，避免错过加锁失败到开始等待之间发出的通知
+     *
+     * @param lockKeys 要等待的锁
+     * @return 等待器，使用完毕后需要关闭
+     */
+    UnlockWaiter listen(Collection<String> lockKeys);
+
+    interface UnlockWaiter extends AutoCloseable {
+
+        /**
+         * 阻塞直到任意一个锁被释放或超时
+         */
+        void await() throws InterruptedException;
+
+        /**
+         * {@link #await()} 的异步版本，任意一个锁被释放或超时后完成，不占用线程；默认固定等待10毫秒
+         *
+         * @return 在调度线程或通知线程中完成，后续操作不应该阻塞
+         */
+        default CompletableFuture<Void> unlocked() {
+            return CompletableFutures.delay(10L, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        void close();
+    }
+}
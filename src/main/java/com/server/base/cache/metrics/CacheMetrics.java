@@ -0,0 +1,142 @@
+package com.server.base.cache.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存的指标，注册到 Micrometer 的 {@link MeterRegistry}：
+ * <ul>
+ *     <li>{@code base.cache.requests}：LinkCache 每一级按 keyWord 的命中与未命中，tag result 为 hit 或 miss</li>
+ *     <li>{@code base.cache.lock.failures}、{@code base.cache.lock.retries}：加载锁被其他线程或节点持有的次数与重试次数</li>
+ *     <li>{@code base.cache.load}：按 keyWord 统计原方法的耗时</li>
+ *     <li>{@code base.cache.tier.requests}、{@code base.cache.tier.latency}：{@link MetricsCache} 按缓存统计的命中与每种操作的耗时</li>
+ *     <li>{@code base.cache.payload}、{@code base.cache.decode}：{@link MetricsValueConverter} 统计的序列化结果字节数与解码耗时</li>
+ * </ul>
+ * 计数使用 {@link LongAdder}，耗时与字节数发布直方图，按需在 MeterRegistry 中配置百分位
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CacheMetrics {
+
+    public static final String PREFIX = "base.cache";
+
+    private static final String TIER = "tier";
+
+    private static final String KEY_WORD = "keyWord";
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    public void hit(String tier, String keyWord, int count) {
+        if (count > 0) {
+            counter("requests", TIER, tier, KEY_WORD, keyWord(keyWord), "result", "hit").add(count);
+        }
+    }
+
+    public void miss(String tier, String keyWord, int count) {
+        if (count > 0) {
+            counter("requests", TIER, tier, KEY_WORD, keyWord(keyWord), "result", "miss").add(count);
+        }
+    }
+
+    /**
+     * 加锁失败，即锁被其他线程或节点持有
+     */
+    public void lockFailure(String tier, String keyWord, int count) {
+        if (count > 0) {
+            counter("lock.failures", TIER, tier, KEY_WORD, keyWord(keyWord)).add(count);
+        }
+    }
+
+    /**
+     * 等待锁释放后的一次重试
+     */
+    public void lockRetry(String tier, String keyWord) {
+        counter("lock.retries", TIER, tier, KEY_WORD, keyWord(keyWord)).increment();
+    }
+
+    public void load(String keyWord, long nanos) {
+        timer("load", KEY_WORD, keyWord(keyWord)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void tierHit(String tier, int count) {
+        if (count > 0) {
+            counter("tier.requests", TIER, tier, "result", "hit").add(count);
+        }
+    }
+
+    void tierMiss(String tier, int count) {
+        if (count > 0) {
+            counter("tier.requests", TIER, tier, "result", "miss").add(count);
+        }
+    }
+
+    void tierLatency(String tier, String operation, long nanos) {
+        timer("tier.latency", TIER, tier, "operation", operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void payload(String converter, String operation, int bytes) {
+        summary("payload", "converter", converter, "operation", operation).record(bytes);
+    }
+
+    void decode(String converter, long nanos) {
+        timer("decode", "converter", converter).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private LongAdder counter(String name, String... tags) {
+        return counters.computeIfAbsent(id(name, tags), id -> {
+            LongAdder adder = new LongAdder();
+            FunctionCounter.builder(PREFIX + "." + name, adder, LongAdder::doubleValue)
+                    .tags(tags)
+                    .register(registry);
+            return adder;
+        });
+    }
+
+    private Timer timer(String name, String... tags) {
+        return timers.computeIfAbsent(id(name, tags), id -> Timer.builder(PREFIX + "." + name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private DistributionSummary summary(String name, String... tags) {
+        return summaries.computeIfAbsent(id(name, tags), id -> DistributionSummary.builder(PREFIX + "." + name)
+                .tags(tags)
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private static String keyWord(String keyWord) {
+        return keyWord == null ? "none" : keyWord;
+    }
+
+    private static String id(String name, String... tags) {
+        StringBuilder id = new StringBuilder(name);
+        for (String tag : tags) {
+            id.append('\0').append(tag);
+        }
+        return id.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.server.base.cache.metrics;
+
+import com.server.base.cache.container.Cache;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.entity.LazyCacheResult;
+import com.server.base.cache.lock.UnlockNotifier;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 统计每种操作耗时与读取命中率的缓存，tier 用于区分不同的缓存，如 local、redis
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class MetricsCache<V> implements Cache<V> {
+
+    private final Cache<V> cache;
+
+    private final CacheMetrics metrics;
+
+    private final String tier;
+
+    public MetricsCache(Cache<V> cache, CacheMetrics metrics, String tier) {
+        this.cache = cache;
+        this.metrics = metrics;
+        this.tier = tier;
+    }
+
+    @Override
+    public CacheResult<V> get(String key) {
+        long start = System.nanoTime();
+        CacheResult<V> result = cache.get(key);
+        metrics.tierLatency(tier, "get", System.nanoTime() - start);
+        recordHits(1, Collections.singletonMap(key, result));
+        return result;
+    }
+
+    @Override
+    public Map<String, CacheResult<V>> getAll(Set<String> keys) {
+        long start = System.nanoTime();
+        Map<String, CacheResult<V>> result = cache.getAll(keys);
+        metrics.tierLatency(tier, "getAll", System.nanoTime() - start);
+        recordHits(keys.size(), result);
+        return result;
+    }
+
+    @Override
+    public void put(String key, V value, Long expire) {
+        long start = System.nanoTime();
+        cache.put(key, value, expire);
+        metrics.tierLatency(tier, "put", System.nanoTime() - start);
+    }
+
+    @Override
+    public void putAll(Map<String, ? extends V> values, Long expire) {
+        long start = System.nanoTime();
+        cache.putAll(values, expire);
+        metrics.tierLatency(tier, "putAll", System.nanoTime() - start);
+    }
+
+    @Override
+    public boolean putIfNotExist(String key, Long expire) {
+        long start = System.nanoTime();
+        boolean result = cache.putIfNotExist(key, expire);
+        metrics.tierLatency(tier, "putIfNotExist", System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Set<String> putMultiIfNotExist(Set<String> keys, Long expire) {
+        long start = System.nanoTime();
+        Set<String> result = cache.putMultiIfNotExist(keys, expire);
+        metrics.tierLatency(tier, "putMultiIfNotExist", System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public GetOrLockResult<V> getAllOrLock(Map<String, String> lockKeys, Long lockExpire) {
+        long start = System.nanoTime();
+        GetOrLockResult<V> result = cache.getAllOrLock(lockKeys, lockExpire);
+        metrics.tierLatency(tier, "getAllOrLock", System.nanoTime() - start);
+        recordHits(lockKeys.size(), result.getValues());
+        return result;
+    }
+
+    @Override
+    public boolean remove(String key) {
+        long start = System.nanoTime();
+        boolean result = cache.remove(key);
+        metrics.tierLatency(tier, "remove", System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public void removeAll(Set<String> keys) {
+        long start = System.nanoTime();
+        cache.removeAll(keys);
+        metrics.tierLatency(tier, "removeAll", System.nanoTime() - start);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public boolean supportClear() {
+        return cache.supportClear();
+    }
+
+    @Override
+    public UnlockNotifier unlockNotifier() {
+        return cache.unlockNotifier();
+    }
+
+    /**
+     * 延迟解码的结果不为了统计而提前解码，解码时按是否成功计入命中或未命中，与 LinkCache 一致；从未读取数据的结果不计入
+     */
+    private void recordHits(int requested, Map<String, CacheResult<V>> result) {
+        int hits = 0;
+        int deferred = 0;
+        for (CacheResult<V> cacheResult : result.values()) {
+            if (cacheResult instanceof LazyCacheResult && !((LazyCacheResult<V>) cacheResult).isDecoded()) {
+                if (cacheResult.isSuccess()) {
+                    deferred++;
+                    ((LazyCacheResult<V>) cacheResult).whenDecoded(success -> {
+                        if (success) {
+                            metrics.tierHit(tier, 1);
+                        } else {
+                            metrics.tierMiss(tier, 1);
+                        }
+                    });
+                }
+            } else if (cacheResult.isSuccess()) {
+                hits++;
+            }
+        }
+        metrics.tierHit(tier, hits);
+        metrics.tierMiss(tier, requested - hits - deferred);
+    }
+}
@@ -0,0 +1,61 @@
+package com.server.base.cache.metrics;
+
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.exception.ConvertException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 统计序列化结果的字节数与解码耗时的 ValueConverter
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class MetricsValueConverter<V> implements ValueConverter<V> {
+
+    private final ValueConverter<V> delegate;
+
+    private final CacheMetrics metrics;
+
+    private final String name;
+
+    /**
+     * @param name 区分不同 converter 的名称，如使用它的缓存
+     */
+    public MetricsValueConverter(ValueConverter<V> delegate, CacheMetrics metrics, String name) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.name = name;
+    }
+
+    @Override
+    public CacheHolder<V> decode(byte[] value) throws ConvertException {
+        long start = System.nanoTime();
+        CacheHolder<V> result = delegate.decode(value);
+        metrics.decode(name, System.nanoTime() - start);
+        if (value != null) {
+            metrics.payload(name, "decode", value.length);
+        }
+        return result;
+    }
+
+    @Override
+    public CacheHolder<V> decode(ByteBuffer value) throws ConvertException {
+        int length = value.remaining();
+        long start = System.nanoTime();
+        CacheHolder<V> result = delegate.decode(value);
+        metrics.decode(name, System.nanoTime() - start);
+        metrics.payload(name, "decode", length);
+        return result;
+    }
+
+    @Override
+    public byte[] encode(CacheHolder<V> value) {
+        byte[] result = delegate.encode(value);
+        if (result != null) {
+            metrics.payload(name, "encode", result.length);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package com.server.base.cache.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量加载分片并发执行的线程池
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public final class BatchLoadExecutors {
+
+    private BatchLoadExecutors() {
+    }
+
+    /**
+     * Java 21 及以上使用虚拟线程，每个分片一个虚拟线程；否则使用固定大小的守护线程池
+     *
+     * @param fallbackThreads 不支持虚拟线程时线程池的大小
+     */
+    public static ExecutorService newBatchLoadExecutor(int fallbackThreads) {
+        ExecutorService virtual = virtualThreadExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(fallbackThreads, r -> {
+            Thread thread = new Thread(r, "base-cache-batch-load-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 通过反射调用 {@code Executors.newVirtualThreadPerTaskExecutor()}，保持 Java 8 的编译目标
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("create virtual thread executor fail, use platform threads", e);
+            return null;
+        }
+    }
+}
@@ -16,6 +16,13 @@ public final class CacheHolders {
         return buildResult(true, value, expireAt);
     }
 
+    /**
+     * @param expire 过期时长（毫秒），记录的 expireAt 为当前时间加上该时长
+     */
+    public static <T> CacheHolder<T> expireAfter(T value, long expire) {
+        return buildResult(true, value, System.currentTimeMillis() + expire);
+    }
+
     private static <T> CacheHolder<T> buildResult(boolean success, T value, long expireAt) {
         CacheHolder<T> result = new CacheHolder<>();
         result.setData(value);
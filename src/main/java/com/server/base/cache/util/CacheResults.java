@@ -1,6 +1,7 @@
 package com.server.base.cache.util;
 
 import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.LazyCacheResult;
 
 /**
  * @author hanlipeng
@@ -20,6 +21,16 @@ public final class CacheResults {
         return buildResult(false, null, 0);
     }
 
+    /**
+     * 是否命中，需要读取数据的调用方使用：{@link LazyCacheResult} 在这里解码，解码失败视为未命中
+     */
+    public static boolean isHit(CacheResult<?> result) {
+        if (result instanceof LazyCacheResult) {
+            ((LazyCacheResult<?>) result).decode();
+        }
+        return result.isSuccess();
+    }
+
     private static <T> CacheResult<T> buildResult(boolean success, T value, long expireAt) {
         CacheResult<T> result = new CacheResult<>();
         result.setData(value);
@@ -0,0 +1,45 @@
+package com.server.base.cache.util;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis Cluster 的 slot 计算与分组
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public final class ClusterSlots {
+
+    private ClusterSlots() {
+    }
+
+    /**
+     * @return key 所在的 slot，有 hash tag 时只按 tag 计算
+     */
+    public static int slot(String key) {
+        return ClusterSlotHashUtil.calculateSlot(key);
+    }
+
+    /**
+     * 按 slot 分组，每组最多 batchSize 个 key，同一 slot 的 key 超过时拆成多组
+     */
+    public static List<List<String>> groupBySlot(Collection<String> keys, int batchSize) {
+        Map<Integer, List<String>> bySlot = new LinkedHashMap<>();
+        for (String key : keys) {
+            bySlot.computeIfAbsent(slot(key), s -> new ArrayList<>()).add(key);
+        }
+        List<List<String>> groups = new ArrayList<>(bySlot.size());
+        for (List<String> slotKeys : bySlot.values()) {
+            for (int from = 0; from < slotKeys.size(); from += batchSize) {
+                groups.add(slotKeys.subList(from, Math.min(from + batchSize, slotKeys.size())));
+            }
+        }
+        return groups;
+    }
+}
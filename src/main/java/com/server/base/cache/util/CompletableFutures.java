@@ -0,0 +1,74 @@
+package com.server.base.cache.util;
+
+import com.server.base.cache.exception.CacheException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * CompletableFuture 的工具方法，Java 8 中没有 delayedExecutor，延迟由共用的单线程调度器完成
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public final class CompletableFutures {
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "base-cache-delay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CompletableFutures() {
+    }
+
+    /**
+     * @return 在指定时间后完成的 future，只用于触发后续操作，后续操作不应该阻塞调度线程
+     */
+    public static CompletableFuture<Void> delay(long delay, TimeUnit unit) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        SCHEDULER.schedule(() -> future.complete(null), delay, unit);
+        return future;
+    }
+
+    /**
+     * 按顺序合并全部 future 的结果
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    /**
+     * 等待结果，失败时抛出原始的异常
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * 去掉 CompletionException 的包装，非运行时异常包装为 CacheException
+     */
+    public static RuntimeException unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new CacheException("async cache operation fail", cause);
+    }
+}
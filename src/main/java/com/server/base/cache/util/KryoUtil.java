@@ -1,11 +1,14 @@
 package com.server.base.cache.util;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import com.esotericsoftware.kryo.pool.KryoCallback;
+import com.esotericsoftware.kryo.pool.KryoPool;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
 import org.apache.commons.codec.binary.Base64;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 
@@ -17,7 +20,39 @@ public class KryoUtil {
 
     private static final String DEFAULT_ENCODING = "UTF-8";
 
-    private static final ThreadLocal<Kryo> kryoLocal = ThreadLocal.withInitial(() -> {
+    /**
+     * 池中最多保留的 Kryo 实例与缓冲区个数，超过时归还的对象直接丢弃
+     */
+    private static final int POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final int MIN_BUFFER_SIZE = 256;
+
+    /**
+     * 归还的 Output 缓冲区超过最近平均大小的倍数时丢弃，避免偶尔的大对象一直占用内存
+     */
+    private static final int RETAIN_FACTOR = 4;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * kryo 自带的 KryoPool 默认使用无界队列，这里换成有界队列
+     */
+    private static final KryoPool kryoPool = new KryoPool.Builder(KryoUtil::newKryo)
+        .queue(new ArrayBlockingQueue<>(POOL_SIZE))
+        .build();
+
+    private static final ArrayBlockingQueue<Output> outputPool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private static final ArrayBlockingQueue<Input> inputPool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /**
+     * 最近序列化结果的平均大小，用于决定新建缓冲区的大小
+     */
+    private static volatile int averageSize = MIN_BUFFER_SIZE;
+
+    private static final ThreadLocal<Kryo> kryoLocal = ThreadLocal.withInitial(KryoUtil::newKryo);
+
+    private static Kryo newKryo() {
         Kryo kryo = new Kryo();
 
         /**
@@ -36,17 +71,73 @@ public class KryoUtil {
             .setFallbackInstantiatorStrategy(new StdInstantiatorStrategy());
 
         return kryo;
-    });
+    }
 
     /**
      * 获得当前线程的 Kryo 实例
      *
      * @return 当前线程的 Kryo 实例
+     * @deprecated 每个线程保留一个实例，线程多时占用大量内存，使用 {@link #run(KryoCallback)}
      */
+    @Deprecated
     public static Kryo getInstance() {
         return kryoLocal.get();
     }
 
+    /**
+     * 从池中借出 Kryo 实例执行，执行完归还
+     */
+    public static <T> T run(KryoCallback<T> callback) {
+        return kryoPool.run(callback);
+    }
+
+    private static Output borrowOutput() {
+        Output output = outputPool.poll();
+        if (output == null) {
+            int size = Integer.highestOneBit(Math.max(MIN_BUFFER_SIZE, averageSize * 2) - 1) << 1;
+            output = new Output(size, -1);
+        }
+        return output;
+    }
+
+    private static byte[] toBytesAndRelease(Output output) {
+        byte[] bytes = output.toBytes();
+        // 最近 16 次的指数平均
+        int average = averageSize;
+        averageSize = average + ((bytes.length - average) >> 4);
+        if (output.getBuffer().length <= Math.max(MIN_BUFFER_SIZE, averageSize) * RETAIN_FACTOR) {
+            output.clear();
+            outputPool.offer(output);
+        }
+        return bytes;
+    }
+
+    private static Input borrowInput(byte[] byteArray) {
+        Input input = inputPool.poll();
+        if (input == null) {
+            return new Input(byteArray);
+        }
+        input.setBuffer(byteArray);
+        return input;
+    }
+
+    private static void releaseInput(Input input) {
+        // 不再引用已经读取的字节
+        input.setBuffer(EMPTY);
+        inputPool.offer(input);
+    }
+
+    /**
+     * 深复制对象，不经过序列化
+     *
+     * @param obj 任意对象
+     * @param <T> 对象的类型
+     * @return 复制后的对象
+     */
+    public static <T> T copy(T obj) {
+        return run(kryo -> kryo.copy(obj));
+    }
+
     //-----------------------------------------------
     //          序列化/反序列化对象，及类型信息
     //          序列化的结果里，包含类型的信息
@@ -61,14 +152,18 @@ public class KryoUtil {
      * @return 序列化后的字节数组
      */
     public static <T> byte[] writeToByteArray(T obj) {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        Output output = new Output(byteArrayOutputStream);
-
-        Kryo kryo = getInstance();
-        kryo.writeClassAndObject(output, obj);
-        output.flush();
-
-        return byteArrayOutputStream.toByteArray();
+        Output output = borrowOutput();
+        Kryo kryo = kryoPool.borrow();
+        try {
+            kryo.writeClassAndObject(output, obj);
+        } catch (RuntimeException e) {
+            output.clear();
+            outputPool.offer(output);
+            throw e;
+        } finally {
+            kryoPool.release(kryo);
+        }
+        return toBytesAndRelease(output);
     }
 
     /**
@@ -95,11 +190,33 @@ public class KryoUtil {
      */
     @SuppressWarnings("unchecked")
     public static <T> T readFromByteArray(byte[] byteArray) {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(byteArray);
-        Input input = new Input(byteArrayInputStream);
+        Input input = borrowInput(byteArray);
+        Kryo kryo = kryoPool.borrow();
+        try {
+            return (T) kryo.readClassAndObject(input);
+        } finally {
+            kryoPool.release(kryo);
+            releaseInput(input);
+        }
+    }
 
-        Kryo kryo = getInstance();
-        return (T) kryo.readClassAndObject(input);
+    /**
+     * 直接从 ByteBuffer（包括堆外内存）中反序列化原对象，不复制为 byte[]
+     *
+     * @param buffer position 到 limit 之间为 writeToByteArray 方法序列化后的字节
+     * @param <T> 原对象的类型
+     * @return 原对象
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T readFromByteBuffer(ByteBuffer buffer) {
+        Input input = new ByteBufferInput(buffer.slice());
+
+        Kryo kryo = kryoPool.borrow();
+        try {
+            return (T) kryo.readClassAndObject(input);
+        } finally {
+            kryoPool.release(kryo);
+        }
     }
 
     /**
@@ -130,14 +247,18 @@ public class KryoUtil {
      * @return 序列化后的字节数组
      */
     public static <T> byte[] writeObjectToByteArray(T obj) {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        Output output = new Output(byteArrayOutputStream);
-
-        Kryo kryo = getInstance();
-        kryo.writeObject(output, obj);
-        output.flush();
-
-        return byteArrayOutputStream.toByteArray();
+        Output output = borrowOutput();
+        Kryo kryo = kryoPool.borrow();
+        try {
+            kryo.writeObject(output, obj);
+        } catch (RuntimeException e) {
+            output.clear();
+            outputPool.offer(output);
+            throw e;
+        } finally {
+            kryoPool.release(kryo);
+        }
+        return toBytesAndRelease(output);
     }
 
     /**
@@ -165,11 +286,14 @@ public class KryoUtil {
      */
     @SuppressWarnings("unchecked")
     public static <T> T readObjectFromByteArray(byte[] byteArray, Class<T> clazz) {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(byteArray);
-        Input input = new Input(byteArrayInputStream);
-
-        Kryo kryo = getInstance();
-        return kryo.readObject(input, clazz);
+        Input input = borrowInput(byteArray);
+        Kryo kryo = kryoPool.borrow();
+        try {
+            return kryo.readObject(input, clazz);
+        } finally {
+            kryoPool.release(kryo);
+            releaseInput(input);
+        }
     }
 
     /**
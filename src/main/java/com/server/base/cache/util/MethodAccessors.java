@@ -0,0 +1,88 @@
+package com.server.base.cache.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 把无参的 getter 方法绑定为 {@link Function}，每个类和方法名只解析一次
+ * <p>
+ * 优先通过 LambdaMetafactory 生成实现类，调用开销与直接调用相同；
+ * 类不可访问或类加载器不同导致生成失败时，退化为 {@link MethodHandle}
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public final class MethodAccessors {
+
+    private static final MethodType FUNCTION_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<ConcurrentHashMap<String, Function<Object, Object>>> ACCESSORS =
+            new ClassValue<ConcurrentHashMap<String, Function<Object, Object>>>() {
+                @Override
+                protected ConcurrentHashMap<String, Function<Object, Object>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private MethodAccessors() {
+    }
+
+    /**
+     * @param clazz      方法所在的类
+     * @param methodName public 无参方法名
+     * @return 调用该方法的函数，方法抛出的异常包装为 RuntimeException
+     */
+    public static Function<Object, Object> getter(Class<?> clazz, String methodName) {
+        return ACCESSORS.get(clazz).computeIfAbsent(methodName, name -> build(clazz, name));
+    }
+
+    private static Function<Object, Object> build(Class<?> clazz, String methodName) {
+        Method method;
+        MethodHandle handle;
+        try {
+            method = clazz.getMethod(methodName);
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        try {
+            return metafactory(handle);
+        } catch (Throwable e) {
+            if (log.isDebugEnabled()) {
+                log.debug("fall back to method handle for {}.{}", clazz.getName(), methodName, e);
+            }
+        }
+        MethodHandle generic = handle.asType(FUNCTION_TYPE);
+        return obj -> {
+            try {
+                return generic.invokeExact(obj);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> metafactory(MethodHandle handle) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        CallSite site = LambdaMetafactory.metafactory(lookup,
+                "apply",
+                MethodType.methodType(Function.class),
+                FUNCTION_TYPE,
+                handle,
+                handle.type().wrap());
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+}
@@ -0,0 +1,46 @@
+package com.server.base.cache.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis pub/sub 监听容器的创建与释放，锁释放通知与失效广播可以各自创建，也可以共用调用方的容器
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public final class RedisListenerContainers {
+
+    private RedisListenerContainers() {
+    }
+
+    /**
+     * @return 已经启动的监听容器
+     */
+    public static RedisMessageListenerContainer create(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+
+    /**
+     * 自行创建的容器直接销毁，共用的容器只移除自己的监听
+     */
+    public static void release(RedisMessageListenerContainer container, boolean own, MessageListener listener, ChannelTopic topic) {
+        try {
+            if (own) {
+                container.destroy();
+            } else {
+                container.removeMessageListener(listener, topic);
+            }
+        } catch (Exception e) {
+            log.warn("release redis listener container fail", e);
+        }
+    }
+}
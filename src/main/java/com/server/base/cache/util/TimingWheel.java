@@ -0,0 +1,330 @@
+package com.server.base.cache.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 分层时间轮，所有本地缓存共用一个实例（{@link #shared()}）和一个后台线程来执行过期删除
+ * <p>
+ * 添加与取消任务只是把任务放入无锁队列，由后台线程在每个tick时放入对应的槽位或从槽位中摘除，
+ * 因此写路径上没有锁；被取消的任务会在下一个tick从槽位中移除，内存占用与未过期的任务数一致
+ * <p>
+ * 第0层每个槽位对应一个tick，第n层每个槽位对应第n-1层转一圈的时间，到达时把槽位中的任务重新放入低层；
+ * 默认 tick 为10ms，每层256个槽位，共4层，可以覆盖约497天，更久的任务会在最高层转动时重新计算位置
+ * <p>
+ * 自行创建的时间轮不再使用时需要调用 {@link #close()} 停止后台线程；共用的时间轮随JVM存在，不能关闭
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+@Slf4j
+public final class TimingWheel implements AutoCloseable {
+
+    private static final TimingWheel SHARED = new TimingWheel("base-cache-timing-wheel", 10L, TimeUnit.MILLISECONDS, 8, 4);
+
+    private final long tickNanos;
+
+    private final int bits;
+
+    private final int mask;
+
+    private final Bucket[][] wheels;
+
+    private final long startNanos;
+
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 超出最高层范围的任务
+     */
+    private final Bucket overflow = new Bucket();
+
+    /**
+     * 已经处理到的tick，只在后台线程中读写
+     */
+    private long currentTick;
+
+    private final Thread worker;
+
+    private volatile boolean closed;
+
+    /**
+     * @param threadName 后台线程名
+     * @param tick       每个tick的时长，即过期删除的精度
+     * @param unit       tick的单位
+     * @param bits       每层槽位数为 2^bits
+     * @param levels     层数
+     */
+    public TimingWheel(String threadName, long tick, TimeUnit unit, int bits, int levels) {
+        this.tickNanos = unit.toNanos(tick);
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        this.wheels = new Bucket[levels][1 << bits];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 所有本地缓存共用的时间轮
+     */
+    public static TimingWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * 在 delay 之后执行 task，task 在后台线程中执行，应当足够轻量
+     *
+     * @return 可以用来取消任务的句柄，时间轮已经关闭时返回已取消的句柄
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        long deadline = System.nanoTime() + unit.toNanos(delay);
+        long expireTick = Math.max(0L, (deadline - startNanos + tickNanos - 1) / tickNanos);
+        Timeout timeout = new Timeout(this, expireTick, task);
+        if (closed) {
+            timeout.state = Timeout.CANCELLED;
+            return timeout;
+        }
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * 停止后台线程，未执行的任务不再执行
+     *
+     * @throws IllegalStateException 关闭共用的时间轮时
+     */
+    @Override
+    public void close() {
+        if (this == SHARED) {
+            throw new IllegalStateException("shared timing wheel can not be closed");
+        }
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pending.clear();
+        cancelled.clear();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                long targetTick = (System.nanoTime() - startNanos) / tickNanos;
+                while (currentTick < targetTick) {
+                    currentTick++;
+                    transfer();
+                    advance();
+                }
+                transfer();
+                long sleepNanos = startNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+                if (sleepNanos > 0) {
+                    LockSupport.parkNanos(this, sleepNanos);
+                }
+            } catch (Throwable e) {
+                log.error("timing wheel tick fail", e);
+            }
+        }
+    }
+
+    /**
+     * 把新加入的任务放入槽位，把取消的任务从槽位中移除
+     */
+    private void transfer() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state == Timeout.INIT) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void advance() {
+        for (int level = wheels.length - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                if (level == wheels.length - 1) {
+                    replace(overflow);
+                }
+                replace(wheels[level][(int) ((currentTick >>> (bits * level)) & mask)]);
+            }
+        }
+        Bucket bucket = wheels[0][(int) (currentTick & mask)];
+        for (Timeout timeout : bucket.drain()) {
+            timeout.expire();
+        }
+    }
+
+    private void replace(Bucket bucket) {
+        for (Timeout timeout : bucket.drain()) {
+            place(timeout);
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long expireTick = timeout.expireTick;
+        if (expireTick <= currentTick) {
+            timeout.expire();
+            return;
+        }
+        long diff = expireTick ^ currentTick;
+        for (int level = 0; level < wheels.length; level++) {
+            // 高于本层的部分与当前tick一致，说明本层转动到该槽位之前不会经过更高层的槽位
+            if ((diff >>> (bits * (level + 1))) == 0) {
+                wheels[level][(int) ((expireTick >>> (bits * level)) & mask)].add(timeout);
+                return;
+            }
+        }
+        overflow.add(timeout);
+    }
+
+    /**
+     * 时间轮中的一个任务
+     */
+    public static final class Timeout {
+
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel wheel;
+
+        private final long expireTick;
+
+        private final Runnable task;
+
+        private volatile int state = INIT;
+
+        // 以下字段只在后台线程中读写
+        private Bucket bucket;
+
+        private Timeout prev;
+
+        private Timeout next;
+
+        private Timeout(TimingWheel wheel, long expireTick, Runnable task) {
+            this.wheel = wheel;
+            this.expireTick = expireTick;
+            this.task = task;
+        }
+
+        /**
+         * 取消任务，已经执行或已经取消时没有任何效果
+         */
+        public void cancel() {
+            if (STATE.compareAndSet(this, INIT, CANCELLED)) {
+                wheel.cancelled.add(this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, INIT, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                log.error("timing wheel task fail", e);
+            }
+        }
+    }
+
+    /**
+     * 槽位，双向链表，只在后台线程中读写
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /**
+         * 取出槽位中所有未取消的任务，并清空槽位
+         */
+        private List<Timeout> drain() {
+            List<Timeout> result = new ArrayList<>();
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                timeout.bucket = null;
+                timeout.prev = null;
+                timeout.next = null;
+                if (timeout.state == Timeout.INIT) {
+                    result.add(timeout);
+                }
+                timeout = next;
+            }
+            head = null;
+            tail = null;
+            return result;
+        }
+    }
+}
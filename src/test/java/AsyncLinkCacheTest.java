@@ -0,0 +1,246 @@
+import com.server.base.cache.config.CachePolicy;
+import com.server.base.cache.container.AsyncCacheAdapter;
+import com.server.base.cache.container.AsyncLinkCache;
+import com.server.base.cache.container.BlockingDataCache;
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.LazyCacheResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class AsyncLinkCacheTest {
+
+    private final CachePolicy policy = CachePolicy.of(true, 10000L, 10000L);
+
+    @Test
+    public void testSingleFlight() {
+        AsyncLinkCache<String> linkCache = buildLinkCache();
+        AtomicInteger loadCount = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        Function<String, CompletableFuture<String>> loader = key -> {
+            loadCount.incrementAndGet();
+            return pending;
+        };
+        List<CompletableFuture<Collection<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(linkCache.getCacheOrLoad("a", loader, key -> "single:" + key, policy));
+        }
+        futures.forEach(future -> Assertions.assertFalse(future.isDone()));
+        pending.complete("value");
+        futures.forEach(future -> Assertions.assertEquals(new ArrayList<>(Arrays.asList("value")), new ArrayList<>(future.join())));
+        Assertions.assertEquals(1, loadCount.get());
+
+        // 已经写入缓存，不再调用原方法
+        linkCache.getCacheOrLoad("a", loader, key -> "single:" + key, policy).join();
+        Assertions.assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testList() {
+        AsyncLinkCache<String> linkCache = buildLinkCache();
+        AtomicInteger loadCount = new AtomicInteger();
+        Function<Collection<String>, CompletableFuture<? extends Collection<String>>> loader = params -> {
+            loadCount.addAndGet(params.size());
+            return CompletableFuture.supplyAsync(() -> params.stream().filter(p -> !p.equals("none")).collect(Collectors.toList()));
+        };
+        List<String> first = linkCache.getCacheOrLoadList(Arrays.asList("a", "b", "none"), loader, key -> "list:" + key, data -> (String) data, policy).join();
+        Assertions.assertEquals(2, first.size());
+        Assertions.assertTrue(first.containsAll(Arrays.asList("a", "b")));
+
+        List<String> second = linkCache.getCacheOrLoadList(Arrays.asList("a", "c", "none"), loader, key -> "list:" + key, data -> (String) data, policy).join();
+        Assertions.assertEquals(2, second.size());
+        Assertions.assertTrue(second.containsAll(Arrays.asList("a", "c")));
+        // 第二次只加载 c，a 与缓存的null值直接命中
+        Assertions.assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    public void testLoaderFail() {
+        AsyncLinkCache<String> linkCache = buildLinkCache();
+        CompletableFuture<Collection<String>> future = linkCache.getCacheOrLoad("a", key -> {
+            throw new IllegalStateException("fail");
+        }, key -> "fail:" + key, policy);
+        Assertions.assertThrows(Exception.class, future::join);
+
+        // 失败后锁已释放，可以重新加载
+        Collection<String> result = linkCache.getCacheOrLoad("a", CompletableFuture::completedFuture, key -> "fail:" + key, policy).join();
+        Assertions.assertEquals(new ArrayList<>(Arrays.asList("a")), new ArrayList<>(result));
+    }
+
+    @Test
+    public void testBlockingAdapter() {
+        ExecutorService loaderExecutor = Executors.newFixedThreadPool(2);
+        try {
+            BlockingDataCache<String> dataCache = new BlockingDataCache<>(buildLinkCache(), loaderExecutor);
+            AtomicInteger loadCount = new AtomicInteger();
+            Function<String, String> loader = key -> {
+                loadCount.incrementAndGet();
+                return key + "-value";
+            };
+            Assertions.assertEquals(new ArrayList<>(Arrays.asList("a-value")),
+                    new ArrayList<>(dataCache.getCacheOrLoad("a", loader, key -> "blocking:" + key, policy)));
+            Assertions.assertEquals(new ArrayList<>(Arrays.asList("a-value")),
+                    new ArrayList<>(dataCache.getCacheOrLoad("a", loader, key -> "blocking:" + key, policy)));
+            Assertions.assertEquals(1, loadCount.get());
+        } finally {
+            loaderExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLocalExpire() {
+        GuavaCache<Collection<String>> local = new GuavaCache<>(new KryoValueConverter<>(), 100);
+        GuavaCache<Collection<String>> remote = new GuavaCache<>(new KryoValueConverter<>(), 100);
+        AsyncLinkCache<String> linkCache = new AsyncLinkCache<>(Arrays.asList(new AsyncCacheAdapter<>(local), new AsyncCacheAdapter<>(remote)));
+        CachePolicy localPolicy = CachePolicy.of(true, 60_000L, 10L);
+        localPolicy.setLocalExpire(5_000L);
+
+        linkCache.getCacheOrLoad("1", key -> CompletableFuture.completedFuture("cache" + key), key -> "expire:" + key, localPolicy).join();
+        long now = System.currentTimeMillis();
+        Assertions.assertTrue(local.get("expire:1").getExpireAt() - now <= 5_000L);
+        Assertions.assertTrue(remote.get("expire:1").getExpireAt() - now > 5_000L);
+
+        // 本地缓存从远程缓存读取时，过期时间不超过远程缓存剩余的时间
+        remote.put("expire:2", Collections.singletonList("cache2"), 1_000L);
+        remote.put("expire:3", Collections.singletonList("cache3"), 1_000L);
+        linkCache.getCacheOrLoad("2", key -> CompletableFuture.completedFuture("cache" + key), key -> "expire:" + key, localPolicy).join();
+        linkCache.getCacheOrLoadList(Arrays.asList("3", "4"), params -> CompletableFuture.completedFuture(
+                params.stream().map(p -> "cache" + p).collect(Collectors.toList())),
+                key -> "expire:" + key, data -> ((String) data).replace("cache", ""), localPolicy).join();
+        assertExpireNotAfter(local.get("expire:2").getExpireAt(), remote.get("expire:2").getExpireAt());
+        assertExpireNotAfter(local.get("expire:3").getExpireAt(), remote.get("expire:3").getExpireAt());
+        Assertions.assertTrue(local.get("expire:4").getExpireAt() - System.currentTimeMillis() <= 5_000L);
+    }
+
+    @Test
+    public void testWaitForUnlock() throws Exception {
+        AtomicInteger reads = new AtomicInteger();
+        GuavaCache<Collection<String>> shared = new GuavaCache<Collection<String>>(new KryoValueConverter<>(), 100) {
+            @Override
+            public CacheResult<Collection<String>> get(String key) {
+                reads.incrementAndGet();
+                return super.get(key);
+            }
+        };
+        // 两个节点共用同一个缓存与锁
+        AsyncLinkCache<String> holder = new AsyncLinkCache<>(Collections.singletonList(new AsyncCacheAdapter<>(shared)));
+        AsyncLinkCache<String> waiter = new AsyncLinkCache<>(Collections.singletonList(new AsyncCacheAdapter<>(shared)));
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<Collection<String>> loading = holder.getCacheOrLoad("a", key -> pending, key -> "unlock:" + key, policy);
+        AtomicInteger loadCount = new AtomicInteger();
+        CompletableFuture<Collection<String>> waiting = waiter.getCacheOrLoad("a", key -> {
+            loadCount.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        }, key -> "unlock:" + key, policy);
+        TimeUnit.MILLISECONDS.sleep(300);
+        Assertions.assertFalse(waiting.isDone());
+        pending.complete("value");
+        Assertions.assertEquals(Collections.singletonList("value"), new ArrayList<>(loading.join()));
+        Assertions.assertEquals(Collections.singletonList("value"), new ArrayList<>(waiting.get(1, TimeUnit.SECONDS)));
+        Assertions.assertEquals(0, loadCount.get());
+        // 等待期间不再每10毫秒重新读取，只在通知或等待超时后读取
+        Assertions.assertTrue(reads.get() <= 8, "reads " + reads.get());
+    }
+
+    @Test
+    public void testCorruptLazyValueIsReloaded() {
+        CorruptibleCache local = new CorruptibleCache();
+        List<AsyncCacheAdapter<Collection<String>>> caches = new ArrayList<>();
+        caches.add(new AsyncCacheAdapter<>(local));
+        AsyncLinkCache<String> linkCache = new AsyncLinkCache<>(caches);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        local.put("corrupt:a", Collections.singletonList("old"), 10000L);
+        local.corrupt.add("corrupt:a");
+        Collection<String> single = linkCache.getCacheOrLoad("a", key -> {
+            loadCount.incrementAndGet();
+            return CompletableFuture.completedFuture(key + "-value");
+        }, key -> "corrupt:" + key, policy).join();
+        Assertions.assertEquals(Collections.singletonList("a-value"), new ArrayList<>(single));
+
+        local.put("corrupt:b", Collections.singletonList("old"), 10000L);
+        local.corrupt.add("corrupt:b");
+        List<String> list = linkCache.getCacheOrLoadList(Arrays.asList("a", "b"), params -> {
+            loadCount.addAndGet(params.size());
+            return CompletableFuture.completedFuture(new ArrayList<>(params));
+        }, key -> "corrupt:" + key, data -> (String) data, policy).join();
+        Assertions.assertEquals(Arrays.asList("a-value", "b"), list.stream().sorted().collect(Collectors.toList()));
+        // 解码失败的值视为未命中并重新加载，a 已经写入缓存
+        Assertions.assertEquals(2, loadCount.get());
+    }
+
+    private AsyncLinkCache<String> buildLinkCache() {
+        List<AsyncCacheAdapter<Collection<String>>> caches = new ArrayList<>();
+        caches.add(new AsyncCacheAdapter<>(new GuavaCache<>(new KryoValueConverter<>(), 100)));
+        caches.add(new AsyncCacheAdapter<>(new GuavaCache<>(new KryoValueConverter<>(), 100)));
+        return new AsyncLinkCache<>(caches);
+    }
+
+    /**
+     * corrupt 中的key返回无法解码的 {@link LazyCacheResult}，与 RedisCache 开启延迟解码时读取到损坏的值相同
+     */
+    private static class CorruptibleCache extends GuavaCache<Collection<String>> {
+
+        private final Set<String> corrupt = ConcurrentHashMap.newKeySet();
+
+        CorruptibleCache() {
+            super(new KryoValueConverter<>(), 100);
+        }
+
+        @Override
+        public CacheResult<Collection<String>> get(String key) {
+            if (corrupt.contains(key)) {
+                return new LazyCacheResult<>(new byte[]{1, 2, 3}, new KryoValueConverter<>());
+            }
+            return super.get(key);
+        }
+
+        @Override
+        public Map<String, CacheResult<Collection<String>>> getAll(Set<String> keys) {
+            Map<String, CacheResult<Collection<String>>> result = new HashMap<>();
+            keys.forEach(key -> result.put(key, get(key)));
+            return result;
+        }
+
+        @Override
+        public void put(String key, Collection<String> value, Long expire) {
+            corrupt.remove(key);
+            super.put(key, value, expire);
+        }
+
+        @Override
+        public void putAll(Map<String, ? extends Collection<String>> values, Long expire) {
+            corrupt.removeAll(values.keySet());
+            super.putAll(values, expire);
+        }
+    }
+
+    /**
+     * 本级缓存的过期时间点不晚于下一级缓存，允许写入时线程被挂起产生的少量误差
+     */
+    private static void assertExpireNotAfter(long expireAt, long nextExpireAt) {
+        Assertions.assertTrue(expireAt <= nextExpireAt + 50, expireAt + " > " + nextExpireAt);
+    }
+}
@@ -1,11 +1,23 @@
+import cache.removekey.Student;
+import com.server.base.cache.config.CachePolicy;
 import com.server.base.cache.container.Cache;
 import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.container.LinkCache;
+import com.server.base.cache.container.ReferencePolicy;
 import com.server.base.cache.converter.KryoValueConverter;
 import com.server.base.cache.entity.CacheResult;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author hanlipeng
@@ -54,6 +66,54 @@ public class CacheTest {
         Assertions.assertFalse(out2.isSuccess());
     }
 
+    @Test
+    public void testReferenceTrust() {
+        Cache<List<String>> trust = new GuavaCache<>(new KryoValueConverter<>(), 100, ReferencePolicy.TRUST);
+        List<String> in = new ArrayList<>(Arrays.asList("a", "b"));
+        trust.put("test", in, 10000L);
+        Assertions.assertSame(in, trust.get("test").getData());
+        Assertions.assertSame(in, trust.getAll(Collections.singleton("test")).get("test").getData());
+    }
+
+    @Test
+    public void testReferenceCopyOnRead() {
+        Cache<List<String>> copy = new GuavaCache<>(new KryoValueConverter<>(), 100, ReferencePolicy.COPY_ON_READ);
+        List<String> in = new ArrayList<>(Arrays.asList("a", "b"));
+        copy.put("test", in, 10000L);
+        List<String> out = copy.get("test").getData();
+        Assertions.assertEquals(in, out);
+        Assertions.assertNotSame(in, out);
+        out.add("c");
+        Assertions.assertEquals(in, copy.get("test").getData());
+    }
+
+    @Test
+    public void testReferenceCopyOnPut() {
+        Cache<Collection<Student>> local = new GuavaCache<>(new KryoValueConverter<>(), 100, ReferencePolicy.COPY_ON_READ);
+        LinkCache<Student> linkCache = new LinkCache<>(Arrays.asList(local, new GuavaCache<>(new KryoValueConverter<>(), 100)));
+        CachePolicy policy = CachePolicy.of(false, 10000L, 10000L);
+        Function<Collection<Long>, Object> loader = ids -> ids.stream()
+                .map(id -> Student.builder().id(id).name("a").build()).collect(Collectors.toList());
+        List<Long> ids = Arrays.asList(1L, 2L);
+
+        List<Student> loaded = linkCache.getCacheOrLoadList(ids, loader, id -> "student:" + id, s -> ((Student) s).getId(), policy);
+        // 修改刚加载的结果不影响缓存中的对象
+        loaded.get(0).setName("b");
+        loaded.clear();
+        List<Student> cached = linkCache.getCacheOrLoadList(ids, loader, id -> "student:" + id, s -> ((Student) s).getId(), policy);
+        Assertions.assertEquals(Arrays.asList(Student.builder().id(1L).name("a").build(), Student.builder().id(2L).name("a").build()),
+                cached.stream().sorted(Comparator.comparing(Student::getId)).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testReferenceFreeze() {
+        Cache<List<String>> freeze = new GuavaCache<>(new KryoValueConverter<>(), 100, ReferencePolicy.FREEZE);
+        freeze.put("test", new ArrayList<>(Arrays.asList("a", "b")), 10000L);
+        List<String> out = freeze.get("test").getData();
+        Assertions.assertEquals(Arrays.asList("a", "b"), out);
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> out.add("c"));
+    }
+
     @Test
     public void testRandomExpireCache() throws InterruptedException {
 //        GuavaCache<K, V> guavaCache = new GuavaCache<>(new KryoValueConverter<Object>(), new JsonKeyEncoder<Long>());
@@ -0,0 +1,85 @@
+import com.server.base.cache.container.CaffeineCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.entity.GetOrLockResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CaffeineCacheTest {
+
+    CaffeineCache<String> cache = new CaffeineCache<>(new KryoValueConverter<>(), 100);
+
+    @Test
+    public void testPerEntryExpire() throws InterruptedException {
+        String in = "test";
+        cache.put("test1", in, 500L);
+        cache.put("test2", in, 3000L);
+        Assertions.assertEquals(in, cache.get("test1").getData());
+        TimeUnit.MILLISECONDS.sleep(1000L);
+        Assertions.assertFalse(cache.get("test1").isSuccess());
+        Assertions.assertEquals(in, cache.get("test2").getData());
+        Assertions.assertEquals(2, cache.stats().hitCount());
+        Assertions.assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void testPutIfNotExist() throws InterruptedException {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicInteger success = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    if (cache.putIfNotExist("lock", 500L)) {
+                        success.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        done.await();
+        pool.shutdown();
+        Assertions.assertEquals(1, success.get());
+        TimeUnit.MILLISECONDS.sleep(700L);
+        Assertions.assertTrue(cache.putIfNotExist("lock", 500L));
+
+        Set<String> keys = new HashSet<>(Arrays.asList("lock", "a", "b"));
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("a", "b")), cache.putMultiIfNotExist(keys, 500L));
+    }
+
+    @Test
+    public void testGetAllOrLock() {
+        cache.put("hit", "value", 3000L);
+        cache.putIfNotExist("$lockedByOther$lock", 3000L);
+        Map<String, String> lockKeys = new HashMap<>();
+        lockKeys.put("hit", "$hit$lock");
+        lockKeys.put("miss", "$miss$lock");
+        lockKeys.put("lockedByOther", "$lockedByOther$lock");
+        GetOrLockResult<String> result = cache.getAllOrLock(lockKeys, 3000L);
+        Assertions.assertEquals("value", result.getValues().get("hit").getData());
+        Assertions.assertFalse(result.getValues().get("miss").isSuccess());
+        Assertions.assertFalse(result.getValues().get("lockedByOther").isSuccess());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("$miss$lock")), result.getLocked());
+    }
+}
@@ -0,0 +1,75 @@
+import com.server.base.cache.container.OffHeapCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class OffHeapCacheTest {
+
+    @Test
+    public void testPutGet() throws InterruptedException {
+        OffHeapCache<Collection<String>> cache = new OffHeapCache<>(new KryoValueConverter<>(), 16 << 20);
+        List<String> in = new ArrayList<>(Arrays.asList("a", "b", "c"));
+        cache.put("test", in, 500L);
+        Assertions.assertEquals(in, cache.get("test").getData());
+        cache.put("test", new ArrayList<>(Arrays.asList("d")), 500L);
+        Assertions.assertEquals(Arrays.asList("d"), cache.get("test").getData());
+        TimeUnit.MILLISECONDS.sleep(700L);
+        Assertions.assertFalse(cache.get("test").isSuccess());
+        cache.close();
+    }
+
+    @Test
+    public void testEvict() {
+        // 一段，一页4KB，最多两页
+        OffHeapCache<String> cache = new OffHeapCache<>(new KryoValueConverter<>(), 8 << 10, 1, 4 << 10);
+        char[] chars = new char[100];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String key = "key" + i;
+            keys.add(key);
+            cache.put(key, value, 10000L);
+            // 第一个 key 一直被访问，不会被淘汰
+            Assertions.assertEquals(value, cache.get("key0").getData());
+        }
+        Assertions.assertEquals(8 << 10, cache.allocatedBytes());
+        Assertions.assertTrue(cache.get("key0").isSuccess());
+        Assertions.assertFalse(cache.get("key1").isSuccess());
+        Assertions.assertEquals(value, cache.get("key199").getData());
+        long hit = keys.stream().filter(k -> cache.get(k).isSuccess()).count();
+        Assertions.assertTrue(hit < 200);
+
+        // 其他大小的数据从已有的块大小中回收一页
+        String other = new String(new char[1000]);
+        cache.put("other", other, 10000L);
+        Assertions.assertEquals(other, cache.get("other").getData());
+        Assertions.assertEquals(8 << 10, cache.allocatedBytes());
+
+        // 超过一页的数据不缓存
+        cache.put("large", new String(new char[5000]), 10000L);
+        Assertions.assertFalse(cache.get("large").isSuccess());
+    }
+
+    @Test
+    public void testPutIfNotExist() throws InterruptedException {
+        OffHeapCache<String> cache = new OffHeapCache<>(new KryoValueConverter<>(), 1 << 20);
+        Assertions.assertTrue(cache.putIfNotExist("lock", 300L));
+        Assertions.assertFalse(cache.putIfNotExist("lock", 300L));
+        Assertions.assertFalse(cache.get("lock").isSuccess());
+        TimeUnit.MILLISECONDS.sleep(500L);
+        Assertions.assertTrue(cache.putIfNotExist("lock", 300L));
+        cache.remove("lock");
+        Assertions.assertTrue(cache.putIfNotExist("lock", 300L));
+    }
+}
@@ -0,0 +1,134 @@
+import com.server.base.cache.container.RedisCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.LazyCacheResult;
+import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.util.CacheResults;
+import io.lettuce.core.RedisURI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 需要 redis-server，默认连接 redis://localhost:6379，可以通过系统属性 redis.url 或环境变量 REDIS_URL 指定，连接不上时跳过
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class RedisCacheTest {
+
+    private static final RedisURI REDIS_URI = RedisURI.create(System.getProperty("redis.url",
+            Optional.ofNullable(System.getenv("REDIS_URL")).orElse("redis://localhost:6379")));
+
+    private static final String BAD_VALUE = "bad";
+
+    private LettuceConnectionFactory factory;
+
+    private RedisCache<String> serial;
+
+    private final Set<String> keys = new HashSet<>();
+
+    private void start() {
+        Assumptions.assumeTrue(redisAvailable(), "redis-server is not running on " + REDIS_URI);
+        factory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(REDIS_URI.getHost(), REDIS_URI.getPort()));
+        factory.afterPropertiesSet();
+        serial = new RedisCache<>(factory, failingConverter());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (factory == null) {
+            return;
+        }
+        serial.removeAll(keys);
+        factory.destroy();
+    }
+
+    @Test
+    public void testParallelDecodeSameAsSerial() {
+        start();
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            values.put("decode-test:" + i, i % 100 == 0 ? BAD_VALUE : "value" + i);
+        }
+        keys.addAll(values.keySet());
+        serial.putAll(values, 60000L);
+        Set<String> requested = new HashSet<>(keys);
+        requested.add("decode-test:missing");
+
+        // 默认不开启并行解码
+        Map<String, CacheResult<String>> serialResult = serial.getAll(requested);
+        Assertions.assertTrue(serialResult.values().stream().noneMatch(LazyCacheResult.class::isInstance));
+
+        RedisCache<String> parallel = new RedisCache<>(factory, failingConverter());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            parallel.setParallelDecode(executor, 1000);
+            Map<String, CacheResult<String>> parallelResult = parallel.getAll(requested);
+            Assertions.assertEquals(normalize(serialResult), normalize(parallelResult));
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals("value1", serialResult.get("decode-test:1").getData());
+        // 解码失败与不存在的key都视为未命中
+        Assertions.assertFalse(CacheResults.isHit(serialResult.get("decode-test:0")));
+        Assertions.assertFalse(CacheResults.isHit(serialResult.get("decode-test:missing")));
+    }
+
+    /**
+     * @return key 对应的数据与过期时间，未命中时为 null
+     */
+    private static Map<String, String> normalize(Map<String, CacheResult<String>> result) {
+        Map<String, String> normalized = new HashMap<>();
+        result.forEach((key, cacheResult) -> normalized.put(key,
+                CacheResults.isHit(cacheResult) ? cacheResult.getData() + "@" + cacheResult.getExpireAt() : null));
+        return normalized;
+    }
+
+    /**
+     * 数据为 {@link #BAD_VALUE} 时解码失败
+     */
+    private static ValueConverter<String> failingConverter() {
+        KryoValueConverter<String> kryo = new KryoValueConverter<>();
+        return new ValueConverter<String>() {
+            @Override
+            public CacheHolder<String> decode(byte[] value) throws ConvertException {
+                CacheHolder<String> holder = kryo.decode(value);
+                if (BAD_VALUE.equals(holder.getData())) {
+                    throw new ConvertException(new IllegalStateException("bad value"));
+                }
+                return holder;
+            }
+
+            @Override
+            public byte[] encode(CacheHolder<String> value) {
+                return kryo.encode(value);
+            }
+        };
+    }
+
+    private static boolean redisAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(REDIS_URI.getHost(), REDIS_URI.getPort()), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -3,9 +3,15 @@ import com.server.base.cache.exception.ConvertException;
 import com.server.base.cache.util.CacheHolders;
 import com.server.base.cache.util.KryoUtil;
 import lombok.Data;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author hanlipeng
@@ -57,6 +63,29 @@ public class TestConverter {
 
     }
 
+    @Test
+    public void testPooledBuffer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // 大小交替的值复用同一批缓冲区
+            int size = i % 10 == 0 ? 5000 : i % 7;
+            futures.add(executor.submit(() -> {
+                ArrayList<String> list = new ArrayList<>();
+                for (int j = 0; j < size; j++) {
+                    list.add("value" + j);
+                }
+                Assertions.assertEquals(list, KryoUtil.readFromByteArray(KryoUtil.writeToByteArray(list)));
+                Assertions.assertEquals(list, KryoUtil.readObjectFromByteArray(
+                        KryoUtil.writeObjectToByteArray(list), ArrayList.class));
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
     @Data
     private static class TestEntity {
 
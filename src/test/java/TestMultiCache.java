@@ -1,14 +1,27 @@
+import com.server.base.cache.config.CachePolicy;
 import com.server.base.cache.container.DataCache;
 import com.server.base.cache.container.GuavaCache;
 import com.server.base.cache.container.LinkCache;
 import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.hotkey.HotKeyDetector;
+import com.server.base.cache.util.BatchLoadExecutors;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -88,6 +101,201 @@ public class TestMultiCache {
         System.out.println(test1);
     }
 
+    @Test
+    public void testConcurrentSingleParamLoadOnce() throws Exception {
+        DataCache<String> caches = initCaches();
+        AtomicInteger loadTimes = new AtomicInteger(0);
+        List<Collection<String>> results = runConcurrently(8, () -> caches.getCacheOrLoad("test",
+                t -> {
+                    loadTimes.incrementAndGet();
+                    sleep(200);
+                    return t + "cache";
+                },
+                t -> t + " key",
+                true,
+                1000L,
+                10L
+        ));
+        Assertions.assertEquals(1, loadTimes.get());
+        results.forEach(result -> Assertions.assertEquals(Collections.singletonList("testcache"), new ArrayList<>(result)));
+    }
+
+    @Test
+    public void testConcurrentMultiParamLoadOnce() throws Exception {
+        DataCache<String> caches = initCaches();
+        AtomicInteger loadParams = new AtomicInteger(0);
+        List<List<String>> results = runConcurrently(8, () -> caches.getCacheOrLoadList(
+                Arrays.asList("test1", "test2"),
+                t -> {
+                    loadParams.addAndGet(t.size());
+                    sleep(200);
+                    return t.stream().map(m -> "cache" + m).collect(Collectors.toList());
+                },
+                t -> t + "Key",
+                t -> ((String) t).replace("cache", ""),
+                true,
+                1000L,
+                10L
+        ));
+        Assertions.assertEquals(2, loadParams.get());
+        results.forEach(result -> Assertions.assertEquals(Arrays.asList("cachetest1", "cachetest2"),
+                result.stream().sorted().collect(Collectors.toList())));
+    }
+
+    @Test
+    public void testSoftExpireSingleParam() {
+        DataCache<String> caches = initCaches();
+        AtomicInteger loadTimes = new AtomicInteger(0);
+        CachePolicy policy = CachePolicy.of(true, 2000L, 10L);
+        policy.setSoftExpire(200L);
+        java.util.function.Supplier<Collection<String>> get = () -> caches.getCacheOrLoad("test",
+                t -> {
+                    int times = loadTimes.incrementAndGet();
+                    if (times > 1) {
+                        sleep(100);
+                    }
+                    return t + "cache" + times;
+                },
+                t -> t + " key",
+                policy);
+        Assertions.assertEquals(Collections.singletonList("testcache1"), new ArrayList<>(get.get()));
+        sleep(300);
+        // 软过期后仍然直接返回旧值，后台只刷新一次
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(Collections.singletonList("testcache1"), new ArrayList<>(get.get()));
+        }
+        sleep(200);
+        Assertions.assertEquals(2, loadTimes.get());
+        Assertions.assertEquals(Collections.singletonList("testcache2"), new ArrayList<>(get.get()));
+    }
+
+    @Test
+    public void testSoftExpireMultiParam() {
+        DataCache<String> caches = initCaches();
+        AtomicInteger loadParams = new AtomicInteger(0);
+        CachePolicy policy = CachePolicy.of(false, 2000L, 10L);
+        policy.setSoftExpire(200L);
+        java.util.function.Supplier<List<String>> get = () -> caches.getCacheOrLoadList(
+                Arrays.asList("test1", "test2"),
+                t -> {
+                    loadParams.addAndGet(t.size());
+                    return t.stream().map(m -> "cache" + m).collect(Collectors.toList());
+                },
+                t -> t + "Key",
+                t -> ((String) t).replace("cache", ""),
+                policy);
+        Assertions.assertEquals(2, get.get().size());
+        sleep(300);
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(2, get.get().size());
+        }
+        // 刷新后的值写入不到200ms，下一次读取不会再次刷新
+        sleep(100);
+        Assertions.assertEquals(4, loadParams.get());
+        get.get();
+        Assertions.assertEquals(4, loadParams.get());
+    }
+
+    private static <T> List<T> runConcurrently(int threads, Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatchLoadParallel() {
+        GuavaCache<Collection<String>> cache1 = new GuavaCache<>(new KryoValueConverter<>(), 1000);
+        GuavaCache<Collection<String>> cache2 = new GuavaCache<>(new KryoValueConverter<>(), 1000);
+        LinkCache<String> caches = new LinkCache<>(Arrays.asList(cache1, cache2));
+        ExecutorService executor = BatchLoadExecutors.newBatchLoadExecutor(4);
+        caches.setBatchLoad(executor, 10);
+        List<String> params = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            params.add("p" + i);
+        }
+        List<Integer> loadSizes = Collections.synchronizedList(new ArrayList<>());
+        Function<Collection<String>, Object> loader = t -> {
+            loadSizes.add(t.size());
+            return t.stream().map(m -> "cache" + m).collect(Collectors.toList());
+        };
+        List<String> expected = params.stream().map(m -> "cache" + m).collect(Collectors.toList());
+        List<String> result = caches.getCacheOrLoadList(params, loader, t -> t + "Key", t -> ((String) t).replace("cache", ""), true, 10000L, 10000L);
+        // 未命中的参数被切分为10个分片并发加载，结果按参数顺序合并
+        Assertions.assertEquals(expected, result);
+        Assertions.assertEquals(10, loadSizes.size());
+        Assertions.assertTrue(loadSizes.stream().allMatch(size -> size == 10));
+
+        List<String> cached = caches.getCacheOrLoadList(params, loader, t -> t + "Key", t -> ((String) t).replace("cache", ""), true, 10000L, 10000L);
+        Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(cached));
+        Assertions.assertEquals(10, loadSizes.size());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testLocalExpire() {
+        GuavaCache<Collection<String>> local = new GuavaCache<>(new KryoValueConverter<>(), 1000);
+        GuavaCache<Collection<String>> remote = new GuavaCache<>(new KryoValueConverter<>(), 1000);
+        LinkCache<String> caches = new LinkCache<>(Arrays.asList(local, remote));
+        CachePolicy policy = CachePolicy.of(true, 60_000L, 10L);
+        policy.setLocalExpire(5_000L);
+
+        caches.getCacheOrLoad("1", t -> "cache" + t, t -> t + "Key", policy);
+        long now = System.currentTimeMillis();
+        Assertions.assertTrue(local.get("1Key").getExpireAt() - now <= 5_000L);
+        Assertions.assertTrue(remote.get("1Key").getExpireAt() - now > 5_000L);
+
+        // 本地缓存从远程缓存读取时，过期时间不超过远程缓存剩余的时间
+        remote.put("2Key", Collections.singletonList("cache2"), 1_000L);
+        remote.put("3Key", Collections.singletonList("cache3"), 1_000L);
+        caches.getCacheOrLoad("2", t -> "cache" + t, t -> t + "Key", policy);
+        caches.getCacheOrLoadList(Collections.singletonList("3"), t -> t.stream().map(m -> "cache" + m).collect(Collectors.toList()),
+                t -> t + "Key", t -> ((String) t).replace("cache", ""), policy);
+        assertExpireNotAfter(local.get("2Key").getExpireAt(), remote.get("2Key").getExpireAt());
+        assertExpireNotAfter(local.get("3Key").getExpireAt(), remote.get("3Key").getExpireAt());
+
+        // 热点key使用更长的本地过期时间，但同样不超过远程缓存剩余的时间
+        GuavaCache<Collection<String>> hotLocal = new GuavaCache<>(new KryoValueConverter<>(), 1000);
+        GuavaCache<Collection<String>> hotRemote = new GuavaCache<>(new KryoValueConverter<>(), 1000);
+        LinkCache<String> hotCaches = new LinkCache<>(Arrays.asList(hotLocal, hotRemote));
+        HotKeyDetector hotKeys = new HotKeyDetector(HotKeyDetector.DEFAULT_TOP_K, HotKeyDetector.DEFAULT_SKETCH_WIDTH, 1, 10_000L);
+        hotCaches.setHotKeyDetector(hotKeys);
+        hotCaches.getCacheOrLoad("4", t -> "cache" + t, t -> t + "Key", policy);
+        Assertions.assertTrue(hotKeys.isHot(null, "4Key"));
+        Assertions.assertTrue(hotLocal.get("4Key").getExpireAt() - System.currentTimeMillis() > 5_000L);
+        assertExpireNotAfter(hotLocal.get("4Key").getExpireAt(), hotRemote.get("4Key").getExpireAt());
+        hotRemote.put("5Key", Collections.singletonList("cache5"), 1_000L);
+        hotRemote.put("6Key", Collections.singletonList("cache6"), 1_000L);
+        hotCaches.getCacheOrLoad("5", t -> "cache" + t, t -> t + "Key", policy);
+        hotCaches.getCacheOrLoadList(Collections.singletonList("6"), t -> t.stream().map(m -> "cache" + m).collect(Collectors.toList()),
+                t -> t + "Key", t -> ((String) t).replace("cache", ""), policy);
+        Assertions.assertTrue(hotKeys.isHot(null, "5Key"));
+        assertExpireNotAfter(hotLocal.get("5Key").getExpireAt(), hotRemote.get("5Key").getExpireAt());
+        assertExpireNotAfter(hotLocal.get("6Key").getExpireAt(), hotRemote.get("6Key").getExpireAt());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     private DataCache<String> initCaches() {
         GuavaCache<Collection<String>> cache1 = new GuavaCache<>(new KryoValueConverter<>(), 100);
@@ -95,4 +303,11 @@ public class TestMultiCache {
         List<GuavaCache<Collection<String>>> cacheList = Arrays.asList(cache1, cache2);
         return new LinkCache<>(cacheList);
     }
+
+    /**
+     * 本级缓存的过期时间点不晚于下一级缓存，允许写入时线程被挂起产生的少量误差
+     */
+    private static void assertExpireNotAfter(long expireAt, long nextExpireAt) {
+        Assertions.assertTrue(expireAt <= nextExpireAt + 50, expireAt + " > " + nextExpireAt);
+    }
 }
@@ -0,0 +1,105 @@
+package cache.bloom;
+
+import com.server.base.cache.bloom.CountingBloomFilter;
+import com.server.base.cache.bloom.KeyFilter;
+import com.server.base.cache.bloom.NegativeCache;
+import com.server.base.cache.config.CachePolicy;
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.container.LinkCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class NegativeCacheTest {
+
+    @Test
+    public void testCountingBloomFilter() {
+        CountingBloomFilter filter = new CountingBloomFilter(1000, 0.01, 60_000L);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("absent" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(filter.mightContain("absent" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("present" + i)) {
+                falsePositives++;
+            }
+        }
+        Assertions.assertTrue(falsePositives < 100, "false positives " + falsePositives);
+
+        filter.remove("absent1");
+        Assertions.assertFalse(filter.mightContain("absent1"));
+        Assertions.assertTrue(filter.mightContain("absent2"));
+        // 写满后新建分片，旧分片中的key仍然可以查到
+        for (int i = 1000; i < 1500; i++) {
+            filter.add("absent" + i);
+        }
+        Assertions.assertTrue(filter.mightContain("absent2"));
+        Assertions.assertTrue(filter.mightContain("absent1499"));
+        // 误判为已存在的key不会重复计数
+        long size = filter.approximateSize();
+        Assertions.assertTrue(size > 1450 && size <= 1499, "size " + size);
+    }
+
+    @Test
+    public void testSkipAbsentKeys() {
+        ConcurrentHashMap<String, KeyFilter> redis = new ConcurrentHashMap<>();
+        Function<String, KeyFilter> sharedFactory = keyWord -> redis.computeIfAbsent(keyWord,
+                k -> new CountingBloomFilter(1000, 0.001, 60_000L));
+        LinkCache<String> node1 = newLinkCache(new NegativeCache(1000, 0.001, 60_000L, sharedFactory));
+        LinkCache<String> node2 = newLinkCache(new NegativeCache(1000, 0.001, 60_000L, sharedFactory));
+        CachePolicy policy = CachePolicy.of(false, 60_000L, 10L);
+        policy.setKeyWord("user:");
+        policy.setNegativeCache(true);
+        AtomicInteger loadParams = new AtomicInteger();
+        Function<Collection<String>, Object> loader = params -> {
+            loadParams.addAndGet(params.size());
+            return params.stream().filter(p -> p.startsWith("exist")).map(p -> "data" + p).collect(Collectors.toList());
+        };
+        List<String> params = new ArrayList<>();
+        params.add("exist1");
+        params.add("missing1");
+        params.add("missing2");
+
+        Assertions.assertEquals(Collections.singletonList("dataexist1"),
+                node1.getCacheOrLoadList(params, loader, p -> "user:" + p, data -> ((String) data).substring(4), policy));
+        Assertions.assertEquals(3, loadParams.get());
+        node1.getCacheOrLoadList(params, loader, p -> "user:" + p, data -> ((String) data).substring(4), policy);
+        Assertions.assertEquals(3, loadParams.get());
+        // 其他节点从共享过滤器得知没有数据
+        Assertions.assertEquals(Collections.singletonList("dataexist1"),
+                node2.getCacheOrLoadList(params, loader, p -> "user:" + p, data -> ((String) data).substring(4), policy));
+        Assertions.assertEquals(4, loadParams.get());
+
+        // 删除缓存后重新调用原方法
+        node1.removeCache("user:", Collections.singleton("user:missing1"));
+        Assertions.assertTrue(node1.getCacheOrLoad("missing1", p -> {
+            loadParams.incrementAndGet();
+            return null;
+        }, p -> "user:" + p, policy).isEmpty());
+        Assertions.assertEquals(5, loadParams.get());
+    }
+
+    private static LinkCache<String> newLinkCache(NegativeCache negativeCache) {
+        List<GuavaCache<Collection<String>>> caches = new ArrayList<>();
+        caches.add(new GuavaCache<>(new KryoValueConverter<>(), 100));
+        LinkCache<String> linkCache = new LinkCache<>(caches);
+        linkCache.setNegativeCache(negativeCache);
+        return linkCache;
+    }
+}
@@ -0,0 +1,99 @@
+package cache.breaker;
+
+import com.server.base.cache.breaker.CircuitBreaker;
+import com.server.base.cache.config.CachePolicy;
+import com.server.base.cache.container.Cache;
+import com.server.base.cache.container.CircuitBreakerCache;
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.container.LinkCache;
+import com.server.base.cache.container.NoCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.entity.CacheResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CircuitBreakerCacheTest {
+
+    @Test
+    public void testOpenAndHalfOpen() throws InterruptedException {
+        AtomicBoolean down = new AtomicBoolean(true);
+        AtomicInteger calls = new AtomicInteger();
+        CircuitBreaker breaker = new CircuitBreaker("redis", 5, 0.5, 1000L, 1.0, 10_000L, 100L, 2);
+        CircuitBreakerCache<String> cache = new CircuitBreakerCache<>(new FlakyCache<>(down, calls), breaker);
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(cache.get("key").isSuccess());
+        }
+        // 失败5次后打开，不再调用原缓存
+        Assertions.assertEquals(5, calls.get());
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        Thread.sleep(150);
+        down.set(false);
+        Assertions.assertTrue(cache.get("key").isSuccess());
+        Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        Assertions.assertTrue(cache.get("key").isSuccess());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        Assertions.assertEquals(7, calls.get());
+    }
+
+    @Test
+    public void testDegradedLocalExpire() {
+        CircuitBreaker breaker = new CircuitBreaker("redis", 1, 0.5, 1000L, 1.0, 10_000L, 60_000L, 1);
+        GuavaCache<Collection<String>> local = new GuavaCache<>(new KryoValueConverter<>(), 100);
+        List<Cache<Collection<String>>> caches = new ArrayList<>();
+        caches.add(local);
+        caches.add(new CircuitBreakerCache<>(new FlakyCache<>(new AtomicBoolean(true), new AtomicInteger()), breaker));
+        LinkCache<String> linkCache = new LinkCache<>(caches);
+        linkCache.setDegradedLocalExpire(breaker::isOpen, 600_000L);
+        CachePolicy policy = CachePolicy.of(false, 1000L, 10L);
+
+        Assertions.assertEquals(1, linkCache.getCacheOrLoad("1", p -> "data" + p, p -> "user:" + p, policy).size());
+        Assertions.assertTrue(breaker.isOpen());
+        CacheResult<Collection<String>> cached = local.get("user:1");
+        Assertions.assertTrue(cached.isSuccess());
+        Assertions.assertTrue(cached.getExpireAt() - System.currentTimeMillis() > 1000L);
+    }
+
+    /**
+     * down 为 true 时所有操作抛出异常，否则读取总是命中
+     */
+    private static class FlakyCache<V> extends NoCache<V> {
+
+        private final AtomicBoolean down;
+
+        private final AtomicInteger calls;
+
+        private FlakyCache(AtomicBoolean down, AtomicInteger calls) {
+            this.down = down;
+            this.calls = calls;
+        }
+
+        @Override
+        public CacheResult<V> get(String key) {
+            calls.incrementAndGet();
+            if (down.get()) {
+                throw new IllegalStateException("connection refused");
+            }
+            CacheResult<V> result = new CacheResult<>();
+            result.setSuccess(true);
+            return result;
+        }
+
+        @Override
+        public boolean putIfNotExist(String key, Long expire) {
+            calls.incrementAndGet();
+            throw new IllegalStateException("connection refused");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cache.cluster;
+
+import com.server.base.cache.container.RedisCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.GetOrLockResult;
+import com.server.base.cache.key.CacheKeyBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 需要本地 7000-7005 端口的 Redis Cluster（如 redis 源码中的 utils/create-cluster），没有时跳过
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class RedisClusterCacheTest {
+
+    private LettuceConnectionFactory factory;
+
+    private RedisCache<String> cache;
+
+    private final Set<String> keys = new HashSet<>();
+
+    @BeforeEach
+    public void setUp() {
+        Assumptions.assumeTrue(clusterAvailable(), "redis cluster is not running on localhost:7000");
+        factory = new LettuceConnectionFactory(new RedisClusterConfiguration(Arrays.asList(
+                "localhost:7000", "localhost:7001", "localhost:7002")));
+        factory.afterPropertiesSet();
+        cache = new RedisCache<>(factory, new KryoValueConverter<>());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (factory == null) {
+            return;
+        }
+        cache.removeAll(keys);
+        factory.destroy();
+    }
+
+    @Test
+    public void testBatchAcrossSlots() {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            values.put("cluster-test:" + i, "value" + i);
+        }
+        keys.addAll(values.keySet());
+        cache.putAll(values, 60000L);
+        Map<String, CacheResult<String>> result = cache.getAll(values.keySet());
+        Assertions.assertEquals(values.size(), result.size());
+        values.forEach((key, value) -> Assertions.assertEquals(value, result.get(key).getData()));
+
+        Set<String> lockKeys = new HashSet<>(Arrays.asList("cluster-lock:a", "cluster-lock:b", "cluster-lock:c"));
+        keys.addAll(lockKeys);
+        Assertions.assertEquals(lockKeys, cache.putMultiIfNotExist(lockKeys, 60000L));
+        Assertions.assertTrue(cache.putMultiIfNotExist(lockKeys, 60000L).isEmpty());
+    }
+
+    @Test
+    public void testGetAllOrLockWithHashTag() {
+        String prefix = CacheKeyBuilder.hashTag("cluster-tag");
+        cache.put(prefix + "hit", "value", 60000L);
+        Map<String, String> lockKeys = new HashMap<>();
+        for (String id : Arrays.asList("hit", "miss")) {
+            lockKeys.put(prefix + id, "$" + prefix + id + "$lock");
+        }
+        // 不在同一 slot 的key使用默认实现
+        lockKeys.put("cluster-plain:miss", "$cluster-plain:miss$lock");
+        keys.addAll(lockKeys.keySet());
+        keys.addAll(lockKeys.values());
+        GetOrLockResult<String> result = cache.getAllOrLock(lockKeys, 60000L);
+        Assertions.assertEquals("value", result.getValues().get(prefix + "hit").getData());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("$" + prefix + "miss$lock", "$cluster-plain:miss$lock")),
+                result.getLocked());
+    }
+
+    private static boolean clusterAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", 7000), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
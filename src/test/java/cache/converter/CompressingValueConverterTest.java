@@ -0,0 +1,151 @@
+package cache.converter;
+
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.converter.compress.CompressingValueConverter;
+import com.server.base.cache.converter.compress.CompressionCodec;
+import com.server.base.cache.converter.compress.LocalDictionaryStore;
+import com.server.base.cache.converter.compress.ZstdDictionaries;
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.exception.ConvertException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CompressingValueConverterTest {
+
+    private static final byte MAGIC = (byte) 0xC5;
+
+    @Test
+    public void testLz4AndZstd() throws ConvertException {
+        for (CompressionCodec codec : CompressionCodec.values()) {
+            CompressingValueConverter<List<String>> converter =
+                    new CompressingValueConverter<>(new KryoValueConverter<>(), codec);
+            CacheHolder<List<String>> holder = holder(list(0, 200));
+            byte[] raw = new KryoValueConverter<List<String>>().encode(holder);
+            byte[] encoded = converter.encode(holder);
+            Assertions.assertEquals(MAGIC, encoded[0]);
+            Assertions.assertTrue(encoded.length < raw.length);
+            Assertions.assertEquals(holder, converter.decode(encoded));
+            Assertions.assertEquals(holder, converter.decode(ByteBuffer.wrap(encoded)));
+        }
+    }
+
+    @Test
+    public void testCorruptValue() {
+        for (CompressionCodec codec : CompressionCodec.values()) {
+            CompressingValueConverter<List<String>> converter =
+                    new CompressingValueConverter<>(new KryoValueConverter<>(), codec);
+            byte[] encoded = converter.encode(holder(list(0, 200)));
+            // 头部中的原始长度超过上限
+            byte[] hugeLength = encoded.clone();
+            hugeLength[3] = 0x7F;
+            Assertions.assertThrows(ConvertException.class, () -> converter.decode(hugeLength));
+            // 头部中的原始长度与解压结果不一致
+            byte[] wrongLength = encoded.clone();
+            wrongLength[6]++;
+            Assertions.assertThrows(ConvertException.class, () -> converter.decode(wrongLength));
+            // 压缩数据损坏
+            byte[] corrupt = encoded.clone();
+            for (int i = 7; i < corrupt.length; i += 3) {
+                corrupt[i] = (byte) 0xFF;
+            }
+            Assertions.assertThrows(ConvertException.class, () -> converter.decode(corrupt));
+            Assertions.assertThrows(ConvertException.class, () -> converter.decode(ByteBuffer.wrap(corrupt)));
+        }
+        CompressingValueConverter<List<String>> limited =
+                new CompressingValueConverter<>(new KryoValueConverter<>(), CompressionCodec.LZ4);
+        byte[] encoded = limited.encode(holder(list(0, 200)));
+        limited.setMaxOriginalLength(encoded.length);
+        Assertions.assertThrows(ConvertException.class, () -> limited.decode(encoded));
+    }
+
+    @Test
+    public void testBelowThresholdAndLegacy() throws ConvertException {
+        KryoValueConverter<List<String>> kryo = new KryoValueConverter<>();
+        CompressingValueConverter<List<String>> converter =
+                new CompressingValueConverter<>(kryo, CompressionCodec.ZSTD);
+        CacheHolder<List<String>> small = holder(list(0, 2));
+        Assertions.assertArrayEquals(kryo.encode(small), converter.encode(small));
+        // 开启压缩前写入的值
+        CacheHolder<List<String>> large = holder(list(0, 200));
+        Assertions.assertEquals(large, converter.decode(kryo.encode(large)));
+        Assertions.assertNull(converter.decode(converter.encode(null)));
+    }
+
+    @Test
+    public void testTrainedDictionary() throws ConvertException, InterruptedException {
+        LocalDictionaryStore store = new LocalDictionaryStore();
+        ZstdDictionaries dictionaries = new ZstdDictionaries(store, 3, 4 * 1024, 50);
+        CompressingValueConverter<List<String>> converter =
+                new CompressingValueConverter<>(new KryoValueConverter<>(), dictionaries, 256);
+        String entityType = String.class.getName() + "[]";
+        for (int i = 0; i < 2000 && store.dictIdOf(entityType) == null; i++) {
+            converter.encode(holder(list(i * 20, 20)));
+            if (i >= 50) {
+                Thread.sleep(10);
+            }
+        }
+        Integer dictId = store.dictIdOf(entityType);
+        Assertions.assertNotNull(dictId);
+        CacheHolder<List<String>> holder = holder(list(100000, 20));
+        byte[] encoded = new byte[0];
+        for (int i = 0; i < 100 && (encoded.length == 0 || encoded[2] != 3); i++) {
+            encoded = converter.encode(holder);
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(3, encoded[2]);
+        Assertions.assertEquals(holder, converter.decode(encoded));
+
+        // 其他节点通过同一个 store 取得字典
+        CompressingValueConverter<List<String>> other = new CompressingValueConverter<>(
+                new KryoValueConverter<>(), new ZstdDictionaries(store), 256);
+        Assertions.assertEquals(holder, other.decode(encoded));
+        // 没有字典时无法解码
+        CompressingValueConverter<List<String>> missing = new CompressingValueConverter<>(
+                new KryoValueConverter<>(), new ZstdDictionaries(new LocalDictionaryStore()), 256);
+        byte[] dictEncoded = encoded;
+        Assertions.assertThrows(ConvertException.class, () -> missing.decode(dictEncoded));
+    }
+
+    @Test
+    public void testMissingDictionaryIsNotReloaded() {
+        AtomicInteger loads = new AtomicInteger();
+        LocalDictionaryStore store = new LocalDictionaryStore() {
+            @Override
+            public byte[] load(int dictId) {
+                loads.incrementAndGet();
+                return super.load(dictId);
+            }
+        };
+        CompressingValueConverter<List<String>> converter = new CompressingValueConverter<>(
+                new KryoValueConverter<>(), new ZstdDictionaries(store), 256);
+        // 头部 | 原始长度 100 | 字典id 42 | 压缩数据
+        byte[] value = {MAGIC, 0x7A, 3, 0, 0, 0, 100, 0, 0, 0, 42, 1, 2, 3};
+        Assertions.assertThrows(ConvertException.class, () -> converter.decode(value));
+        Assertions.assertThrows(ConvertException.class, () -> converter.decode(value));
+        Assertions.assertEquals(1, loads.get());
+    }
+
+    private static CacheHolder<List<String>> holder(List<String> data) {
+        CacheHolder<List<String>> holder = new CacheHolder<>();
+        holder.setData(data);
+        holder.setExpireAt(System.currentTimeMillis() + 60000);
+        return holder;
+    }
+
+    private static List<String> list(int start, int size) {
+        List<String> list = new ArrayList<>();
+        for (int i = start; i < start + size; i++) {
+            list.add("{\"userId\":" + i + ",\"nickname\":\"user-" + i + "\",\"status\":\"ACTIVE\"}");
+        }
+        return list;
+    }
+}
@@ -0,0 +1,97 @@
+package cache.entity;
+
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.LazyCacheResult;
+import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.util.CacheHolders;
+import com.server.base.cache.util.CacheResults;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class LazyCacheResultTest {
+
+    @Test
+    public void testDecodeOnRead() {
+        AtomicInteger decodeCount = new AtomicInteger();
+        ValueConverter<String> converter = countingConverter(decodeCount);
+        LazyCacheResult<String> result = new LazyCacheResult<>(
+                converter.encode(CacheHolders.init("value", 100L)), converter);
+        Assertions.assertEquals(0, decodeCount.get());
+        // 只判断是否命中时不解码
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertEquals(0, decodeCount.get());
+        Assertions.assertEquals("value", result.getData());
+        Assertions.assertEquals(100L, result.getExpireAt());
+        Assertions.assertEquals(1, decodeCount.get());
+    }
+
+    @Test
+    public void testDecodeFailIsMiss() {
+        LazyCacheResult<String> result = new LazyCacheResult<>(new byte[]{1, 2, 3}, new KryoValueConverter<>());
+        Assertions.assertTrue(result.isSuccess());
+        Assertions.assertFalse(CacheResults.isHit(result));
+        Assertions.assertFalse(result.isSuccess());
+        Assertions.assertNull(result.getData());
+    }
+
+    @Test
+    public void testDecodeAll() {
+        AtomicInteger decodeCount = new AtomicInteger();
+        ValueConverter<String> converter = countingConverter(decodeCount);
+        List<CacheResult<String>> results = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            results.add(new LazyCacheResult<>(converter.encode(CacheHolders.init("value" + i)), converter));
+        }
+        LazyCacheResult.decodeAll(results, ForkJoinPool.commonPool(), 64);
+        Assertions.assertEquals(1000, decodeCount.get());
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertTrue(((LazyCacheResult<String>) results.get(i)).isDecoded());
+            Assertions.assertEquals("value" + i, results.get(i).getData());
+        }
+        Assertions.assertEquals(1000, decodeCount.get());
+    }
+
+    @Test
+    public void testWhenDecoded() {
+        List<Boolean> decoded = new ArrayList<>();
+        KryoValueConverter<String> converter = new KryoValueConverter<>();
+        LazyCacheResult<String> hit = new LazyCacheResult<>(converter.encode(CacheHolders.init("value")), converter);
+        hit.whenDecoded(decoded::add);
+        Assertions.assertTrue(decoded.isEmpty());
+        hit.getData();
+        hit.getData();
+        LazyCacheResult<String> corrupt = new LazyCacheResult<>(new byte[]{1, 2, 3}, converter);
+        corrupt.decode();
+        corrupt.whenDecoded(decoded::add);
+        Assertions.assertEquals(Arrays.asList(true, false), decoded);
+    }
+
+    private static ValueConverter<String> countingConverter(AtomicInteger decodeCount) {
+        KryoValueConverter<String> kryo = new KryoValueConverter<>();
+        return new ValueConverter<String>() {
+            @Override
+            public CacheHolder<String> decode(byte[] value) throws ConvertException {
+                decodeCount.incrementAndGet();
+                return kryo.decode(value);
+            }
+
+            @Override
+            public byte[] encode(CacheHolder<String> value) {
+                return kryo.encode(value);
+            }
+        };
+    }
+}
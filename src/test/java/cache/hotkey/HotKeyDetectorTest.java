@@ -0,0 +1,128 @@
+package cache.hotkey;
+
+import com.server.base.cache.config.CachePolicy;
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.container.LinkCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.hotkey.HotKey;
+import com.server.base.cache.hotkey.HotKeyDetector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class HotKeyDetectorTest {
+
+    @Test
+    public void testTopKeys() {
+        HotKeyDetector detector = new HotKeyDetector(2, 1024, 2, 0L);
+        for (int i = 0; i < 10; i++) {
+            detector.record("user", "a");
+        }
+        for (int i = 0; i < 5; i++) {
+            detector.record("user", "b");
+        }
+        for (int i = 0; i < 3; i++) {
+            detector.record("user", "c");
+        }
+        detector.record("user", "d");
+        detector.record("order", "a");
+
+        List<HotKey> top = detector.topKeys("user");
+        Assertions.assertEquals(2, top.size());
+        Assertions.assertEquals(new HotKey("a", 10), top.get(0));
+        Assertions.assertEquals(new HotKey("b", 5), top.get(1));
+        Assertions.assertTrue(detector.admit("user", "c"));
+        Assertions.assertFalse(detector.admit("user", "d"));
+        Assertions.assertTrue(detector.topKeys("order").isEmpty());
+    }
+
+    @Test
+    public void testSameHashCodeKeys() {
+        HotKeyDetector detector = new HotKeyDetector(2, 1024, 2, 0L);
+        Assertions.assertEquals("Aa".hashCode(), "BB".hashCode());
+        for (int i = 0; i < 5; i++) {
+            detector.record("user", "Aa");
+        }
+        Assertions.assertTrue(detector.admit("user", "Aa"));
+        Assertions.assertFalse(detector.admit("user", "BB"));
+    }
+
+    @Test
+    public void testConcurrentRecordHotKey() throws Exception {
+        HotKeyDetector detector = new HotKeyDetector(2, 1024, 2, 0L);
+        int threads = 4;
+        int times = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < times; j++) {
+                        detector.record("user", "a");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 热点key的计数不加锁更新，并发时每个线程看到的估计值可能略小于总次数
+        int count = detector.topKeys("user").get(0).getCount();
+        Assertions.assertTrue(count <= threads * times && count >= threads * times - threads, "count " + count);
+    }
+
+    @Test
+    public void testAdmitToFirstCache() {
+        GuavaCache<Collection<String>> first = new GuavaCache<>(new KryoValueConverter<>(), 100);
+        GuavaCache<Collection<String>> second = new GuavaCache<>(new KryoValueConverter<>(), 100);
+        List<GuavaCache<Collection<String>>> caches = new ArrayList<>();
+        caches.add(first);
+        caches.add(second);
+        LinkCache<String> linkCache = new LinkCache<>(caches);
+        HotKeyDetector detector = new HotKeyDetector(10, 1024, 2, 30_000L);
+        linkCache.setHotKeyDetector(detector);
+        CachePolicy policy = CachePolicy.of(false, 60_000L, 10L);
+        policy.setLocalExpire(1000L);
+        policy.setKeyWord("user");
+
+        Runnable get = () -> Assertions.assertEquals(Collections.singletonList("testcache"),
+                new ArrayList<>(linkCache.getCacheOrLoad("test", t -> t + "cache", t -> t + " key", policy)));
+        get.run();
+        // 只访问一次，只写入第二级缓存
+        Assertions.assertFalse(first.get("test key").isSuccess());
+        Assertions.assertTrue(second.get("test key").isSuccess());
+
+        get.run();
+        Assertions.assertTrue(first.get("test key").isSuccess());
+        // 热点key在第一级缓存中使用 hotExpire，但不超过第二级缓存剩余的时间
+        Assertions.assertTrue(first.get("test key").getExpireAt() - System.currentTimeMillis() > 1000L);
+        assertExpireNotAfter(first.get("test key").getExpireAt(), second.get("test key").getExpireAt());
+        Assertions.assertEquals(new HotKey("test key", 2), detector.topKeys("user").get(0));
+    }
+
+    /**
+     * 本级缓存的过期时间点不晚于下一级缓存，允许写入时线程被挂起产生的少量误差
+     */
+    private static void assertExpireNotAfter(long expireAt, long nextExpireAt) {
+        Assertions.assertTrue(expireAt <= nextExpireAt + 50, expireAt + " > " + nextExpireAt);
+    }
+}
@@ -0,0 +1,78 @@
+package cache.invalidate;
+
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.invalidate.InvalidationBroadcaster;
+import com.server.base.cache.invalidate.InvalidationTransport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class InvalidationBroadcasterTest {
+
+    @Test
+    public void testBatchAndEvict() throws InterruptedException {
+        List<Collection<String>> published = new CopyOnWriteArrayList<>();
+        List<Consumer<Collection<String>>> otherNodes = new ArrayList<>();
+        // 本节点发布的消息交给其他节点
+        InvalidationTransport local = new InvalidationTransport() {
+            @Override
+            public void publish(Collection<String> keys) {
+                published.add(keys);
+                otherNodes.forEach(listener -> listener.accept(keys));
+            }
+
+            @Override
+            public void subscribe(Consumer<Collection<String>> listener) {
+            }
+        };
+        InvalidationTransport remote = new InvalidationTransport() {
+            @Override
+            public void publish(Collection<String> keys) {
+            }
+
+            @Override
+            public void subscribe(Consumer<Collection<String>> listener) {
+                otherNodes.add(listener);
+            }
+        };
+        GuavaCache<String> remoteLocalCache = new GuavaCache<>(new KryoValueConverter<>(), 100);
+        remoteLocalCache.put("a", "a", 60000L);
+        remoteLocalCache.put("b", "b", 60000L);
+        remoteLocalCache.put("c", "c", 60000L);
+        InvalidationBroadcaster publisher = new InvalidationBroadcaster(local, 50L);
+        new InvalidationBroadcaster(remote, 50L).register(remoteLocalCache);
+
+        publisher.publish(Collections.singleton("a"));
+        publisher.publish(new HashSet<>(Arrays.asList("a", "b")));
+        Assertions.assertTrue(remoteLocalCache.get("a").isSuccess());
+        TimeUnit.MILLISECONDS.sleep(200L);
+
+        // 窗口内的两次删除合并为一条消息
+        Assertions.assertEquals(1, published.size());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(published.get(0)));
+        Assertions.assertFalse(remoteLocalCache.get("a").isSuccess());
+        Assertions.assertFalse(remoteLocalCache.get("b").isSuccess());
+        Assertions.assertTrue(remoteLocalCache.get("c").isSuccess());
+        publisher.close();
+
+        // 关闭后不再发布
+        publisher.publish(Collections.singleton("c"));
+        TimeUnit.MILLISECONDS.sleep(100L);
+        Assertions.assertEquals(1, published.size());
+        Assertions.assertTrue(remoteLocalCache.get("c").isSuccess());
+    }
+}
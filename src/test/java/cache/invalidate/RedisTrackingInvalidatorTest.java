@@ -0,0 +1,109 @@
+package cache.invalidate;
+
+import com.server.base.cache.container.BlockingCache;
+import com.server.base.cache.container.CatchExceptionCache;
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.invalidate.RedisTrackingInvalidator;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 需要 redis-server（6.0 及以上），默认连接 redis://localhost:6379，可以通过系统属性 redis.url 或环境变量 REDIS_URL 指定，
+ * 连接不上时跳过：mvn test -Dtest=RedisTrackingInvalidatorTest -Dredis.url=redis://127.0.0.1:6380
+ *
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class RedisTrackingInvalidatorTest {
+
+    private static final RedisURI REDIS_URI = RedisURI.create(System.getProperty("redis.url",
+            Optional.ofNullable(System.getenv("REDIS_URL")).orElse("redis://localhost:6379")));
+
+    private RedisClient client;
+
+    private RedisTrackingInvalidator invalidator;
+
+    private StatefulRedisConnection<String, String> writer;
+
+    private final GuavaCache<String> local = new GuavaCache<>(new KryoValueConverter<>(), 100);
+
+    private void start() {
+        Assumptions.assumeTrue(redisAvailable(), "redis-server is not running on " + REDIS_URI);
+        client = RedisClient.create(REDIS_URI);
+        invalidator = new RedisTrackingInvalidator(client, Collections.singletonList("tracking:")).register(local);
+        invalidator.start();
+        writer = client.connect();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (client == null) {
+            return;
+        }
+        writer.sync().del("tracking:a", "other:a");
+        writer.close();
+        invalidator.close();
+        client.shutdown();
+    }
+
+    @Test
+    public void testRejectCacheWithoutClear() {
+        RedisClient redisClient = RedisClient.create(REDIS_URI);
+        try {
+            // 远程缓存不支持清空，连接断开期间无法使它失效
+            RedisTrackingInvalidator rejecting = new RedisTrackingInvalidator(redisClient, Collections.singletonList("tracking:"));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> rejecting.register(new BlockingCache<>(null)));
+            Assertions.assertSame(rejecting, rejecting.register(new CatchExceptionCache<>(local)));
+        } finally {
+            redisClient.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidateOnWrite() throws InterruptedException {
+        start();
+        local.put("tracking:a", "old", 60000L);
+        local.put("other:a", "old", 60000L);
+        writer.sync().set("tracking:a", "new");
+        writer.sync().set("other:a", "new");
+        Assertions.assertTrue(awaitMissing("tracking:a"));
+        // 不在跟踪前缀内的key不受影响
+        Assertions.assertTrue(local.get("other:a").isSuccess());
+
+        local.put("tracking:a", "new", 60000L);
+        writer.sync().del("tracking:a");
+        Assertions.assertTrue(awaitMissing("tracking:a"));
+    }
+
+    private boolean awaitMissing(String key) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (!local.get(key).isSuccess()) {
+                return true;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        return false;
+    }
+
+    private static boolean redisAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(REDIS_URI.getHost(), REDIS_URI.getPort()), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
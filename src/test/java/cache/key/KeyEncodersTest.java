@@ -0,0 +1,69 @@
+package cache.key;
+
+import cache.removekey.Student;
+import com.server.base.cache.converter.KeyEncoder;
+import com.server.base.cache.converter.KeyEncoders;
+import com.server.generic.util.JsonUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class KeyEncodersTest {
+
+    @Test
+    public void testCompatibleWithJson() {
+        List<Object> values = Arrays.asList(null, 1L, -2, (short) 3, (byte) 4, true, "key", "a\"b\\c\n\u0001中文", 'x',
+                UUID.randomUUID(), TimeUnit.SECONDS, 1.5d, new BigDecimal("1.10"), Arrays.asList(1, 2),
+                Student.builder().id(1L).name("jack").build());
+        KeyEncoder<Object> encoder = KeyEncoders.dynamic();
+        for (Object value : values) {
+            Assertions.assertEquals(JsonUtils.toJsonNode(value).toString(), encoder.encode(value));
+        }
+    }
+
+    @Test
+    public void testArgs() throws NoSuchMethodException {
+        Method method = KeyEncodersTest.class.getDeclaredMethod("find", long.class, String.class, Object.class, TimeUnit.class);
+        KeyEncoder<Object[]> encoder = KeyEncoders.forArgs(method.getGenericParameterTypes());
+        Object[][] argsList = {
+                {1L, "a", 2, TimeUnit.DAYS},
+                {2L, null, Student.builder().id(2L).build(), null},
+                {3L, "\t", 1.25f, TimeUnit.SECONDS},
+        };
+        for (Object[] args : argsList) {
+            Assertions.assertEquals(JsonUtils.getStringJsonUtils().toJson(args), encoder.encode(args));
+        }
+
+        Method pojo = KeyEncodersTest.class.getDeclaredMethod("find", Student.class);
+        Object[] args = {Student.builder().id(3L).build()};
+        Assertions.assertEquals(JsonUtils.getStringJsonUtils().toJson(args),
+                KeyEncoders.forArgs(pojo.getGenericParameterTypes()).encode(args));
+    }
+
+    @Test
+    public void testElement() throws NoSuchMethodException {
+        Method method = KeyEncodersTest.class.getDeclaredMethod("findAll", List.class);
+        KeyEncoder<Object> encoder = KeyEncoders.forElementOf(method.getGenericParameterTypes()[0]);
+        Assertions.assertEquals("123", encoder.encode(123L));
+        Assertions.assertEquals("null", encoder.encode(null));
+    }
+
+    private void find(long id, String name, Object any, TimeUnit unit) {
+    }
+
+    private void find(Student student) {
+    }
+
+    private void findAll(List<Long> ids) {
+    }
+}
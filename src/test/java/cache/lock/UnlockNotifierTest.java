@@ -0,0 +1,76 @@
+package cache.lock;
+
+import com.server.base.cache.lock.LocalUnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier;
+import com.server.base.cache.lock.UnlockNotifier.UnlockWaiter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class UnlockNotifierTest {
+
+    @Test
+    public void testWakeUpOnUnlock() throws Exception {
+        UnlockNotifier notifier = new LocalUnlockNotifier();
+        UnlockWaiter waiter = notifier.listen(Collections.singletonList("$key$lock"));
+        CompletableFuture<Long> waited = CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try (UnlockWaiter w = waiter) {
+                w.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        });
+        TimeUnit.MILLISECONDS.sleep(20);
+        notifier.notifyUnlock(Collections.singletonList("$key$lock"));
+        Assertions.assertTrue(waited.get(1, TimeUnit.SECONDS) < 100);
+    }
+
+    @Test
+    public void testNotifyBeforeAwait() throws Exception {
+        UnlockNotifier notifier = new LocalUnlockNotifier();
+        try (UnlockWaiter waiter = notifier.listen(Collections.singletonList("$key$lock"))) {
+            // 监听之后、等待之前发出的通知也不会丢失
+            notifier.notifyUnlock(Collections.singletonList("$key$lock"));
+            long start = System.nanoTime();
+            waiter.await();
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+        }
+    }
+
+    @Test
+    public void testTimeoutWithoutNotify() throws Exception {
+        UnlockNotifier notifier = new LocalUnlockNotifier();
+        try (UnlockWaiter waiter = notifier.listen(Collections.singletonList("$key$lock"))) {
+            notifier.notifyUnlock(Collections.singletonList("$other$lock"));
+            long start = System.nanoTime();
+            waiter.await();
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+        }
+    }
+
+    @Test
+    public void testUnlockedAsync() throws Exception {
+        UnlockNotifier notifier = new LocalUnlockNotifier();
+        try (UnlockWaiter waiter = notifier.listen(Collections.singletonList("$key$lock"))) {
+            CompletableFuture<Void> unlocked = waiter.unlocked();
+            Assertions.assertFalse(unlocked.isDone());
+            notifier.notifyUnlock(Collections.singletonList("$key$lock"));
+            Assertions.assertTrue(unlocked.isDone());
+        }
+        try (UnlockWaiter waiter = notifier.listen(Collections.singletonList("$key$lock"))) {
+            // 没有通知时在超时后完成
+            long start = System.nanoTime();
+            waiter.unlocked().get(1, TimeUnit.SECONDS);
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+        }
+    }
+}
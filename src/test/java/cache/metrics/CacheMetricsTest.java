@@ -0,0 +1,192 @@
+package cache.metrics;
+
+import com.server.base.cache.config.CachePolicy;
+import com.server.base.cache.container.Cache;
+import com.server.base.cache.container.GuavaCache;
+import com.server.base.cache.container.LinkCache;
+import com.server.base.cache.converter.KryoValueConverter;
+import com.server.base.cache.converter.ValueConverter;
+import com.server.base.cache.entity.CacheHolder;
+import com.server.base.cache.entity.CacheResult;
+import com.server.base.cache.entity.LazyCacheResult;
+import com.server.base.cache.exception.ConvertException;
+import com.server.base.cache.metrics.CacheMetrics;
+import com.server.base.cache.metrics.MetricsCache;
+import com.server.base.cache.metrics.MetricsValueConverter;
+import com.server.base.cache.util.CacheHolders;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class CacheMetricsTest {
+
+    @Test
+    public void testLinkCacheMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheMetrics metrics = new CacheMetrics(registry);
+        List<Cache<Collection<String>>> caches = new ArrayList<>();
+        caches.add(new MetricsCache<>(new GuavaCache<>(new KryoValueConverter<>(), 100), metrics, "local"));
+        caches.add(new GuavaCache<>(new KryoValueConverter<>(), 100));
+        LinkCache<String> linkCache = new LinkCache<>(caches);
+        linkCache.setMetrics(metrics);
+        CachePolicy policy = CachePolicy.of(false, 60_000L, 10L);
+        policy.setKeyWord("user:");
+
+        for (int i = 0; i < 3; i++) {
+            linkCache.getCacheOrLoad("1", p -> "data" + p, p -> "user:" + p, policy);
+        }
+
+        Assertions.assertEquals(2, registry.get("base.cache.requests")
+                .tags("tier", "l1", "keyWord", "user:", "result", "hit").functionCounter().count());
+        Assertions.assertEquals(1, registry.get("base.cache.requests")
+                .tags("tier", "l1", "keyWord", "user:", "result", "miss").functionCounter().count());
+        Assertions.assertEquals(1, registry.get("base.cache.requests")
+                .tags("tier", "l2", "result", "miss").functionCounter().count());
+        Assertions.assertEquals(1, registry.get("base.cache.load").tags("keyWord", "user:").timer().count());
+        Assertions.assertEquals(2, registry.get("base.cache.tier.requests")
+                .tags("tier", "local", "result", "hit").functionCounter().count());
+        // 未命中时加锁后会再读取一次
+        Assertions.assertEquals(4, registry.get("base.cache.tier.latency")
+                .tags("tier", "local", "operation", "get").timer().count());
+    }
+
+    @Test
+    public void testConverterMetrics() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MetricsValueConverter<String> converter = new MetricsValueConverter<>(new KryoValueConverter<>(),
+                new CacheMetrics(registry), "redis");
+        CacheHolder<String> holder = new CacheHolder<>();
+        holder.setData("data");
+        byte[] encoded = converter.encode(holder);
+        Assertions.assertEquals("data", converter.decode(encoded).getData());
+
+        Assertions.assertEquals(encoded.length, registry.get("base.cache.payload")
+                .tags("operation", "encode").summary().totalAmount());
+        Assertions.assertEquals(1, registry.get("base.cache.decode").tags("converter", "redis").timer().count());
+    }
+
+    @Test
+    public void testLazyResultMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheMetrics metrics = new CacheMetrics(registry);
+        LazyGuavaCache remote = new LazyGuavaCache();
+        MetricsCache<Collection<String>> metricsCache = new MetricsCache<>(remote, metrics, "remote");
+        List<Cache<Collection<String>>> caches = new ArrayList<>();
+        caches.add(metricsCache);
+        LinkCache<String> linkCache = new LinkCache<>(caches);
+        CachePolicy policy = CachePolicy.of(false, 60_000L, 10L);
+        AtomicInteger loadTimes = new AtomicInteger();
+
+        remote.put("user:1", Collections.singletonList("data1"), 60_000L);
+        // 只判断是否命中不解码，也不计入命中
+        Assertions.assertTrue(metricsCache.get("user:1").isSuccess());
+        Assertions.assertEquals(0, remote.decodeCount.get());
+        Assertions.assertEquals(0, tierCount(registry, "hit") + tierCount(registry, "miss"));
+
+        Assertions.assertEquals(Arrays.asList("data1"), new ArrayList<>(linkCache.getCacheOrLoad("1", p -> {
+            loadTimes.incrementAndGet();
+            return "data" + p;
+        }, p -> "user:" + p, policy)));
+        Assertions.assertEquals(0, loadTimes.get());
+        Assertions.assertEquals(1, remote.decodeCount.get());
+        Assertions.assertEquals(1, tierCount(registry, "hit"));
+        Assertions.assertEquals(0, tierCount(registry, "miss"));
+
+        // 解码失败视为未命中，重新加载
+        remote.put("user:2", Collections.singletonList("data2"), 60_000L);
+        remote.corrupt.add("user:2");
+        Assertions.assertEquals(Arrays.asList("data2"), linkCache.getCacheOrLoadList(Arrays.asList("2"), p -> {
+            loadTimes.incrementAndGet();
+            return Arrays.asList("data2");
+        }, p -> "user:" + p, d -> ((String) d).replace("data", ""), policy));
+        Assertions.assertEquals(1, loadTimes.get());
+        Assertions.assertEquals(1, tierCount(registry, "hit"));
+        Assertions.assertTrue(tierCount(registry, "miss") >= 1);
+    }
+
+    private static double tierCount(SimpleMeterRegistry registry, String result) {
+        FunctionCounter counter = registry.find("base.cache.tier.requests").tags("tier", "remote", "result", result).functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    /**
+     * 返回延迟解码结果的本地缓存，corrupt 中的 key 返回无法解码的字节
+     */
+    private static class LazyGuavaCache extends GuavaCache<Collection<String>> {
+
+        private final KryoValueConverter<Collection<String>> kryo = new KryoValueConverter<>();
+
+        private final AtomicInteger decodeCount = new AtomicInteger();
+
+        private final Set<String> corrupt = new HashSet<>();
+
+        private final ValueConverter<Collection<String>> converter = new ValueConverter<Collection<String>>() {
+            @Override
+            public CacheHolder<Collection<String>> decode(byte[] value) throws ConvertException {
+                decodeCount.incrementAndGet();
+                return kryo.decode(value);
+            }
+
+            @Override
+            public byte[] encode(CacheHolder<Collection<String>> value) {
+                return kryo.encode(value);
+            }
+        };
+
+        LazyGuavaCache() {
+            super(new KryoValueConverter<>(), 100);
+        }
+
+        @Override
+        public CacheResult<Collection<String>> get(String key) {
+            CacheResult<Collection<String>> result = super.get(key);
+            if (!result.isSuccess()) {
+                return result;
+            }
+            if (corrupt.contains(key)) {
+                return new LazyCacheResult<>(new byte[]{1, 2, 3}, converter);
+            }
+            return new LazyCacheResult<>(converter.encode(CacheHolders.init(result.getData(), result.getExpireAt())), converter);
+        }
+
+        @Override
+        public Map<String, CacheResult<Collection<String>>> getAll(Set<String> keys) {
+            Map<String, CacheResult<Collection<String>>> result = new HashMap<>();
+            for (String key : keys) {
+                CacheResult<Collection<String>> cacheResult = get(key);
+                if (cacheResult.isSuccess()) {
+                    result.put(key, cacheResult);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void put(String key, Collection<String> value, Long expire) {
+            corrupt.remove(key);
+            super.put(key, value, expire);
+        }
+
+        @Override
+        public void putAll(Map<String, ? extends Collection<String>> values, Long expire) {
+            corrupt.removeAll(values.keySet());
+            super.putAll(values, expire);
+        }
+    }
+}
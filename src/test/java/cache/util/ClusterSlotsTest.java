@@ -0,0 +1,39 @@
+package cache.util;
+
+import com.server.base.cache.key.CacheKeyBuilder;
+import com.server.base.cache.util.ClusterSlots;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class ClusterSlotsTest {
+
+    @Test
+    public void testSlot() {
+        // redis-cli cluster keyslot foo
+        Assertions.assertEquals(12182, ClusterSlots.slot("foo"));
+        String key = CacheKeyBuilder.hashTag("user") + "1";
+        Assertions.assertEquals(ClusterSlots.slot("user"), ClusterSlots.slot(key));
+        Assertions.assertEquals(ClusterSlots.slot(key), ClusterSlots.slot("$" + key + "$lock"));
+    }
+
+    @Test
+    public void testGroupBySlot() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            keys.add(CacheKeyBuilder.hashTag("user") + i);
+        }
+        keys.add("other");
+        List<List<String>> groups = ClusterSlots.groupBySlot(keys, 10);
+        Assertions.assertEquals(4, groups.size());
+        Assertions.assertEquals(10, groups.get(0).size());
+        Assertions.assertEquals(5, groups.get(2).size());
+        Assertions.assertEquals("other", groups.get(3).get(0));
+    }
+}
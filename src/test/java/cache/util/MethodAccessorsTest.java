@@ -0,0 +1,48 @@
+package cache.util;
+
+import cache.removekey.Student;
+import com.server.base.cache.util.MethodAccessors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class MethodAccessorsTest {
+
+    @Test
+    public void testGetter() {
+        Student student = Student.builder().id(3L).name("jack").build();
+        Function<Object, Object> getId = MethodAccessors.getter(Student.class, "getId");
+        Assertions.assertEquals(3L, getId.apply(student));
+        Assertions.assertSame(getId, MethodAccessors.getter(Student.class, "getId"));
+        Assertions.assertEquals("jack", MethodAccessors.getter(Student.class, "getName").apply(student));
+    }
+
+    @Test
+    public void testPrimitiveAndPrivateClass() {
+        Function<Object, Object> getter = MethodAccessors.getter(Hidden.class, "getValue");
+        Assertions.assertEquals(7, getter.apply(new Hidden(7)));
+        Assertions.assertThrows(IllegalStateException.class, () -> getter.apply(new Hidden(-1)));
+        Assertions.assertThrows(RuntimeException.class, () -> MethodAccessors.getter(Hidden.class, "missing"));
+    }
+
+    private static class Hidden {
+
+        private final int value;
+
+        private Hidden(int value) {
+            this.value = value;
+        }
+
+        public int getValue() {
+            if (value < 0) {
+                throw new IllegalStateException();
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package cache.util;
+
+import com.server.base.cache.util.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author hanlipeng
+ * @date 2026-10-18
+ */
+public class TimingWheelTest {
+
+    @Test
+    public void testExpireAcrossLevels() throws InterruptedException {
+        // 每层4个槽位，100ms以上的任务需要从高层降级
+        try (TimingWheel wheel = new TimingWheel("test-timing-wheel", 5, TimeUnit.MILLISECONDS, 2, 3)) {
+            long[] delays = {0, 7, 30, 110, 400};
+            CountDownLatch latch = new CountDownLatch(delays.length);
+            AtomicInteger early = new AtomicInteger();
+            for (long delay : delays) {
+                long start = System.nanoTime();
+                wheel.schedule(delay, TimeUnit.MILLISECONDS, () -> {
+                    if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                        early.incrementAndGet();
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+            assertEquals(0, early.get());
+        }
+    }
+
+    @Test
+    public void testClose() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel("test-timing-wheel-close", 5, TimeUnit.MILLISECONDS, 2, 3);
+        AtomicInteger count = new AtomicInteger();
+        wheel.schedule(50, TimeUnit.MILLISECONDS, count::incrementAndGet);
+        wheel.close();
+        assertTrue(wheel.schedule(0, TimeUnit.MILLISECONDS, count::incrementAndGet).isCancelled());
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertEquals(0, count.get());
+        // 后台线程已经退出
+        assertFalse(Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().equals("test-timing-wheel-close")));
+        assertThrows(IllegalStateException.class, () -> TimingWheel.shared().close());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        TimingWheel wheel = TimingWheel.shared();
+        AtomicInteger count = new AtomicInteger();
+        TimingWheel.Timeout timeout = wheel.schedule(50, TimeUnit.MILLISECONDS, count::incrementAndGet);
+        timeout.cancel();
+        CountDownLatch latch = new CountDownLatch(1);
+        wheel.schedule(100, TimeUnit.MILLISECONDS, latch::countDown);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, count.get());
+    }
+}